@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.ArrayFS;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+
+/**
+ * Generates CASes of a given size for the benchmarks. The text mixes ASCII, BMP and supplementary
+ * characters so that the offset conversion modes actually have work to do. Tokens refer to other
+ * tokens of the same sentence (forward and backward) and sentences hold their tokens in an
+ * {@code FSArray}.
+ */
+public class BenchmarkCasGenerator {
+  public static final String TYPE_NAME_TOKEN = "benchmark.Token";
+  public static final String TYPE_NAME_SENTENCE = "benchmark.Sentence";
+
+  public static final String FEATURE_POS = "pos";
+  public static final String FEATURE_SCORE = "score";
+  public static final String FEATURE_HEAD = "head";
+  public static final String FEATURE_TOKENS = "tokens";
+
+  private static final String[] WORDS = { "The", "quick", "brown", "fox", "jumps", "über", "den",
+      "Zaun", "漢字", "😀", "and", "runs", "away" };
+
+  private static final String[] TAGS = { "DET", "ADJ", "NOUN", "VERB", "ADP", "PUNCT" };
+
+  private static final int TOKENS_PER_SENTENCE = 10;
+
+  private BenchmarkCasGenerator() {
+    // No instances
+  }
+
+  public static TypeSystemDescription typeSystem() {
+    TypeSystemDescription tsd = UIMAFramework.getResourceSpecifierFactory()
+            .createTypeSystemDescription();
+
+    TypeDescription token = tsd.addType(TYPE_NAME_TOKEN, null, CAS.TYPE_NAME_ANNOTATION);
+    token.addFeature(FEATURE_POS, null, CAS.TYPE_NAME_STRING);
+    token.addFeature(FEATURE_SCORE, null, CAS.TYPE_NAME_FLOAT);
+    token.addFeature(FEATURE_HEAD, null, TYPE_NAME_TOKEN);
+
+    TypeDescription sentence = tsd.addType(TYPE_NAME_SENTENCE, null, CAS.TYPE_NAME_ANNOTATION);
+    sentence.addFeature(FEATURE_TOKENS, null, CAS.TYPE_NAME_FS_ARRAY, TYPE_NAME_TOKEN, false);
+
+    return tsd;
+  }
+
+  public static CAS createCas() throws ResourceInitializationException {
+    return CasCreationUtils.createCas(typeSystem(), null, null, null);
+  }
+
+  /**
+   * @param aSize
+   *          approximate number of feature structures to generate.
+   * @param aSeed
+   *          seed for the random generator so that all runs see the same data.
+   * @return a new CAS with the generated data.
+   */
+  public static CAS generate(int aSize, long aSeed) throws ResourceInitializationException {
+    Random rnd = new Random(aSeed);
+
+    // Each sentence contributes its tokens, the sentence itself and its token array
+    int sentenceCount = Math.max(1, aSize / (TOKENS_PER_SENTENCE + 2));
+
+    StringBuilder text = new StringBuilder();
+    List<int[]> tokenOffsets = new ArrayList<>();
+    for (int s = 0; s < sentenceCount; s++) {
+      for (int t = 0; t < TOKENS_PER_SENTENCE; t++) {
+        String word = WORDS[rnd.nextInt(WORDS.length)];
+        int begin = text.length();
+        text.append(word);
+        tokenOffsets.add(new int[] { begin, text.length() });
+        text.append(' ');
+      }
+    }
+
+    CAS cas = createCas();
+    cas.setDocumentText(text.toString());
+
+    Type tokenType = cas.getTypeSystem().getType(TYPE_NAME_TOKEN);
+    Feature posFeature = tokenType.getFeatureByBaseName(FEATURE_POS);
+    Feature scoreFeature = tokenType.getFeatureByBaseName(FEATURE_SCORE);
+    Feature headFeature = tokenType.getFeatureByBaseName(FEATURE_HEAD);
+    Type sentenceType = cas.getTypeSystem().getType(TYPE_NAME_SENTENCE);
+    Feature tokensFeature = sentenceType.getFeatureByBaseName(FEATURE_TOKENS);
+
+    for (int s = 0; s < sentenceCount; s++) {
+      AnnotationFS[] tokens = new AnnotationFS[TOKENS_PER_SENTENCE];
+      for (int t = 0; t < TOKENS_PER_SENTENCE; t++) {
+        int[] offsets = tokenOffsets.get(s * TOKENS_PER_SENTENCE + t);
+        AnnotationFS token = cas.createAnnotation(tokenType, offsets[0], offsets[1]);
+        token.setStringValue(posFeature, TAGS[rnd.nextInt(TAGS.length)]);
+        token.setFloatValue(scoreFeature, rnd.nextFloat());
+        tokens[t] = token;
+      }
+
+      for (AnnotationFS token : tokens) {
+        token.setFeatureValue(headFeature, tokens[rnd.nextInt(tokens.length)]);
+        cas.addFsToIndexes(token);
+      }
+
+      AnnotationFS sentence = cas.createAnnotation(sentenceType, tokens[0].getBegin(),
+              tokens[tokens.length - 1].getEnd());
+      @SuppressWarnings("unchecked")
+      ArrayFS<AnnotationFS> tokenArray = cas.createArrayFS(tokens.length);
+      tokenArray.copyFromArray(tokens, 0, 0, tokens.length);
+      sentence.setFeatureValue(tokensFeature, tokenArray);
+      cas.addFsToIndexes(sentence);
+    }
+
+    return cas;
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.json.jsoncas2.JsonCas2Deserializer;
+import org.apache.uima.json.jsoncas2.JsonCas2Serializer;
+import org.apache.uima.json.jsoncas2.mode.FeatureStructuresMode;
+import org.apache.uima.json.jsoncas2.mode.OffsetConversionMode;
+import org.apache.uima.json.jsoncas2.mode.SofaMode;
+import org.apache.uima.json.jsoncas2.mode.TypeSystemMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link JsonCas2Deserializer} across the serialization modes and CAS sizes. The input
+ * is prepared once per trial using {@link JsonCas2Serializer}. The target CAS is reset as part of
+ * each invocation.
+ * <p>
+ * The deserializer does not support documents written with {@link TypeSystemMode#NONE} (the
+ * target CAS is only picked up when the type system is read) or with
+ * {@link SofaMode#AS_PART_OF_VIEW}, so these are not part of the parameter space.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class JsonCas2DeserializerBenchmark {
+  @Param({ "1000", "10000", "100000", "1000000" })
+  private int size;
+
+  @Param
+  private FeatureStructuresMode fsMode;
+
+  @Param({ "FULL", "MINIMAL" })
+  private TypeSystemMode typeSystemMode;
+
+  @Param
+  private OffsetConversionMode offsetConversionMode;
+
+  private byte[] data;
+
+  private CAS targetCas;
+
+  private JsonCas2Deserializer deserializer;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    CAS sourceCas = BenchmarkCasGenerator.generate(size, 123456L);
+
+    JsonCas2Serializer serializer = new JsonCas2Serializer();
+    serializer.setFsMode(fsMode);
+    serializer.setSofaMode(SofaMode.AS_REGULAR_FEATURE_STRUCTURE);
+    serializer.setTypeSystemMode(typeSystemMode);
+    serializer.setOffsetConversionMode(offsetConversionMode);
+    try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+      serializer.serialize(sourceCas, bos);
+      data = bos.toByteArray();
+    }
+
+    targetCas = BenchmarkCasGenerator.createCas();
+
+    deserializer = new JsonCas2Deserializer();
+    deserializer.setFsMode(fsMode);
+  }
+
+  @Benchmark
+  public CAS deserialize() throws IOException {
+    targetCas.reset();
+    deserializer.deserialize(new ByteArrayInputStream(data), targetCas);
+    return targetCas;
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.json.jsoncas2.JsonCas2Serializer;
+import org.apache.uima.json.jsoncas2.mode.FeatureStructuresMode;
+import org.apache.uima.json.jsoncas2.mode.FormattingMode;
+import org.apache.uima.json.jsoncas2.mode.OffsetConversionMode;
+import org.apache.uima.json.jsoncas2.mode.SofaMode;
+import org.apache.uima.json.jsoncas2.mode.TypeSystemMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link JsonCas2Serializer} across all serialization and formatting modes and CAS sizes.
+ * The output is discarded so that only the serializer itself is measured. The returned byte count
+ * allows comparing the payload size of the compact and pretty formatting modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class JsonCas2SerializerBenchmark {
+  @Param({ "1000", "10000", "100000", "1000000" })
+  private int size;
+
+  @Param
+  private FeatureStructuresMode fsMode;
+
+  @Param
+  private SofaMode sofaMode;
+
+  @Param
+  private TypeSystemMode typeSystemMode;
+
+  @Param
+  private OffsetConversionMode offsetConversionMode;
+
+  @Param
+  private FormattingMode formattingMode;
+
+  private CAS cas;
+
+  private JsonCas2Serializer serializer;
+
+  private CountingNullOutputStream out;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    cas = BenchmarkCasGenerator.generate(size, 123456L);
+
+    serializer = new JsonCas2Serializer();
+    serializer.setFsMode(fsMode);
+    serializer.setSofaMode(sofaMode);
+    serializer.setTypeSystemMode(typeSystemMode);
+    serializer.setOffsetConversionMode(offsetConversionMode);
+    serializer.setFormattingMode(formattingMode);
+
+    out = new CountingNullOutputStream();
+  }
+
+  @Benchmark
+  public long serialize() throws IOException {
+    out.reset();
+    serializer.serialize(cas, out);
+    return out.getCount();
+  }
+
+  static class CountingNullOutputStream extends OutputStream {
+    private long count;
+
+    @Override
+    public void write(int aByte) {
+      count++;
+    }
+
+    @Override
+    public void write(byte[] aBuffer, int aOffset, int aLength) {
+      count += aLength;
+    }
+
+    public void reset() {
+      count = 0;
+    }
+
+    public long getCount() {
+      return count;
+    }
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2;
+
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.FEATURE_STRUCTURES_FIELD;
+
+import java.io.IOException;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.json.jsoncas2.ser.IncrementalCasDeserializer;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Deserializes a CAS from chunks of a document which are pushed as they arrive, e.g. from a
+ * network connection, without blocking and without buffering the whole document. Each feature
+ * structure is created in the CAS as soon as it has been received completely. Other sections of
+ * the document are buffered until they are complete. If the feature structures are not laid out as
+ * an array, they are buffered as a whole.
+ * <p>
+ * Only the {@link org.apache.uima.json.jsoncas2.mode.DataFormatMode#JSON JSON} and
+ * {@link org.apache.uima.json.jsoncas2.mode.DataFormatMode#SMILE Smile} formats can be read
+ * asynchronously.
+ * <p>
+ * An async reader reads a single document and is not thread-safe.
+ */
+public class JsonCas2AsyncReader {
+  private final ObjectReader reader;
+  private final JsonParser parser;
+  private final ByteArrayFeeder feeder;
+  private final IncrementalCasDeserializer deserializer;
+
+  private int depth;
+  private String sectionName;
+  private boolean inFeatureStructures;
+  private TokenBuffer pending;
+  private CAS cas;
+
+  JsonCas2AsyncReader(ObjectMapper aMapper, ObjectReader aReader) throws IOException {
+    if (!aReader.getFactory().canParseAsync()) {
+      throw new IllegalArgumentException("Documents in the ["
+              + aReader.getFactory().getFormatName() + "] format cannot be read asynchronously");
+    }
+
+    reader = aReader;
+    parser = aReader.getFactory().createNonBlockingByteArrayParser();
+    feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    DeserializationContext ctxt = ((DefaultDeserializationContext) aMapper
+            .getDeserializationContext()).createInstance(aReader.getConfig(), parser, null);
+    deserializer = new IncrementalCasDeserializer(ctxt);
+  }
+
+  public void feed(byte[] aData) throws IOException {
+    feed(aData, 0, aData.length);
+  }
+
+  /**
+   * Passes the next chunk of the document. The chunk is consumed completely before the method
+   * returns, so the buffer can be re-used afterwards.
+   * 
+   * @param aData
+   *          the buffer holding the chunk.
+   * @param aOffset
+   *          the start of the chunk in the buffer.
+   * @param aLength
+   *          the length of the chunk.
+   * @throws IOException
+   *           if the document is malformed or a feature structure could not be created.
+   */
+  public void feed(byte[] aData, int aOffset, int aLength) throws IOException {
+    if (cas != null) {
+      throw new IllegalStateException("The document has already been read");
+    }
+
+    feeder.feedInput(aData, aOffset, aOffset + aLength);
+    processTokens();
+  }
+
+  /**
+   * Signals the end of the document.
+   * 
+   * @return the deserialized CAS.
+   * @throws IOException
+   *           if the document is incomplete.
+   */
+  public CAS finish() throws IOException {
+    if (cas != null) {
+      return cas;
+    }
+
+    feeder.endOfInput();
+    processTokens();
+    if (depth != 0) {
+      throw new JsonParseException(parser, "Unexpected end of document");
+    }
+
+    parser.close();
+    cas = deserializer.finish();
+    return cas;
+  }
+
+  private void processTokens() throws IOException {
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+      // Structure start and end tokens are processed at the depth of the enclosing structure
+      if (token.isStructEnd()) {
+        depth--;
+      }
+
+      if (inFeatureStructures && depth == 1) {
+        // End of the feature structures array
+        inFeatureStructures = false;
+        deserializer.endFeatureStructures();
+      } else if (inFeatureStructures && depth == 2) {
+        // Start or end of a feature structure
+        if (token == JsonToken.START_OBJECT) {
+          pending = new TokenBuffer(reader, false);
+        } else if (pending == null) {
+          throw new JsonParseException(parser, "Expected feature structure to start with "
+                  + JsonToken.START_OBJECT + " but found " + token + " instead");
+        }
+        pending.copyCurrentEvent(parser);
+        if (token == JsonToken.END_OBJECT) {
+          readPending(true);
+        }
+      } else if (depth == 1) {
+        // Start of a section or start or end of its value
+        if (token == JsonToken.FIELD_NAME) {
+          sectionName = parser.currentName();
+          pending = new TokenBuffer(reader, false);
+          pending.writeStartObject();
+          pending.copyCurrentEvent(parser);
+        } else if (token == JsonToken.START_ARRAY && FEATURE_STRUCTURES_FIELD.equals(sectionName)) {
+          inFeatureStructures = true;
+          pending = null;
+        } else {
+          pending.copyCurrentEvent(parser);
+          if (!token.isStructStart()) {
+            pending.writeEndObject();
+            readPending(false);
+          }
+        }
+      } else if (depth > 1) {
+        pending.copyCurrentEvent(parser);
+      }
+
+      if (token.isStructStart()) {
+        depth++;
+      }
+    }
+  }
+
+  private void readPending(boolean aFeatureStructure) throws IOException {
+    try (JsonParser pendingParser = pending.asParser(reader)) {
+      pendingParser.nextToken();
+      if (aFeatureStructure) {
+        deserializer.readFeatureStructure(pendingParser);
+      } else {
+        deserializer.readSection(pendingParser);
+      }
+    }
+    pending = null;
+  }
+}
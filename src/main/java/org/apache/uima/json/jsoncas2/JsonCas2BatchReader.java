@@ -0,0 +1,434 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.BATCH_HEADER_FIELD;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.TYPES_FIELD;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.json.jsoncas2.ser.CasDeserializationContext;
+import org.apache.uima.json.jsoncas2.ser.CasDeserializer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Reads a sequence of CASes from a JSON Lines stream as written by {@link JsonCas2BatchWriter}. A
+ * leading header record, i.e. one whose first field is <code>%BATCH_HEADER</code>, is not read into
+ * a CAS, but all types it declares must exist in the type system of the target CASes. Each record
+ * is read into a caller-supplied CAS which is reset first. A single parser and deserialization
+ * context are used for all records.
+ * <p>
+ * A batch reader is not thread-safe. Use {@link #forEachParallel} to process records on multiple
+ * threads.
+ */
+public class JsonCas2BatchReader implements Closeable {
+  private static final int QUEUE_SIZE_PER_THREAD = 16;
+  private static final long POLL_TIMEOUT_MS = 100;
+  private static final int BLOCK_SIZE = 64 * 1024;
+
+  private final ObjectReader reader;
+  private final InputStream source;
+
+  private JsonParser parser;
+  private TokenBuffer firstRecord;
+  private Set<String> headerTypeNames;
+  private TypeSystem checkedTypeSystem;
+
+  JsonCas2BatchReader(ObjectReader aReader, InputStream aSourceStream) {
+    if (!JsonFactory.FORMAT_NAME_JSON.equals(aReader.getFactory().getFormatName())) {
+      throw new IllegalArgumentException("JSON Lines batches can only be read as JSON");
+    }
+
+    reader = aReader.withAttribute(CasDeserializationContext.KEY, new CasDeserializationContext());
+    source = aSourceStream;
+  }
+
+  /**
+   * Resets the given CAS and reads the next record into it.
+   * 
+   * @param aTargetCas
+   *          the CAS to read into.
+   * @return {@code false} if there are no more records.
+   * @throws IOException
+   *           if the record could not be read.
+   */
+  public boolean read(CAS aTargetCas) throws IOException {
+    if (!hasNextRecord()) {
+      return false;
+    }
+
+    TypeSystem ts = aTargetCas.getTypeSystem();
+    if (ts != checkedTypeSystem) {
+      checkHeaderTypes(ts);
+      checkedTypeSystem = ts;
+    }
+
+    aTargetCas.reset();
+    ObjectReader casReader = reader.withAttribute(CasDeserializer.CONTEXT_CAS, aTargetCas);
+    if (firstRecord != null) {
+      try (JsonParser recordParser = firstRecord.asParser(parser.getCodec())) {
+        recordParser.nextToken();
+        casReader.readValue(recordParser);
+      }
+      firstRecord = null;
+      return true;
+    }
+
+    casReader.readValue(parser);
+    // The CAS deserializer may stop before the end of the record
+    while (!parser.getParsingContext().inRoot()) {
+      parser.nextToken();
+    }
+    parser.clearCurrentToken();
+
+    return true;
+  }
+
+  /**
+   * @param aTargetCas
+   *          the CAS to read into. The same CAS is reset and returned for every record, so it must
+   *          no longer be used once the iterator advances.
+   * @return an iterator over all remaining records.
+   */
+  public Iterator<CAS> iterator(CAS aTargetCas) {
+    return new Iterator<CAS>() {
+      @Override
+      public boolean hasNext() {
+        try {
+          return hasNextRecord();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+
+      @Override
+      public CAS next() {
+        try {
+          if (!read(aTargetCas)) {
+            throw new NoSuchElementException();
+          }
+          return aTargetCas;
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    };
+  }
+
+  private boolean hasNextRecord() throws IOException {
+    if (parser == null) {
+      parser = reader.createParser(source);
+      if (parser.nextToken() == null) {
+        return false;
+      }
+
+      // Buffer the first record so it can still be read into a CAS if it is not a header
+      TokenBuffer buffer = new TokenBuffer(parser);
+      buffer.copyCurrentStructure(parser);
+      parser.clearCurrentToken();
+      try (JsonParser headerParser = buffer.asParser(parser.getCodec())) {
+        headerParser.nextToken();
+        headerTypeNames = readHeader(headerParser);
+      }
+      if (headerTypeNames == null) {
+        firstRecord = buffer;
+      }
+    }
+
+    return firstRecord != null || parser.currentToken() != null || parser.nextToken() != null;
+  }
+
+  /**
+   * Reads all remaining records using the given number of threads and passes each CAS to the given
+   * action. Every thread obtains one CAS from the supplier and resets it for each record it reads.
+   * Records are not necessarily processed in the order in which they appear in the stream.
+   * <p>
+   * This relies on each record occupying exactly one line and can only be used if no records have
+   * been read from this reader yet.
+   * 
+   * @param aThreads
+   *          the number of threads.
+   * @param aCasSupplier
+   *          supplies one CAS per thread, e.g. from a CAS pool.
+   * @param aAction
+   *          the action to apply to each CAS.
+   * @throws IOException
+   *           if a record could not be read.
+   */
+  public void forEachParallel(int aThreads, Supplier<CAS> aCasSupplier, Consumer<CAS> aAction)
+          throws IOException {
+    if (parser != null) {
+      throw new IllegalStateException("Parallel reading must start before any records are read");
+    }
+
+    BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(aThreads * QUEUE_SIZE_PER_THREAD);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    AtomicBoolean done = new AtomicBoolean();
+    LineReader in = new LineReader(source);
+
+    // The header must be known before the workers check their CASes against it
+    byte[] line = in.readLine();
+    if (line != null) {
+      try (JsonParser lineParser = reader.createParser(line)) {
+        lineParser.nextToken();
+        headerTypeNames = readHeader(lineParser);
+      }
+      if (headerTypeNames != null) {
+        line = in.readLine();
+      }
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(aThreads);
+    try {
+      for (int i = 0; i < aThreads; i++) {
+        executor.execute(() -> processRecords(queue, done, failure, aCasSupplier, aAction));
+      }
+
+      while (line != null && failure.get() == null) {
+        if (queue.offer(line, POLL_TIMEOUT_MS, MILLISECONDS)) {
+          line = in.readLine();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } finally {
+      done.set(true);
+      executor.shutdown();
+      awaitTermination(executor);
+    }
+
+    Throwable e = failure.get();
+    if (e instanceof IOException) {
+      throw (IOException) e;
+    }
+    if (e instanceof RuntimeException) {
+      throw (RuntimeException) e;
+    }
+    if (e instanceof Error) {
+      throw (Error) e;
+    }
+  }
+
+  private void processRecords(BlockingQueue<byte[]> aQueue, AtomicBoolean aDone,
+          AtomicReference<Throwable> aFailure, Supplier<CAS> aCasSupplier, Consumer<CAS> aAction) {
+    try {
+      CAS cas = aCasSupplier.get();
+      checkHeaderTypes(cas.getTypeSystem());
+      ObjectReader casReader = reader.withAttribute(CasDeserializer.CONTEXT_CAS, cas)
+              .withAttribute(CasDeserializationContext.KEY, new CasDeserializationContext());
+      while (aFailure.get() == null) {
+        byte[] record = aQueue.poll(POLL_TIMEOUT_MS, MILLISECONDS);
+        if (record == null) {
+          if (aDone.get() && aQueue.isEmpty()) {
+            return;
+          }
+          continue;
+        }
+
+        cas.reset();
+        casReader.readValue(record);
+        aAction.accept(cas);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      aFailure.compareAndSet(null, new InterruptedIOException());
+    } catch (Throwable e) {
+      aFailure.compareAndSet(null, e);
+    }
+  }
+
+  private static void awaitTermination(ExecutorService aExecutor) throws InterruptedIOException {
+    try {
+      while (!aExecutor.awaitTermination(POLL_TIMEOUT_MS, MILLISECONDS)) {
+        // Wait for the workers to drain the queue
+      }
+    } catch (InterruptedException e) {
+      aExecutor.shutdownNow();
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+  }
+
+  /**
+   * Reads the names of the declared types if the record the parser is positioned on is a header.
+   * 
+   * @return the type names if the record is a header, otherwise {@code null}. A header which
+   *         declares no type system yields an empty set.
+   */
+  private static Set<String> readHeader(JsonParser aParser) throws IOException {
+    if (aParser.currentToken() != JsonToken.START_OBJECT
+            || !BATCH_HEADER_FIELD.equals(aParser.nextFieldName())) {
+      return null;
+    }
+
+    if (aParser.nextToken() != JsonToken.START_OBJECT) {
+      throw new JsonParseException(aParser, "Batch header must be a JSON object");
+    }
+
+    Set<String> typeNames = new LinkedHashSet<>();
+    String fieldName;
+    while ((fieldName = aParser.nextFieldName()) != null) {
+      aParser.nextToken();
+      if (!TYPES_FIELD.equals(fieldName)) {
+        aParser.skipChildren();
+        continue;
+      }
+
+      if (aParser.currentToken() != JsonToken.START_OBJECT) {
+        throw new JsonParseException(aParser, "Type system declaration must be a JSON object");
+      }
+
+      String typeName;
+      while ((typeName = aParser.nextFieldName()) != null) {
+        typeNames.add(typeName);
+        aParser.nextToken();
+        aParser.skipChildren();
+      }
+    }
+
+    return typeNames;
+  }
+
+  private void checkHeaderTypes(TypeSystem aTypeSystem) throws IOException {
+    if (headerTypeNames == null) {
+      return;
+    }
+
+    for (String typeName : headerTypeNames) {
+      if (aTypeSystem.getType(typeName) == null) {
+        throw new IOException("Type [" + typeName + "] declared in the batch header is "
+                + "missing from the type system of the target CAS");
+      }
+    }
+  }
+
+  /**
+   * Splits a stream into lines. The stream is read in blocks into a buffer which is re-used for
+   * all lines, and every line is copied out of the buffer once.
+   */
+  private static final class LineReader {
+    private final InputStream in;
+
+    private byte[] buffer = new byte[BLOCK_SIZE];
+    private int start;
+    private int end;
+
+    LineReader(InputStream aIn) {
+      in = aIn;
+    }
+
+    /**
+     * @return the next non-blank line without the line terminator or {@code null} at the end of
+     *         the stream.
+     */
+    byte[] readLine() throws IOException {
+      int pos = start;
+      while (true) {
+        for (; pos < end; pos++) {
+          if (buffer[pos] == '\n') {
+            int lineStart = start;
+            start = pos + 1;
+            if (!isBlank(buffer, lineStart, pos)) {
+              return Arrays.copyOfRange(buffer, lineStart, pos);
+            }
+          }
+        }
+
+        int scanned = end - start;
+        if (!fill()) {
+          int lineStart = start;
+          start = end;
+          return isBlank(buffer, lineStart, end) ? null
+                  : Arrays.copyOfRange(buffer, lineStart, end);
+        }
+        pos = start + scanned;
+      }
+    }
+
+    /**
+     * Moves the current line to the start of the buffer, growing the buffer if the line already
+     * fills it, and reads the next block behind it.
+     * 
+     * @return {@code false} at the end of the stream.
+     */
+    private boolean fill() throws IOException {
+      if (start > 0) {
+        System.arraycopy(buffer, start, buffer, 0, end - start);
+        end -= start;
+        start = 0;
+      } else if (end == buffer.length) {
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+      }
+
+      int read = in.read(buffer, end, buffer.length - end);
+      if (read == -1) {
+        return false;
+      }
+
+      end += read;
+      return true;
+    }
+
+    private static boolean isBlank(byte[] aBuffer, int aFrom, int aTo) {
+      for (int i = aFrom; i < aTo; i++) {
+        byte b = aBuffer[i];
+        if (b != ' ' && b != '\t' && b != '\r') {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (parser != null) {
+      parser.close();
+    } else {
+      source.close();
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2;
+
+import static com.fasterxml.jackson.databind.SerializationFeature.FLUSH_AFTER_WRITE_VALUE;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.BATCH_HEADER_FIELD;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.TYPES_FIELD;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.json.jsoncas2.mode.TypeSystemMode;
+import org.apache.uima.json.jsoncas2.ref.ReferenceCache;
+import org.apache.uima.json.jsoncas2.ser.CasSerializationContext;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.PrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Writes a sequence of CASes to a single stream in the JSON Lines format, i.e. one compact JSON CAS
+ * document per line. A single generator and serialization context are used for all CASes.
+ * <p>
+ * Optionally, the type system is written only once as a leading header record of the form
+ * <code>{"%BATCH_HEADER":{"%TYPES":{...}}}</code> and omitted from the CAS records. In this case,
+ * all CASes written must share the same type system.
+ * <p>
+ * A batch writer is not thread-safe.
+ */
+public class JsonCas2BatchWriter implements Closeable, Flushable {
+  private final ObjectWriter writer;
+  private final CasSerializationContext context;
+  private final JsonGenerator generator;
+  private final boolean typeSystemHeader;
+
+  private TypeSystem typeSystem;
+
+  JsonCas2BatchWriter(ObjectWriter aWriter, CasSerializationContext aContext,
+          OutputStream aTargetStream, boolean aTypeSystemHeader) throws IOException {
+    if (!JsonFactory.FORMAT_NAME_JSON.equals(aWriter.getFactory().getFormatName())) {
+      throw new IllegalArgumentException("JSON Lines batches can only be written as JSON");
+    }
+
+    ObjectWriter writer = aWriter //
+            .with((PrettyPrinter) null) //
+            .without(FLUSH_AFTER_WRITE_VALUE) //
+            .withAttribute(CasSerializationContext.KEY, aContext);
+    if (aTypeSystemHeader) {
+      writer = writer.withAttribute(TypeSystemMode.KEY, TypeSystemMode.NONE);
+    }
+
+    this.writer = writer;
+    context = aContext;
+    typeSystemHeader = aTypeSystemHeader;
+    generator = writer.createGenerator(aTargetStream, JsonEncoding.UTF8);
+    generator.setRootValueSeparator(null);
+  }
+
+  public void write(CAS aCas) throws IOException {
+    if (typeSystemHeader) {
+      TypeSystem ts = aCas.getTypeSystem();
+      if (typeSystem == null) {
+        typeSystem = ts;
+        writeTypeSystemHeader();
+      } else if (ts != typeSystem && !ts.equals(typeSystem)) {
+        throw new IllegalArgumentException(
+                "All CASes in a batch with a type system header must share the same type system");
+      }
+    }
+
+    writer.writeValue(generator, aCas);
+    generator.writeRaw('\n');
+  }
+
+  private void writeTypeSystemHeader() throws IOException {
+    generator.writeStartObject();
+    generator.writeFieldName(BATCH_HEADER_FIELD);
+    generator.writeStartObject();
+    generator.writeFieldName(TYPES_FIELD);
+    try {
+      writer.withAttribute(ReferenceCache.KEY, context.getReferenceCache()) //
+              .withAttribute(TypeSystemMode.KEY, TypeSystemMode.FULL) //
+              .writeValue(generator, typeSystem);
+    } finally {
+      context.reset();
+    }
+    generator.writeEndObject();
+    generator.writeEndObject();
+    generator.writeRaw('\n');
+  }
+
+  @Override
+  public void flush() throws IOException {
+    generator.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    generator.close();
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.json.jsoncas2.ser.CasSerializationContext;
+import org.apache.uima.json.jsoncas2.ser.ChunkedOutput;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Serializes a CAS in chunks which are produced when the consumer asks for them, e.g. when a
+ * network connection becomes writable. As the consumer pulls the chunks, it controls the pace of
+ * the serialization and no thread is blocked waiting for the consumer. The feature structures are
+ * only written when their chunks are requested, so the document is never held in memory as a
+ * whole. This requires {@link org.apache.uima.json.jsoncas2.mode.FormattingMode#COMPACT compact}
+ * JSON in the {@link org.apache.uima.json.jsoncas2.mode.StreamingMode#BUFFERED buffered} mode and
+ * the {@link org.apache.uima.json.jsoncas2.mode.FeatureStructuresMode#AS_ARRAY array} layout.
+ * Otherwise, the whole document is written when the chunk source is created.
+ * <p>
+ * The CAS must not be modified until all chunks have been read or the chunk source has been
+ * closed. A chunk source is not thread-safe.
+ */
+public class JsonCas2ChunkSource implements Closeable {
+  private final ChunkedOutput output;
+  private final int maxChunkSize;
+
+  private byte[] segment;
+  private int position;
+
+  JsonCas2ChunkSource(ObjectWriter aWriter, CasSerializationContext aContext, CAS aCas,
+          int aMaxChunkSize) throws IOException {
+    if (aMaxChunkSize <= 0) {
+      throw new IllegalArgumentException("Maximum chunk size must be positive");
+    }
+
+    output = new ChunkedOutput();
+    maxChunkSize = aMaxChunkSize;
+
+    // The feature structures are only written when the output is read, so the context must be
+    // kept until then
+    output.onRelease(aContext::reset);
+    ObjectWriter writer = aWriter //
+            .withAttribute(CasSerializationContext.KEY, aContext) //
+            .withAttribute(CasSerializationContext.RESET_DEFERRED_KEY, true);
+    try {
+      writer.writeValue(output, aCas);
+    } catch (IOException | RuntimeException e) {
+      output.release();
+      throw e;
+    }
+  }
+
+  /**
+   * @return the next chunk of at most the maximum chunk size or {@code null} if the whole document
+   *         has been read.
+   * @throws IOException
+   *           if the chunk could not be written.
+   */
+  public ByteBuffer nextChunk() throws IOException {
+    while (segment == null || position == segment.length) {
+      segment = output.next();
+      position = 0;
+      if (segment == null) {
+        return null;
+      }
+    }
+
+    int length = Math.min(maxChunkSize, segment.length - position);
+    ByteBuffer chunk = ByteBuffer.wrap(segment, position, length).slice();
+    position += length;
+    return chunk;
+  }
+
+  /**
+   * Discards the remaining chunks. Must be called if the chunk source is not read completely.
+   */
+  @Override
+  public void close() {
+    segment = null;
+    output.release();
+  }
+}
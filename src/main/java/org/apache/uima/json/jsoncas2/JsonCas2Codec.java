@@ -0,0 +1,382 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.Type;
+import org.apache.uima.json.jsoncas2.io.ChannelOutputStream;
+import org.apache.uima.json.jsoncas2.io.MappedFileInputStream;
+import org.apache.uima.json.jsoncas2.mode.ArrayEncodingMode;
+import org.apache.uima.json.jsoncas2.mode.DataFormatMode;
+import org.apache.uima.json.jsoncas2.mode.FeatureStructuresMode;
+import org.apache.uima.json.jsoncas2.mode.FormattingMode;
+import org.apache.uima.json.jsoncas2.mode.OffsetConversionMode;
+import org.apache.uima.json.jsoncas2.mode.ParallelMode;
+import org.apache.uima.json.jsoncas2.mode.SofaMode;
+import org.apache.uima.json.jsoncas2.mode.StreamingMode;
+import org.apache.uima.json.jsoncas2.mode.TypeSystemMode;
+import org.apache.uima.json.jsoncas2.ref.ReferenceCache;
+import org.apache.uima.json.jsoncas2.ser.CasDeserializer;
+import org.apache.uima.json.jsoncas2.ser.CasSerializationContext;
+
+import com.fasterxml.jackson.core.PrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Immutable serializer/deserializer for the JSON CAS format. All Jackson objects are created
+ * eagerly when the codec is built, so a codec can be shared freely between threads without any
+ * locking when reading or writing.
+ * <p>
+ * Use {@link #builder()} to configure a new codec.
+ */
+public final class JsonCas2Codec {
+  private final ObjectWriter writer;
+  private final ObjectMapper readMapper;
+  private final ObjectReader reader;
+  private final ForkJoinPool parallelPool;
+  private final long mappedRegionSize;
+  private final Supplier<CasSerializationContext> contextSupplier;
+
+  private JsonCas2Codec(Builder builder) {
+    writer = builder.serializer.createWriter();
+    readMapper = builder.deserializer.createMapper();
+    reader = builder.deserializer.configureReader(readMapper);
+    parallelPool = builder.deserializer.getParallelPool();
+    mappedRegionSize = builder.deserializer.getMappedRegionSize();
+    JsonCas2Serializer serializer = builder.serializer;
+    ReferenceCache.Builder refCacheBuilder = ReferenceCache.builder()
+            .withIdRefGeneratorSupplier(serializer.getIdRefGeneratorSupplier())
+            .withTypeRefGeneratorSupplier(serializer.getTypeRefGeneratorSupplier());
+    contextSupplier = () -> new CasSerializationContext(refCacheBuilder.build());
+  }
+
+  /**
+   * Creates a serialization context which can be re-used across calls to
+   * {@link #serialize(CAS, OutputStream, CasSerializationContext)}. The codec itself is
+   * thread-safe, but a context must only be used by one thread at a time.
+   * 
+   * @return a new serialization context.
+   */
+  public CasSerializationContext createContext() {
+    return contextSupplier.get();
+  }
+
+  /**
+   * Creates a source from which the serialized CAS is read in chunks.
+   * 
+   * @param aCas
+   *          the CAS to serialize. It must not be modified until the chunk source has been read
+   *          completely or closed.
+   * @param aMaxChunkSize
+   *          the maximum size of a chunk in bytes.
+   * @return the chunk source.
+   * @throws IOException
+   *           if the CAS could not be serialized.
+   */
+  public JsonCas2ChunkSource createChunkSource(CAS aCas, int aMaxChunkSize) throws IOException {
+    return new JsonCas2ChunkSource(writer, createContext(), aCas, aMaxChunkSize);
+  }
+
+  public void serialize(CAS aCas, File aTargetFile) throws IOException {
+    writer.writeValue(aTargetFile, aCas);
+  }
+
+  /**
+   * Serializes to the given file through a channel which is handed the data in blocks from a heap
+   * buffer.
+   * 
+   * @param aCas
+   *          the CAS to serialize.
+   * @param aTargetFile
+   *          the target file. An existing file is overwritten.
+   * @throws IOException
+   *           if the CAS could not be serialized.
+   */
+  public void serialize(CAS aCas, Path aTargetFile) throws IOException {
+    try (OutputStream os = ChannelOutputStream.open(aTargetFile)) {
+      serialize(aCas, os);
+    }
+  }
+
+  /**
+   * Serializes to the given file through the given buffer. Passing the same direct buffer when
+   * writing many files avoids copying the data to a temporary native buffer without allocating
+   * off-heap memory for every file.
+   * 
+   * @param aCas
+   *          the CAS to serialize.
+   * @param aTargetFile
+   *          the target file. An existing file is overwritten.
+   * @param aBuffer
+   *          the buffer to write through. It must not be used concurrently by other calls.
+   * @throws IOException
+   *           if the CAS could not be serialized.
+   */
+  public void serialize(CAS aCas, Path aTargetFile, ByteBuffer aBuffer) throws IOException {
+    try (OutputStream os = ChannelOutputStream.open(aTargetFile, aBuffer)) {
+      serialize(aCas, os);
+    }
+  }
+
+  public void serialize(CAS aCas, OutputStream aTargetStream) throws IOException {
+    writer.writeValue(aTargetStream, aCas);
+  }
+
+  public void serialize(CAS aCas, OutputStream aTargetStream, CasSerializationContext aContext)
+          throws IOException {
+    CasSerializationContext.bind(writer, aContext).writeValue(aTargetStream, aCas);
+  }
+
+  /**
+   * Creates a writer which serializes multiple CASes to the given stream in the JSON Lines
+   * format.
+   * 
+   * @param aTargetStream
+   *          the target stream.
+   * @param aTypeSystemHeader
+   *          whether to write the type system once as a leading header record instead of as part
+   *          of every CAS.
+   * @return the batch writer.
+   * @throws IOException
+   *           if the writer could not be created.
+   */
+  public JsonCas2BatchWriter createBatchWriter(OutputStream aTargetStream,
+          boolean aTypeSystemHeader) throws IOException {
+    return new JsonCas2BatchWriter(writer, createContext(), aTargetStream, aTypeSystemHeader);
+  }
+
+  /**
+   * Creates a reader which deserializes multiple CASes from the given stream in the JSON Lines
+   * format.
+   * 
+   * @param aSourceStream
+   *          the source stream.
+   * @return the batch reader.
+   */
+  public JsonCas2BatchReader createBatchReader(InputStream aSourceStream) {
+    return new JsonCas2BatchReader(reader, aSourceStream);
+  }
+
+  /**
+   * Creates a reader to which the document is pushed in chunks as it arrives.
+   * 
+   * @param aTargetCas
+   *          the CAS to read into.
+   * @return the async reader.
+   * @throws IOException
+   *           if the reader could not be created.
+   * @throws IllegalArgumentException
+   *           if the data format does not support asynchronous reading. Only JSON and Smile do.
+   */
+  public JsonCas2AsyncReader createAsyncReader(CAS aTargetCas) throws IOException {
+    return new JsonCas2AsyncReader(readMapper,
+            reader.withAttribute(CasDeserializer.CONTEXT_CAS, aTargetCas));
+  }
+
+  /**
+   * Creates a reader to which a document is pushed in chunks as it arrives. The document is read
+   * into a new CAS, so it must have been written in {@link TypeSystemMode#HASH} mode and its type
+   * system must be known to the type system registry of this codec.
+   * 
+   * @return the async reader.
+   * @throws IOException
+   *           if the reader could not be created.
+   * @throws IllegalArgumentException
+   *           if the data format does not support asynchronous reading. Only JSON and Smile do.
+   */
+  public JsonCas2AsyncReader createAsyncReader() throws IOException {
+    return new JsonCas2AsyncReader(readMapper, reader);
+  }
+
+  public void deserialize(File aSourceFile, CAS aTargetCas) throws IOException {
+    if (parallelPool == null) {
+      reader.withAttribute(CasDeserializer.CONTEXT_CAS, aTargetCas).readValue(aSourceFile);
+      return;
+    }
+
+    JsonCas2Deserializer.readParallel(reader.withAttribute(CasDeserializer.CONTEXT_CAS, aTargetCas),
+            Files.readAllBytes(aSourceFile.toPath()), parallelPool);
+  }
+
+  /**
+   * Deserializes from the given file by memory-mapping it instead of reading it through a stream.
+   * If parallel deserialization is enabled, the file is instead read into memory at once.
+   * 
+   * @param aSourceFile
+   *          the source file.
+   * @param aTargetCas
+   *          the CAS to deserialize into.
+   * @throws IOException
+   *           if the CAS could not be deserialized.
+   */
+  public void deserialize(Path aSourceFile, CAS aTargetCas) throws IOException {
+    if (parallelPool != null) {
+      JsonCas2Deserializer.readParallel(
+              reader.withAttribute(CasDeserializer.CONTEXT_CAS, aTargetCas),
+              Files.readAllBytes(aSourceFile), parallelPool);
+      return;
+    }
+
+    try (InputStream is = MappedFileInputStream.open(aSourceFile, mappedRegionSize)) {
+      deserialize(is, aTargetCas);
+    }
+  }
+
+  public void deserialize(InputStream aSourceStream, CAS aTargetCas) throws IOException {
+    ObjectReader casReader = reader.withAttribute(CasDeserializer.CONTEXT_CAS, aTargetCas);
+    if (parallelPool == null) {
+      casReader.readValue(aSourceStream);
+      return;
+    }
+
+    JsonCas2Deserializer.readParallel(casReader, aSourceStream, parallelPool);
+  }
+
+  /**
+   * Deserializes a document into a new CAS. The document must have been written in
+   * {@link TypeSystemMode#HASH} mode and its type system must be known to the type system
+   * registry of this codec.
+   * 
+   * @param aSourceStream
+   *          the source stream.
+   * @return the new CAS.
+   * @throws IOException
+   *           if the document could not be read or its type system is unknown.
+   */
+  public CAS deserialize(InputStream aSourceStream) throws IOException {
+    if (parallelPool == null) {
+      return reader.readValue(aSourceStream);
+    }
+
+    return JsonCas2Deserializer.readParallel(reader, aSourceStream, parallelPool);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static final class Builder {
+    private final JsonCas2Serializer serializer = new JsonCas2Serializer();
+    private final JsonCas2Deserializer deserializer = new JsonCas2Deserializer();
+
+    private Builder() {
+      // No instances
+    }
+
+    public Builder withFsMode(FeatureStructuresMode aFsMode) {
+      serializer.setFsMode(aFsMode);
+      deserializer.setFsMode(aFsMode);
+      return this;
+    }
+
+    public Builder withSofaMode(SofaMode aSofaMode) {
+      serializer.setSofaMode(aSofaMode);
+      return this;
+    }
+
+    public Builder withTypeSystemMode(TypeSystemMode aTypeSystemMode) {
+      serializer.setTypeSystemMode(aTypeSystemMode);
+      return this;
+    }
+
+    public Builder withOffsetConversionMode(OffsetConversionMode aOffsetConversionMode) {
+      serializer.setOffsetConversionMode(aOffsetConversionMode);
+      return this;
+    }
+
+    public Builder withStreamingMode(StreamingMode aStreamingMode) {
+      serializer.setStreamingMode(aStreamingMode);
+      return this;
+    }
+
+    public Builder withArrayEncodingMode(ArrayEncodingMode aArrayEncodingMode) {
+      serializer.setArrayEncodingMode(aArrayEncodingMode);
+      return this;
+    }
+
+    public Builder withFormattingMode(FormattingMode aFormattingMode) {
+      serializer.setFormattingMode(aFormattingMode);
+      return this;
+    }
+
+    public Builder withDataFormatMode(DataFormatMode aDataFormatMode) {
+      serializer.setDataFormatMode(aDataFormatMode);
+      deserializer.setDataFormatMode(aDataFormatMode);
+      return this;
+    }
+
+    public Builder withPrettyPrinter(PrettyPrinter aPrettyPrinter) {
+      serializer.setPrettyPrinter(aPrettyPrinter);
+      return this;
+    }
+
+    public Builder withParallelMode(ParallelMode aParallelMode) {
+      serializer.setParallelMode(aParallelMode);
+      deserializer.setParallelMode(aParallelMode);
+      return this;
+    }
+
+    public Builder withForkJoinPool(ForkJoinPool aForkJoinPool) {
+      serializer.setForkJoinPool(aForkJoinPool);
+      deserializer.setForkJoinPool(aForkJoinPool);
+      return this;
+    }
+
+    public Builder withMappedRegionSize(long aMappedRegionSize) {
+      deserializer.setMappedRegionSize(aMappedRegionSize);
+      return this;
+    }
+
+    public Builder withIdRefGeneratorSupplier(
+            Supplier<ToIntFunction<FeatureStructure>> aIdRefGeneratorSupplier) {
+      serializer.setIdRefGeneratorSupplier(aIdRefGeneratorSupplier);
+      return this;
+    }
+
+    public Builder withTypeRefGeneratorSupplier(
+            Supplier<Function<Type, String>> aTypeRefGeneratorSupplier) {
+      serializer.setTypeRefGeneratorSupplier(aTypeRefGeneratorSupplier);
+      return this;
+    }
+
+    public Builder withTypeSystemRegistry(TypeSystemRegistry aTypeSystemRegistry) {
+      deserializer.setTypeSystemRegistry(aTypeSystemRegistry);
+      return this;
+    }
+
+    public JsonCas2Codec build() {
+      return new JsonCas2Codec(this);
+    }
+  }
+}
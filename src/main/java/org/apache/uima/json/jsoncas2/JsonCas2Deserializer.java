@@ -18,13 +18,21 @@
  */
 package org.apache.uima.json.jsoncas2;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.json.jsoncas2.io.MappedFileInputStream;
+import org.apache.uima.json.jsoncas2.mode.DataFormatMode;
 import org.apache.uima.json.jsoncas2.mode.FeatureStructuresMode;
+import org.apache.uima.json.jsoncas2.mode.ParallelMode;
+import org.apache.uima.json.jsoncas2.mode.TypeSystemMode;
 import org.apache.uima.json.jsoncas2.model.FeatureStructures;
 import org.apache.uima.json.jsoncas2.model.Views;
 import org.apache.uima.json.jsoncas2.ser.CasDeserializer;
@@ -32,6 +40,7 @@ import org.apache.uima.json.jsoncas2.ser.FeatureDeserializer;
 import org.apache.uima.json.jsoncas2.ser.FeatureStructureDeserializer;
 import org.apache.uima.json.jsoncas2.ser.FeatureStructuresAsArrayDeserializer;
 import org.apache.uima.json.jsoncas2.ser.FeatureStructuresAsObjectDeserializer;
+import org.apache.uima.json.jsoncas2.ser.PreparsedFeatureStructures;
 import org.apache.uima.json.jsoncas2.ser.TypeDeserializer;
 import org.apache.uima.json.jsoncas2.ser.TypeSystemDeserializer;
 import org.apache.uima.json.jsoncas2.ser.ViewsDeserializer;
@@ -41,59 +50,314 @@ import org.apache.uima.resource.metadata.TypeSystemDescription;
 
 import com.fasterxml.jackson.core.Version;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 
 public class JsonCas2Deserializer {
   private FeatureStructuresMode fsMode = FeatureStructuresMode.AS_ARRAY;
+  private DataFormatMode dataFormatMode = DataFormatMode.JSON;
+  private TypeSystemRegistry typeSystemRegistry;
+  private ParallelMode parallelMode = ParallelMode.SEQUENTIAL;
+  private ForkJoinPool forkJoinPool;
+  private long mappedRegionSize = MappedFileInputStream.DEFAULT_REGION_SIZE;
   private ObjectMapper cachedMapper;
 
   public void setFsMode(FeatureStructuresMode aFsMode) {
     fsMode = aFsMode;
+    invalidateMapper();
   }
 
   public FeatureStructuresMode getFsMode() {
     return fsMode;
   }
 
+  /**
+   * Sets the physical format of the input. It must match the format the CAS was serialized in.
+   * 
+   * @param aDataFormatMode
+   *          the format.
+   */
+  public void setDataFormatMode(DataFormatMode aDataFormatMode) {
+    dataFormatMode = aDataFormatMode;
+    invalidateMapper();
+  }
+
+  public DataFormatMode getDataFormatMode() {
+    return dataFormatMode;
+  }
+
+  /**
+   * Sets the registry used to resolve the type system of documents which only carry a type system
+   * hash.
+   * 
+   * @param aTypeSystemRegistry
+   *          the registry.
+   * @see TypeSystemMode#HASH
+   */
+  public void setTypeSystemRegistry(TypeSystemRegistry aTypeSystemRegistry) {
+    typeSystemRegistry = aTypeSystemRegistry;
+  }
+
+  public TypeSystemRegistry getTypeSystemRegistry() {
+    return typeSystemRegistry;
+  }
+
+  public void setParallelMode(ParallelMode aParallelMode) {
+    parallelMode = aParallelMode;
+  }
+
+  public ParallelMode getParallelMode() {
+    return parallelMode;
+  }
+
+  /**
+   * Sets the pool used in {@link ParallelMode#PARALLEL} mode. If no pool is set, the common pool is
+   * used.
+   * 
+   * @param aForkJoinPool
+   *          the pool.
+   */
+  public void setForkJoinPool(ForkJoinPool aForkJoinPool) {
+    forkJoinPool = aForkJoinPool;
+  }
+
+  public ForkJoinPool getForkJoinPool() {
+    return forkJoinPool;
+  }
+
+  /**
+   * Sets the maximum number of bytes mapped at once when deserializing from a {@link Path}.
+   * 
+   * @param aMappedRegionSize
+   *          the region size.
+   */
+  public void setMappedRegionSize(long aMappedRegionSize) {
+    mappedRegionSize = aMappedRegionSize;
+  }
+
+  public long getMappedRegionSize() {
+    return mappedRegionSize;
+  }
+
+  private synchronized void invalidateMapper() {
+    cachedMapper = null;
+  }
+
   private synchronized ObjectMapper getMapper() {
     if (cachedMapper == null) {
-      SimpleModule module = new SimpleModule("UIMA CAS JSON",
-              new Version(1, 0, 0, null, null, null));
-
-      module.addDeserializer(CAS.class, new CasDeserializer());
-      module.addDeserializer(FeatureStructure.class, new FeatureStructureDeserializer());
-
-      switch (fsMode) {
-        case AS_ARRAY:
-          module.addDeserializer(FeatureStructures.class,
-                  new FeatureStructuresAsArrayDeserializer());
-          break;
-        case AS_OBJECT:
-          module.addDeserializer(FeatureStructures.class,
-                  new FeatureStructuresAsObjectDeserializer());
-          break;
-      }
-
-      module.addDeserializer(FeatureDescription.class, new FeatureDeserializer());
-      module.addDeserializer(TypeDescription.class, new TypeDeserializer());
-      module.addDeserializer(TypeSystemDescription.class, new TypeSystemDeserializer());
-      module.addDeserializer(Views.class, new ViewsDeserializer());
-
-      cachedMapper = new ObjectMapper();
-      cachedMapper.registerModule(module);
+      cachedMapper = createMapper();
     }
     return cachedMapper;
   }
 
+  /**
+   * Creates a new mapper reflecting the current settings which is not shared with this
+   * deserializer.
+   */
+  ObjectMapper createMapper() {
+    SimpleModule module = new SimpleModule("UIMA CAS JSON", new Version(1, 0, 0, null, null, null));
+
+    module.addDeserializer(CAS.class, new CasDeserializer());
+    module.addDeserializer(FeatureStructure.class, new FeatureStructureDeserializer());
+
+    switch (fsMode) {
+      case AS_ARRAY:
+        module.addDeserializer(FeatureStructures.class, new FeatureStructuresAsArrayDeserializer());
+        break;
+      case AS_OBJECT:
+        module.addDeserializer(FeatureStructures.class,
+                new FeatureStructuresAsObjectDeserializer());
+        break;
+    }
+
+    module.addDeserializer(FeatureDescription.class, new FeatureDeserializer());
+    module.addDeserializer(TypeDescription.class, new TypeDeserializer());
+    module.addDeserializer(TypeSystemDescription.class, new TypeSystemDeserializer());
+    module.addDeserializer(Views.class, new ViewsDeserializer());
+
+    ObjectMapper mapper = new ObjectMapper(dataFormatMode.createFactory());
+    mapper.registerModule(module);
+    return mapper;
+  }
+
+  ObjectReader configureReader(ObjectMapper aMapper) {
+    ObjectReader reader = aMapper.readerFor(CAS.class);
+    if (typeSystemRegistry != null) {
+      reader = reader.withAttribute(TypeSystemRegistry.KEY, typeSystemRegistry);
+    }
+    return reader;
+  }
+
+  /**
+   * Creates a reader which deserializes multiple CASes from the given stream in the JSON Lines
+   * format. The reader reflects the settings at the time of its creation.
+   * 
+   * @param aSourceStream
+   *          the source stream.
+   * @return the batch reader.
+   */
+  public JsonCas2BatchReader createBatchReader(InputStream aSourceStream) {
+    return new JsonCas2BatchReader(configureReader(getMapper()), aSourceStream);
+  }
+
+  /**
+   * Creates a reader to which the document is pushed in chunks as it arrives. The reader reflects
+   * the settings at the time of its creation.
+   * 
+   * @param aTargetCas
+   *          the CAS to read into.
+   * @return the async reader.
+   * @throws IOException
+   *           if the reader could not be created.
+   * @throws IllegalArgumentException
+   *           if the data format does not support asynchronous reading. Only JSON and Smile do.
+   */
+  public JsonCas2AsyncReader createAsyncReader(CAS aTargetCas) throws IOException {
+    ObjectMapper mapper = getMapper();
+    return new JsonCas2AsyncReader(mapper,
+            configureReader(mapper).withAttribute(CasDeserializer.CONTEXT_CAS, aTargetCas));
+  }
+
+  /**
+   * Creates a reader to which a document is pushed in chunks as it arrives. The document is read
+   * into a new CAS, so it must have been written in {@link TypeSystemMode#HASH} mode and its type
+   * system must be known to the {@link #setTypeSystemRegistry type system registry}.
+   * 
+   * @return the async reader.
+   * @throws IOException
+   *           if the reader could not be created.
+   * @throws IllegalArgumentException
+   *           if the data format does not support asynchronous reading. Only JSON and Smile do.
+   */
+  public JsonCas2AsyncReader createAsyncReader() throws IOException {
+    ObjectMapper mapper = getMapper();
+    return new JsonCas2AsyncReader(mapper, configureReader(mapper));
+  }
+
   public void deserialize(File aSourceFile, CAS aTargetCas) throws IOException {
-    getMapper().reader().forType(CAS.class) //
-            .withAttribute(CasDeserializer.CONTEXT_CAS, aTargetCas) //
-            .readValue(aSourceFile);
+    ObjectReader reader = configureReader(getMapper()) //
+            .withAttribute(CasDeserializer.CONTEXT_CAS, aTargetCas);
+
+    ForkJoinPool pool = getParallelPool();
+    if (pool == null) {
+      reader.readValue(aSourceFile);
+      return;
+    }
+
+    readParallel(reader, Files.readAllBytes(aSourceFile.toPath()), pool);
+  }
+
+  /**
+   * Deserializes from the given file by memory-mapping it instead of reading it through a stream.
+   * In {@link ParallelMode#PARALLEL} mode, the file is instead read into memory at once because
+   * the feature structures are parsed from an in-memory copy anyway.
+   * 
+   * @param aSourceFile
+   *          the source file.
+   * @param aTargetCas
+   *          the CAS to deserialize into.
+   * @throws IOException
+   *           if the CAS could not be deserialized.
+   */
+  public void deserialize(Path aSourceFile, CAS aTargetCas) throws IOException {
+    ForkJoinPool pool = getParallelPool();
+    if (pool != null) {
+      ObjectReader reader = configureReader(getMapper()) //
+              .withAttribute(CasDeserializer.CONTEXT_CAS, aTargetCas);
+      readParallel(reader, Files.readAllBytes(aSourceFile), pool);
+      return;
+    }
+
+    try (InputStream is = MappedFileInputStream.open(aSourceFile, mappedRegionSize)) {
+      deserialize(is, aTargetCas);
+    }
   }
 
   public void deserialize(InputStream aSourceStream, CAS aTargetCas) throws IOException {
-    getMapper().reader().forType(CAS.class) //
-            .withAttribute(CasDeserializer.CONTEXT_CAS, aTargetCas) //
-            .readValue(aSourceStream);
+    ObjectReader reader = configureReader(getMapper()) //
+            .withAttribute(CasDeserializer.CONTEXT_CAS, aTargetCas);
+
+    ForkJoinPool pool = getParallelPool();
+    if (pool == null) {
+      reader.readValue(aSourceStream);
+      return;
+    }
+
+    readParallel(reader, aSourceStream, pool);
+  }
+
+  /**
+   * Deserializes a document into a new CAS. The document must have been written in
+   * {@link TypeSystemMode#HASH} mode and its type system must be known to the
+   * {@link #setTypeSystemRegistry type system registry}.
+   * 
+   * @param aSourceStream
+   *          the source stream.
+   * @return the new CAS.
+   * @throws IOException
+   *           if the document could not be read or its type system is unknown.
+   */
+  public CAS deserialize(InputStream aSourceStream) throws IOException {
+    ObjectReader reader = configureReader(getMapper());
+
+    ForkJoinPool pool = getParallelPool();
+    if (pool == null) {
+      return reader.readValue(aSourceStream);
+    }
+
+    return readParallel(reader, aSourceStream, pool);
+  }
+
+  /**
+   * @return the pool to parse feature structures with or {@code null} if the current settings do
+   *         not permit parallel deserialization.
+   */
+  ForkJoinPool getParallelPool() {
+    // The structural scan only understands JSON
+    if (parallelMode != ParallelMode.PARALLEL || fsMode != FeatureStructuresMode.AS_ARRAY
+            || dataFormatMode != DataFormatMode.JSON) {
+      return null;
+    }
+    return forkJoinPool != null ? forkJoinPool : ForkJoinPool.commonPool();
+  }
+
+  /**
+   * Reads the whole document into memory, so that its feature structures can be parsed in
+   * parallel while the rest of the document is read.
+   */
+  static CAS readParallel(ObjectReader aReader, InputStream aSourceStream, ForkJoinPool aPool)
+          throws IOException {
+    return readParallel(aReader, readFully(aSourceStream), aPool);
+  }
+
+  /**
+   * Parses the feature structures of the given document in parallel while the rest of the
+   * document is read.
+   */
+  static CAS readParallel(ObjectReader aReader, byte[] aJson, ForkJoinPool aPool)
+          throws IOException {
+    PreparsedFeatureStructures featureStructures = PreparsedFeatureStructures.start(aJson,
+            aReader.getFactory(), aPool);
+    if (featureStructures == null) {
+      return aReader.readValue(aJson);
+    }
+
+    try {
+      return aReader.withAttribute(PreparsedFeatureStructures.KEY, featureStructures)
+              .readValue(featureStructures.getRemainder());
+    } finally {
+      featureStructures.cancel();
+    }
+  }
+
+  private static byte[] readFully(InputStream aSourceStream) throws IOException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(
+            Math.max(aSourceStream.available(), 64 * 1024));
+    byte[] chunk = new byte[64 * 1024];
+    int n;
+    while ((n = aSourceStream.read(chunk)) != -1) {
+      buffer.write(chunk, 0, n);
+    }
+    return buffer.toByteArray();
   }
 }
@@ -24,6 +24,9 @@ import org.apache.uima.cas.impl.TypeImpl;
 import org.apache.uima.resource.metadata.FeatureDescription;
 import org.apache.uima.resource.metadata.TypeDescription;
 
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
 public class JsonCas2Names {
   public static final String RESERVED_FIELD_PREFIX = "%";
 
@@ -33,6 +36,11 @@ public class JsonCas2Names {
 
   public static final String HEADER_FIELD = RESERVED_FIELD_PREFIX + "HEADER";
 
+  /**
+   * Marks the header record of a JSON Lines batch, see {@link JsonCas2BatchWriter}.
+   */
+  public static final String BATCH_HEADER_FIELD = RESERVED_FIELD_PREFIX + "BATCH_HEADER";
+
   public static final String TYPES_FIELD = RESERVED_FIELD_PREFIX + "TYPES";
 
   public static final String FEATURES_FIELD = RESERVED_FIELD_PREFIX + "FEATURES";
@@ -89,6 +97,10 @@ public class JsonCas2Names {
 
   public static final String HEADER_OFFSET_ENCODING = "offset-encoding";
 
+  public static final String HEADER_ARRAY_ENCODING = "array-encoding";
+
+  public static final String HEADER_TYPE_SYSTEM_HASH = "type-system-hash";
+
   public static final String NUMBER_FLOAT_NAN = "NaN";
 
   public static final String NUMBER_FLOAT_POSITIVE_INFINITY = "Infinity";
@@ -98,4 +110,23 @@ public class JsonCas2Names {
   public static final String NUMBER_FLOAT_NEGATIVE_INFINITY = "-Infinity";
 
   public static final String NUMBER_FLOAT_NEGATIVE_INFINITY_ABBR = "-Inf";
+
+  // Pre-encoded forms of the reserved fields written for every feature structure, so that the
+  // generator does not need to quote and encode them over and over again.
+
+  public static final SerializableString ID_FIELD_SERIALIZED = new SerializedString(ID_FIELD);
+
+  public static final SerializableString TYPE_FIELD_SERIALIZED = new SerializedString(TYPE_FIELD);
+
+  public static final SerializableString VIEWS_FIELD_SERIALIZED = new SerializedString(
+          VIEWS_FIELD);
+
+  public static final SerializableString VIEW_SOFA_FIELD_SERIALIZED = new SerializedString(
+          VIEW_SOFA_FIELD);
+
+  public static final SerializableString VIEW_MEMBERS_FIELD_SERIALIZED = new SerializedString(
+          VIEW_MEMBERS_FIELD);
+
+  public static final SerializableString ELEMENTS_FIELD_SERIALIZED = new SerializedString(
+          ELEMENTS_FIELD);
 }
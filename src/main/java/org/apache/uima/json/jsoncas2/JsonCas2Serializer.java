@@ -19,13 +19,19 @@
 package org.apache.uima.json.jsoncas2;
 
 import static org.apache.uima.json.jsoncas2.mode.FeatureStructuresMode.AS_ARRAY;
+import static org.apache.uima.json.jsoncas2.mode.FormattingMode.PRETTY;
 import static org.apache.uima.json.jsoncas2.mode.OffsetConversionMode.UTF_16;
+import static org.apache.uima.json.jsoncas2.mode.ParallelMode.SEQUENTIAL;
 import static org.apache.uima.json.jsoncas2.mode.SofaMode.AS_REGULAR_FEATURE_STRUCTURE;
+import static org.apache.uima.json.jsoncas2.mode.StreamingMode.BUFFERED;
 import static org.apache.uima.json.jsoncas2.mode.TypeSystemMode.FULL;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.function.ToIntFunction;
@@ -33,13 +39,20 @@ import java.util.function.ToIntFunction;
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.FeatureStructure;
 import org.apache.uima.cas.Type;
+import org.apache.uima.json.jsoncas2.io.ChannelOutputStream;
+import org.apache.uima.json.jsoncas2.mode.ArrayEncodingMode;
+import org.apache.uima.json.jsoncas2.mode.DataFormatMode;
 import org.apache.uima.json.jsoncas2.mode.FeatureStructuresMode;
+import org.apache.uima.json.jsoncas2.mode.FormattingMode;
 import org.apache.uima.json.jsoncas2.mode.OffsetConversionMode;
+import org.apache.uima.json.jsoncas2.mode.ParallelMode;
 import org.apache.uima.json.jsoncas2.mode.SofaMode;
+import org.apache.uima.json.jsoncas2.mode.StreamingMode;
 import org.apache.uima.json.jsoncas2.mode.TypeSystemMode;
 import org.apache.uima.json.jsoncas2.ref.FullyQualifiedTypeRefGenerator;
 import org.apache.uima.json.jsoncas2.ref.ReferenceCache;
 import org.apache.uima.json.jsoncas2.ref.SequentialIdRefGenerator;
+import org.apache.uima.json.jsoncas2.ser.CasSerializationContext;
 import org.apache.uima.json.jsoncas2.ser.CasSerializer;
 import org.apache.uima.json.jsoncas2.ser.CommonArrayFSSerializer;
 import org.apache.uima.json.jsoncas2.ser.FeatureSerializer;
@@ -51,6 +64,7 @@ import org.apache.uima.json.jsoncas2.ser.TypeSerializer;
 import org.apache.uima.json.jsoncas2.ser.TypeSystemSerializer;
 import org.apache.uima.json.jsoncas2.ser.ViewsSerializer;
 
+import com.fasterxml.jackson.core.PrettyPrinter;
 import com.fasterxml.jackson.core.Version;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
@@ -62,12 +76,21 @@ public class JsonCas2Serializer {
   private SofaMode sofaMode = AS_REGULAR_FEATURE_STRUCTURE;
   private TypeSystemMode typeSystemMode = FULL;
   private OffsetConversionMode offsetConversionMode = UTF_16;
+  private StreamingMode streamingMode = BUFFERED;
+  private ArrayEncodingMode arrayEncodingMode = ArrayEncodingMode.ARRAY;
+  private FormattingMode formattingMode = PRETTY;
+  private DataFormatMode dataFormatMode = DataFormatMode.JSON;
+  private ParallelMode parallelMode = SEQUENTIAL;
+  private ForkJoinPool forkJoinPool;
+  private PrettyPrinter prettyPrinter;
   private ObjectMapper cachedMapper;
+  private ObjectWriter cachedWriter;
   private Supplier<ToIntFunction<FeatureStructure>> idRefGeneratorSupplier = SequentialIdRefGenerator::new;
   private Supplier<Function<Type, String>> typeRefGeneratorSupplier = FullyQualifiedTypeRefGenerator::new;
 
   public void setFsMode(FeatureStructuresMode aFsMode) {
     fsMode = aFsMode;
+    invalidateMapper();
   }
 
   public FeatureStructuresMode getFsMode() {
@@ -76,6 +99,7 @@ public class JsonCas2Serializer {
 
   public void setSofaMode(SofaMode aSofaMode) {
     sofaMode = aSofaMode;
+    invalidateMapper();
   }
 
   public SofaMode getSofaMode() {
@@ -84,15 +108,100 @@ public class JsonCas2Serializer {
 
   public void setOffsetConversionMode(OffsetConversionMode aOffsetConversionMode) {
     offsetConversionMode = aOffsetConversionMode;
+    invalidateWriter();
   }
 
   public OffsetConversionMode getOffsetConversionMode() {
     return offsetConversionMode;
   }
 
+  public void setStreamingMode(StreamingMode aStreamingMode) {
+    streamingMode = aStreamingMode;
+    invalidateWriter();
+  }
+
+  public StreamingMode getStreamingMode() {
+    return streamingMode;
+  }
+
+  public void setArrayEncodingMode(ArrayEncodingMode aArrayEncodingMode) {
+    arrayEncodingMode = aArrayEncodingMode;
+    invalidateWriter();
+  }
+
+  public ArrayEncodingMode getArrayEncodingMode() {
+    return arrayEncodingMode;
+  }
+
+  public void setFormattingMode(FormattingMode aFormattingMode) {
+    formattingMode = aFormattingMode;
+    invalidateWriter();
+  }
+
+  public FormattingMode getFormattingMode() {
+    return formattingMode;
+  }
+
+  /**
+   * Sets the physical format of the output. Pretty printing does not apply to binary formats.
+   * 
+   * @param aDataFormatMode
+   *          the format.
+   */
+  public void setDataFormatMode(DataFormatMode aDataFormatMode) {
+    dataFormatMode = aDataFormatMode;
+    invalidateMapper();
+  }
+
+  public DataFormatMode getDataFormatMode() {
+    return dataFormatMode;
+  }
+
+  /**
+   * Sets the pretty printer used in {@link FormattingMode#PRETTY} mode. If no pretty printer is
+   * set, Jackson's default pretty printer is used.
+   * 
+   * @param aPrettyPrinter
+   *          the pretty printer.
+   */
+  public void setPrettyPrinter(PrettyPrinter aPrettyPrinter) {
+    prettyPrinter = aPrettyPrinter;
+    invalidateWriter();
+  }
+
+  public PrettyPrinter getPrettyPrinter() {
+    return prettyPrinter;
+  }
+
+  public void setParallelMode(ParallelMode aParallelMode) {
+    parallelMode = aParallelMode;
+    invalidateWriter();
+  }
+
+  public ParallelMode getParallelMode() {
+    return parallelMode;
+  }
+
+  /**
+   * Sets the pool used in {@link ParallelMode#PARALLEL} mode. If no pool is set, the common pool is
+   * used.
+   * 
+   * @param aForkJoinPool
+   *          the pool.
+   */
+  public void setForkJoinPool(ForkJoinPool aForkJoinPool) {
+    forkJoinPool = aForkJoinPool;
+    invalidateWriter();
+  }
+
+  public ForkJoinPool getForkJoinPool() {
+    return forkJoinPool;
+  }
+
   public void setIdRefGeneratorSupplier(
           Supplier<ToIntFunction<FeatureStructure>> aIdRefGeneratorSupplier) {
     idRefGeneratorSupplier = aIdRefGeneratorSupplier;
+    invalidateMapper();
   }
 
   public Supplier<ToIntFunction<FeatureStructure>> getIdRefGeneratorSupplier() {
@@ -102,6 +211,7 @@ public class JsonCas2Serializer {
   public void setTypeRefGeneratorSupplier(
           Supplier<Function<Type, String>> aTypeRefGeneratorSupplier) {
     typeRefGeneratorSupplier = aTypeRefGeneratorSupplier;
+    invalidateMapper();
   }
 
   public Supplier<Function<Type, String>> getTypeRefGeneratorSupplier() {
@@ -110,68 +220,212 @@ public class JsonCas2Serializer {
 
   public void setTypeSystemMode(TypeSystemMode aMode) {
     typeSystemMode = aMode;
+    invalidateWriter();
   }
 
   public TypeSystemMode getTypeSystemMode() {
     return typeSystemMode;
   }
 
+  private synchronized void invalidateMapper() {
+    cachedMapper = null;
+    cachedWriter = null;
+  }
+
+  private synchronized void invalidateWriter() {
+    cachedWriter = null;
+  }
+
   private synchronized ObjectMapper getMapper() {
     if (cachedMapper == null) {
-      SimpleModule module = new SimpleModule("UIMA CAS JSON",
-              new Version(1, 0, 0, null, null, null));
-
-      ReferenceCache.Builder refCacheBuilder = ReferenceCache.builder()
-              .withIdRefGeneratorSupplier(idRefGeneratorSupplier)
-              .withTypeRefGeneratorSupplier(typeRefGeneratorSupplier);
-      module.addSerializer(new CasSerializer(refCacheBuilder::build));
-      module.addSerializer(new TypeSystemSerializer());
-      module.addSerializer(new TypeSerializer());
-      module.addSerializer(new FeatureSerializer());
-      module.addSerializer(new CommonArrayFSSerializer());
-
-      switch (sofaMode) {
-        case AS_PART_OF_VIEW:
-          module.addSerializer(new SofaSerializer());
-          break;
-        case AS_REGULAR_FEATURE_STRUCTURE:
-          // Nothing to do
-          break;
-      }
-
-      module.addSerializer(new FeatureStructureSerializer());
-
-      switch (fsMode) {
-        case AS_ARRAY:
-          module.addSerializer(new FeatureStructuresAsArraySerializer());
-          break;
-        case AS_OBJECT:
-          module.addSerializer(new FeatureStructuresAsObjectSerializer());
-          break;
-      }
-
-      module.addSerializer(new ViewsSerializer());
-
-      cachedMapper = new ObjectMapper();
-      cachedMapper.registerModule(module);
+      cachedMapper = createMapper();
     }
 
     return cachedMapper;
   }
 
-  private ObjectWriter getWriter() {
-    return getMapper().writerWithDefaultPrettyPrinter() //
+  private ObjectMapper createMapper() {
+    SimpleModule module = new SimpleModule("UIMA CAS JSON", new Version(1, 0, 0, null, null, null));
+
+    ReferenceCache.Builder refCacheBuilder = ReferenceCache.builder()
+            .withIdRefGeneratorSupplier(idRefGeneratorSupplier)
+            .withTypeRefGeneratorSupplier(typeRefGeneratorSupplier);
+    module.addSerializer(new CasSerializer(refCacheBuilder::build));
+    module.addSerializer(new TypeSystemSerializer());
+    module.addSerializer(new TypeSerializer());
+    module.addSerializer(new FeatureSerializer());
+    module.addSerializer(new CommonArrayFSSerializer());
+
+    switch (sofaMode) {
+      case AS_PART_OF_VIEW:
+        module.addSerializer(new SofaSerializer());
+        break;
+      case AS_REGULAR_FEATURE_STRUCTURE:
+        // Nothing to do
+        break;
+    }
+
+    module.addSerializer(new FeatureStructureSerializer());
+
+    switch (fsMode) {
+      case AS_ARRAY:
+        module.addSerializer(new FeatureStructuresAsArraySerializer());
+        break;
+      case AS_OBJECT:
+        module.addSerializer(new FeatureStructuresAsObjectSerializer());
+        break;
+    }
+
+    module.addSerializer(new ViewsSerializer());
+
+    ObjectMapper mapper = new ObjectMapper(dataFormatMode.createFactory());
+    mapper.registerModule(module);
+    return mapper;
+  }
+
+  /**
+   * Creates a writer reflecting the current settings which is backed by a new mapper that is not
+   * shared with this serializer.
+   */
+  ObjectWriter createWriter() {
+    return configureWriter(createMapper());
+  }
+
+  private synchronized ObjectWriter getWriter() {
+    if (cachedWriter == null) {
+      cachedWriter = configureWriter(getMapper());
+    }
+
+    return cachedWriter;
+  }
+
+  /**
+   * Creates a serialization context reflecting the current settings. Passing the same context to
+   * subsequent calls to {@link #serialize(CAS, OutputStream, CasSerializationContext)} avoids
+   * re-allocating the per-document state for every CAS. A context must not be used by multiple
+   * threads concurrently.
+   * 
+   * @return a new serialization context.
+   */
+  public CasSerializationContext createContext() {
+    return new CasSerializationContext(ReferenceCache.builder()
+            .withIdRefGeneratorSupplier(idRefGeneratorSupplier)
+            .withTypeRefGeneratorSupplier(typeRefGeneratorSupplier) //
+            .build());
+  }
+
+  private ObjectWriter configureWriter(ObjectMapper aMapper) {
+    ObjectWriter writer;
+    switch (formattingMode) {
+      case COMPACT:
+        writer = aMapper.writer();
+        break;
+      case PRETTY: // fall-through
+      default:
+        writer = prettyPrinter != null ? aMapper.writer(prettyPrinter)
+                : aMapper.writerWithDefaultPrettyPrinter();
+        break;
+    }
+
+    writer = writer //
             .withAttribute(SofaMode.KEY, sofaMode) //
             .withAttribute(FeatureStructuresMode.KEY, fsMode)
             .withAttribute(OffsetConversionMode.KEY, offsetConversionMode)
-            .withAttribute(TypeSystemMode.KEY, typeSystemMode);
+            .withAttribute(TypeSystemMode.KEY, typeSystemMode) //
+            .withAttribute(StreamingMode.KEY, streamingMode) //
+            .withAttribute(ArrayEncodingMode.KEY, arrayEncodingMode) //
+            .withAttribute(ParallelMode.KEY, parallelMode) //
+            .withAttribute(DataFormatMode.KEY, dataFormatMode);
+
+    if (forkJoinPool != null) {
+      writer = writer.withAttribute(ParallelMode.POOL_KEY, forkJoinPool);
+    }
+
+    return writer;
+  }
+
+  /**
+   * Creates a writer which serializes multiple CASes to the given stream in the JSON Lines
+   * format. The writer reflects the settings at the time of its creation.
+   * 
+   * @param aTargetStream
+   *          the target stream.
+   * @param aTypeSystemHeader
+   *          whether to write the type system once as a leading header record instead of as part
+   *          of every CAS.
+   * @return the batch writer.
+   * @throws IOException
+   *           if the writer could not be created.
+   */
+  public JsonCas2BatchWriter createBatchWriter(OutputStream aTargetStream,
+          boolean aTypeSystemHeader) throws IOException {
+    return new JsonCas2BatchWriter(getWriter(), createContext(), aTargetStream,
+            aTypeSystemHeader);
+  }
+
+  /**
+   * Creates a source from which the serialized CAS is read in chunks.
+   * 
+   * @param aCas
+   *          the CAS to serialize. It must not be modified until the chunk source has been read
+   *          completely or closed.
+   * @param aMaxChunkSize
+   *          the maximum size of a chunk in bytes.
+   * @return the chunk source.
+   * @throws IOException
+   *           if the CAS could not be serialized.
+   */
+  public JsonCas2ChunkSource createChunkSource(CAS aCas, int aMaxChunkSize) throws IOException {
+    return new JsonCas2ChunkSource(getWriter(), createContext(), aCas, aMaxChunkSize);
   }
 
   public void serialize(CAS aCas, File aTargetFile) throws IOException {
     getWriter().writeValue(aTargetFile, aCas);
   }
 
+  /**
+   * Serializes to the given file through a channel which is handed the data in blocks from a heap
+   * buffer.
+   * 
+   * @param aCas
+   *          the CAS to serialize.
+   * @param aTargetFile
+   *          the target file. An existing file is overwritten.
+   * @throws IOException
+   *           if the CAS could not be serialized.
+   */
+  public void serialize(CAS aCas, Path aTargetFile) throws IOException {
+    try (OutputStream os = ChannelOutputStream.open(aTargetFile)) {
+      serialize(aCas, os);
+    }
+  }
+
+  /**
+   * Serializes to the given file through the given buffer. Passing the same direct buffer when
+   * writing many files avoids copying the data to a temporary native buffer without allocating
+   * off-heap memory for every file.
+   * 
+   * @param aCas
+   *          the CAS to serialize.
+   * @param aTargetFile
+   *          the target file. An existing file is overwritten.
+   * @param aBuffer
+   *          the buffer to write through. It must not be used concurrently by other calls.
+   * @throws IOException
+   *           if the CAS could not be serialized.
+   */
+  public void serialize(CAS aCas, Path aTargetFile, ByteBuffer aBuffer) throws IOException {
+    try (OutputStream os = ChannelOutputStream.open(aTargetFile, aBuffer)) {
+      serialize(aCas, os);
+    }
+  }
+
   public void serialize(CAS aCas, OutputStream aTargetStream) throws IOException {
     getWriter().writeValue(aTargetStream, aCas);
   }
+
+  public void serialize(CAS aCas, OutputStream aTargetStream, CasSerializationContext aContext)
+          throws IOException {
+    CasSerializationContext.bind(getWriter(), aContext).writeValue(aTargetStream, aCas);
+  }
 }
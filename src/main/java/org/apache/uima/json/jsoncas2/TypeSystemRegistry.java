@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.json.jsoncas2.mode.TypeSystemMode;
+import org.apache.uima.json.jsoncas2.ser.TypeSystemHash;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+import org.apache.uima.util.TypeSystemUtil;
+
+import com.fasterxml.jackson.databind.DatabindContext;
+
+/**
+ * Type systems known to the reader, indexed by their hash. Used to resolve documents written in
+ * {@link TypeSystemMode#HASH} mode which carry only the hash of their type system. The registry is
+ * thread-safe.
+ */
+public class TypeSystemRegistry {
+  public static final String KEY = "UIMA.TypeSystemRegistry";
+
+  private final Map<String, TypeSystem> typeSystems = new ConcurrentHashMap<>();
+
+  /**
+   * @param aTypeSystem
+   *          the type system to register.
+   * @return the hash under which the type system was registered.
+   */
+  public String register(TypeSystem aTypeSystem) {
+    String hash = TypeSystemHash.of(aTypeSystem).getValue();
+    typeSystems.putIfAbsent(hash, aTypeSystem);
+    return hash;
+  }
+
+  /**
+   * @param aTypeSystemDescription
+   *          the type system to register.
+   * @return the hash under which the type system was registered.
+   * @throws ResourceInitializationException
+   *           if the type system description cannot be turned into a type system.
+   */
+  public String register(TypeSystemDescription aTypeSystemDescription)
+          throws ResourceInitializationException {
+    return register(CasCreationUtils.createCas(aTypeSystemDescription, null, null).getTypeSystem());
+  }
+
+  /**
+   * @return the type system registered under the given hash or {@code null} if there is none.
+   */
+  public TypeSystem get(String aHash) {
+    return typeSystems.get(aHash);
+  }
+
+  /**
+   * @return the description of the type system registered under the given hash or {@code null} if
+   *         there is none.
+   */
+  public TypeSystemDescription getDescription(String aHash) {
+    TypeSystem ts = get(aHash);
+    return ts != null ? TypeSystemUtil.typeSystem2TypeSystemDescription(ts) : null;
+  }
+
+  public static void set(DatabindContext aProvider, TypeSystemRegistry aRegistry) {
+    aProvider.setAttribute(KEY, aRegistry);
+  }
+
+  public static TypeSystemRegistry get(DatabindContext aProvider) {
+    return (TypeSystemRegistry) aProvider.getAttribute(KEY);
+  }
+}
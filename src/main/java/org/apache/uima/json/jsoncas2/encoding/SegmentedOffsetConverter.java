@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.encoding;
+
+import static java.util.Arrays.binarySearch;
+import static java.util.Arrays.copyOf;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Maps between UTF-16 code unit offsets and offsets in some other encoding in which each code point
+ * occupies a fixed number of units. Instead of keeping a mapping for every offset, the text is
+ * split into segments of consecutive code points that have the same width in both encodings, e.g.
+ * a run of ASCII characters or a run of CJK characters. Offsets are then computed arithmetically
+ * within their segment. Pure ASCII text results in a single segment, so the memory use scales with
+ * the number of changes in character width rather than with the length of the text.
+ */
+abstract class SegmentedOffsetConverter implements OffsetConverter {
+  static final int UNMAPPED = Integer.MIN_VALUE;
+
+  private static final int INITIAL_CAPACITY = 4;
+
+  private final int internalLength;
+  private final int externalLength;
+
+  private int segmentCount;
+  private int[] internalStarts;
+  private int[] externalStarts;
+  private byte[] internalWidths;
+  private byte[] externalWidths;
+
+  /**
+   * @param aString
+   *          the text. If {@code null}, offsets are not mapped.
+   * @param aExternalWidth
+   *          the number of external units occupied by a code point.
+   */
+  SegmentedOffsetConverter(String aString, IntUnaryOperator aExternalWidth) {
+    if (aString == null) {
+      internalLength = -1;
+      externalLength = -1;
+      return;
+    }
+
+    internalStarts = new int[INITIAL_CAPACITY];
+    externalStarts = new int[INITIAL_CAPACITY];
+    internalWidths = new byte[INITIAL_CAPACITY];
+    externalWidths = new byte[INITIAL_CAPACITY];
+
+    int internal = 0;
+    int external = 0;
+    int lastInternalWidth = 0;
+    int lastExternalWidth = 0;
+    while (internal < aString.length()) {
+      int cp = aString.codePointAt(internal);
+      int internalWidth = Character.charCount(cp);
+      int externalWidth = aExternalWidth.applyAsInt(cp);
+
+      if (internalWidth != lastInternalWidth || externalWidth != lastExternalWidth) {
+        addSegment(internal, external, internalWidth, externalWidth);
+        lastInternalWidth = internalWidth;
+        lastExternalWidth = externalWidth;
+      }
+
+      internal += internalWidth;
+      external += externalWidth;
+    }
+
+    internalLength = internal;
+    externalLength = external;
+  }
+
+  private void addSegment(int aInternalStart, int aExternalStart, int aInternalWidth,
+          int aExternalWidth) {
+    if (segmentCount == internalStarts.length) {
+      int newCapacity = segmentCount * 2;
+      internalStarts = copyOf(internalStarts, newCapacity);
+      externalStarts = copyOf(externalStarts, newCapacity);
+      internalWidths = copyOf(internalWidths, newCapacity);
+      externalWidths = copyOf(externalWidths, newCapacity);
+    }
+
+    internalStarts[segmentCount] = aInternalStart;
+    externalStarts[segmentCount] = aExternalStart;
+    internalWidths[segmentCount] = (byte) aInternalWidth;
+    externalWidths[segmentCount] = (byte) aExternalWidth;
+    segmentCount++;
+  }
+
+  /**
+   * @return the number of segments of code points with the same width.
+   */
+  int getSegmentCount() {
+    return segmentCount;
+  }
+
+  @Override
+  public int mapExternal(int aOffset) {
+    if (externalLength < 0) {
+      return aOffset;
+    }
+
+    return map(aOffset, externalLength, internalLength, externalStarts, externalWidths,
+            internalStarts, internalWidths);
+  }
+
+  @Override
+  public int mapInternal(int aOffset) {
+    if (internalLength < 0) {
+      return aOffset;
+    }
+
+    return map(aOffset, internalLength, externalLength, internalStarts, internalWidths,
+            externalStarts, externalWidths);
+  }
+
+  private int map(int aOffset, int aSourceLength, int aTargetLength, int[] aSourceStarts,
+          byte[] aSourceWidths, int[] aTargetStarts, byte[] aTargetWidths) {
+    if (aOffset == aSourceLength) {
+      return aTargetLength;
+    }
+
+    if (aOffset < 0 || aOffset > aSourceLength) {
+      return UNMAPPED;
+    }
+
+    int segment = binarySearch(aSourceStarts, 0, segmentCount, aOffset);
+    if (segment < 0) {
+      segment = -segment - 2;
+    }
+
+    int delta = aOffset - aSourceStarts[segment];
+    int sourceWidth = aSourceWidths[segment];
+    if (delta % sourceWidth != 0) {
+      // Offset points into the middle of a code point
+      return UNMAPPED;
+    }
+
+    return aTargetStarts[segment] + (delta / sourceWidth) * aTargetWidths[segment];
+  }
+}
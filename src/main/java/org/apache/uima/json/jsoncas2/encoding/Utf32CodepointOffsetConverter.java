@@ -18,67 +18,13 @@
  */
 package org.apache.uima.json.jsoncas2.encoding;
 
-import static java.util.Arrays.fill;
-
-public class Utf32CodepointOffsetConverter implements OffsetConverter {
-  public static final int UNMAPPED = Integer.MIN_VALUE;
-
-  private final int[] internalToExternal;
-  private final int[] externalToInternal;
+/**
+ * Maps between UTF-16 code unit offsets and UTF-32 code point offsets.
+ */
+public class Utf32CodepointOffsetConverter extends SegmentedOffsetConverter {
+  public static final int UNMAPPED = SegmentedOffsetConverter.UNMAPPED;
 
   public Utf32CodepointOffsetConverter(String aString) {
-    if (aString == null) {
-      internalToExternal = null;
-      externalToInternal = null;
-      return;
-    }
-
-    int codePointCount = aString.codePointCount(0, aString.length());
-    externalToInternal = new int[codePointCount + 1];
-    fill(externalToInternal, UNMAPPED);
-
-    int codeUnitCount = aString.length();
-    internalToExternal = new int[codeUnitCount + 1];
-    fill(internalToExternal, UNMAPPED);
-
-    int cpi = 0;
-    int cui = 0;
-    while (cui < aString.length()) {
-      int cp = aString.codePointAt(cui);
-      externalToInternal[cpi] = cui;
-      internalToExternal[cui] = cpi;
-
-      cpi++;
-      cui += Character.charCount(cp);
-    }
-
-    externalToInternal[cpi] = cui;
-    internalToExternal[cui] = cpi;
-  }
-
-  @Override
-  public int mapExternal(int aOffset) {
-    if (externalToInternal == null) {
-      return aOffset;
-    }
-
-    if (aOffset >= externalToInternal.length) {
-      return UNMAPPED;
-    }
-
-    return externalToInternal[aOffset];
-  }
-
-  @Override
-  public int mapInternal(int aOffset) {
-    if (internalToExternal == null) {
-      return aOffset;
-    }
-
-    if (aOffset >= internalToExternal.length) {
-      return UNMAPPED;
-    }
-
-    return internalToExternal[aOffset];
+    super(aString, cp -> 1);
   }
 }
@@ -18,70 +18,33 @@
  */
 package org.apache.uima.json.jsoncas2.encoding;
 
-import static java.lang.Character.charCount;
-import static java.lang.Character.toChars;
-import static java.nio.charset.StandardCharsets.UTF_8;
-import static java.util.Arrays.fill;
-
-public class Utf8ByteOffsetConverter implements OffsetConverter {
-  public static final int UNMAPPED = Integer.MIN_VALUE;
-
-  private final int[] internalToExternal;
-  private final int[] externalToInternal;
+/**
+ * Maps between UTF-16 code unit offsets and UTF-8 byte offsets.
+ */
+public class Utf8ByteOffsetConverter extends SegmentedOffsetConverter {
+  public static final int UNMAPPED = SegmentedOffsetConverter.UNMAPPED;
 
   public Utf8ByteOffsetConverter(String aString) {
-    if (aString == null) {
-      internalToExternal = null;
-      externalToInternal = null;
-      return;
-    }
-
-    int byteCount = aString.getBytes(UTF_8).length;
-    externalToInternal = new int[byteCount + 1];
-    fill(externalToInternal, UNMAPPED);
-
-    int codeUnitCount = aString.length();
-    internalToExternal = new int[codeUnitCount + 1];
-    fill(internalToExternal, UNMAPPED);
-
-    int cbi = 0;
-    int cui = 0;
-    while (cui < aString.length()) {
-      externalToInternal[cbi] = cui;
-      internalToExternal[cui] = cbi;
-
-      int cp = aString.codePointAt(cui);
-      cbi += String.valueOf(toChars(cp)).getBytes(UTF_8).length;
-      cui += charCount(cp);
-    }
-
-    externalToInternal[cbi] = cui;
-    internalToExternal[cui] = cbi;
+    super(aString, Utf8ByteOffsetConverter::utf8Length);
   }
 
-  @Override
-  public int mapExternal(int aOffset) {
-    if (externalToInternal == null) {
-      return aOffset;
+  /**
+   * @return the number of bytes the code point occupies in UTF-8. Unpaired surrogates count as a
+   *         single byte because {@link String#getBytes} replaces them with {@code ?}.
+   */
+  static int utf8Length(int aCodePoint) {
+    if (aCodePoint < 0x80) {
+      return 1;
     }
-
-    if (aOffset >= externalToInternal.length) {
-      return UNMAPPED;
+    if (aCodePoint < 0x800) {
+      return 2;
     }
-
-    return externalToInternal[aOffset];
-  }
-
-  @Override
-  public int mapInternal(int aOffset) {
-    if (internalToExternal == null) {
-      return aOffset;
+    if (aCodePoint >= Character.MIN_SURROGATE && aCodePoint <= Character.MAX_SURROGATE) {
+      return 1;
     }
-
-    if (aOffset >= internalToExternal.length) {
-      return UNMAPPED;
+    if (aCodePoint < 0x10000) {
+      return 3;
     }
-
-    return internalToExternal[aOffset];
+    return 4;
   }
 }
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.io;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * Writes to a channel through a buffer, so that the data is handed to the channel in blocks
+ * instead of many small writes. By default, a 64 KB heap buffer is used, which the channel copies
+ * into a temporary native buffer on every write. Callers writing many files can supply a direct
+ * buffer which they re-use across streams to avoid this copy without allocating off-heap memory per
+ * stream.
+ */
+public class ChannelOutputStream extends OutputStream {
+  private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  private final WritableByteChannel channel;
+  private final ByteBuffer buffer;
+
+  public ChannelOutputStream(WritableByteChannel aChannel) {
+    this(aChannel, DEFAULT_BUFFER_SIZE);
+  }
+
+  public ChannelOutputStream(WritableByteChannel aChannel, int aBufferSize) {
+    this(aChannel, ByteBuffer.allocate(aBufferSize));
+  }
+
+  /**
+   * @param aChannel
+   *          the channel to write to.
+   * @param aBuffer
+   *          the buffer to write through. It is cleared before use and must not be used by anybody
+   *          else until the stream is closed.
+   */
+  public ChannelOutputStream(WritableByteChannel aChannel, ByteBuffer aBuffer) {
+    if (aBuffer.capacity() == 0) {
+      throw new IllegalArgumentException("Buffer must not be empty");
+    }
+
+    channel = aChannel;
+    buffer = aBuffer;
+    buffer.clear();
+  }
+
+  /**
+   * Opens the given file for writing. An existing file is truncated.
+   * 
+   * @param aFile
+   *          the file.
+   * @return the stream.
+   * @throws IOException
+   *           if the file could not be opened.
+   */
+  public static ChannelOutputStream open(Path aFile) throws IOException {
+    return new ChannelOutputStream(openChannel(aFile));
+  }
+
+  /**
+   * Opens the given file for writing through the given buffer. An existing file is truncated.
+   * 
+   * @param aFile
+   *          the file.
+   * @param aBuffer
+   *          the buffer to write through, e.g. a direct buffer re-used for multiple files.
+   * @return the stream.
+   * @throws IOException
+   *           if the file could not be opened.
+   */
+  public static ChannelOutputStream open(Path aFile, ByteBuffer aBuffer) throws IOException {
+    return new ChannelOutputStream(openChannel(aFile), aBuffer);
+  }
+
+  private static FileChannel openChannel(Path aFile) throws IOException {
+    return FileChannel.open(aFile, WRITE, CREATE, TRUNCATE_EXISTING);
+  }
+
+  @Override
+  public void write(int aByte) throws IOException {
+    if (!buffer.hasRemaining()) {
+      drain();
+    }
+    buffer.put((byte) aByte);
+  }
+
+  @Override
+  public void write(byte[] aBytes, int aOffset, int aLength) throws IOException {
+    int offset = aOffset;
+    int remaining = aLength;
+    while (remaining > 0) {
+      if (!buffer.hasRemaining()) {
+        drain();
+      }
+      int n = Math.min(remaining, buffer.remaining());
+      buffer.put(aBytes, offset, n);
+      offset += n;
+      remaining -= n;
+    }
+  }
+
+  private void drain() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Hands the buffered data to the channel. This should only be called when the data needs to be
+   * visible to readers of the channel.
+   */
+  @Override
+  public void flush() throws IOException {
+    drain();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!channel.isOpen()) {
+      return;
+    }
+
+    try {
+      drain();
+    } finally {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.io;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * Reads a file through memory mappings instead of read system calls. The file is mapped in
+ * regions which are mapped lazily as the stream advances, so files larger than 2GB are supported.
+ * The mappings are released when they are garbage collected.
+ */
+public class MappedFileInputStream extends InputStream {
+  public static final long DEFAULT_REGION_SIZE = 1L << 30;
+
+  private final FileChannel channel;
+  private final long size;
+  private final long regionSize;
+
+  private MappedByteBuffer region;
+  private long regionStart;
+
+  MappedFileInputStream(FileChannel aChannel, long aRegionSize) throws IOException {
+    channel = aChannel;
+    size = aChannel.size();
+    regionSize = aRegionSize;
+  }
+
+  public static MappedFileInputStream open(Path aFile) throws IOException {
+    return open(aFile, DEFAULT_REGION_SIZE);
+  }
+
+  /**
+   * @param aFile
+   *          the file to read.
+   * @param aRegionSize
+   *          the maximum number of bytes mapped at once. A single mapping cannot be larger than
+   *          {@link Integer#MAX_VALUE} bytes.
+   * @return a stream over the file.
+   * @throws IOException
+   *           if the file could not be opened.
+   */
+  public static MappedFileInputStream open(Path aFile, long aRegionSize) throws IOException {
+    if (aRegionSize <= 0) {
+      throw new IllegalArgumentException("Region size must be positive");
+    }
+    if (aRegionSize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+              "Region size must not exceed " + Integer.MAX_VALUE + " bytes");
+    }
+
+    FileChannel channel = FileChannel.open(aFile, READ);
+    try {
+      return new MappedFileInputStream(channel, aRegionSize);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * @return the current region with at least one remaining byte or {@code null} at the end of the
+   *         file.
+   */
+  private MappedByteBuffer region() throws IOException {
+    if (region != null && region.hasRemaining()) {
+      return region;
+    }
+
+    long next = region != null ? regionStart + region.capacity() : 0;
+    if (next >= size) {
+      return null;
+    }
+
+    regionStart = next;
+    region = channel.map(READ_ONLY, regionStart, Math.min(regionSize, size - regionStart));
+    return region;
+  }
+
+  @Override
+  public int read() throws IOException {
+    MappedByteBuffer buffer = region();
+    if (buffer == null) {
+      return -1;
+    }
+    return buffer.get() & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] aBuffer, int aOffset, int aLength) throws IOException {
+    if (aLength == 0) {
+      return 0;
+    }
+
+    MappedByteBuffer buffer = region();
+    if (buffer == null) {
+      return -1;
+    }
+
+    int n = Math.min(aLength, buffer.remaining());
+    buffer.get(aBuffer, aOffset, n);
+    return n;
+  }
+
+  @Override
+  public long skip(long aCount) throws IOException {
+    long skipped = 0;
+    while (skipped < aCount) {
+      MappedByteBuffer buffer = region();
+      if (buffer == null) {
+        break;
+      }
+      int n = (int) Math.min(aCount - skipped, buffer.remaining());
+      buffer.position(buffer.position() + n);
+      skipped += n;
+    }
+    return skipped;
+  }
+
+  @Override
+  public int available() throws IOException {
+    long position = region != null ? regionStart + region.position() : 0;
+    return (int) Math.min(Integer.MAX_VALUE, size - position);
+  }
+
+  @Override
+  public void close() throws IOException {
+    region = null;
+    channel.close();
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.mode;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DatabindContext;
+
+public enum ArrayEncodingMode {
+
+  /**
+   * Encode the elements of numeric arrays as JSON arrays of numbers.
+   */
+  @JsonProperty("array") //
+  ARRAY,
+
+  /**
+   * Encode the elements of short, integer, long, float and double arrays as a Base64 string of
+   * their little-endian binary representation, like the elements of byte arrays.
+   */
+  @JsonProperty("base64") //
+  BASE64;
+
+  public static final String KEY = "UIMA.ArrayEncodingMode";
+
+  public static void set(DatabindContext aProvider, ArrayEncodingMode aMode) {
+    aProvider.setAttribute(KEY, aMode);
+  }
+
+  public static ArrayEncodingMode get(DatabindContext aProvider) {
+    ArrayEncodingMode mode = (ArrayEncodingMode) aProvider.getAttribute(KEY);
+    return mode != null ? mode : ARRAY;
+  }
+}
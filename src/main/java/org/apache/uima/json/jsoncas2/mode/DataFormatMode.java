@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.mode;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * The physical format in which the CAS is encoded. All formats share the same logical structure,
+ * so the same sections, fields and modes apply to each of them. The binary formats are more
+ * compact and faster to read and write, but they cannot be read by JSON tools. JSON should be used
+ * for interchange.
+ */
+public enum DataFormatMode {
+
+  /**
+   * Textual JSON.
+   */
+  JSON,
+
+  /**
+   * Smile, the binary JSON format of Jackson. Field names and short strings are written only once
+   * and referenced afterwards.
+   */
+  SMILE,
+
+  /**
+   * CBOR (RFC 8949), the concise binary object representation.
+   */
+  CBOR;
+
+  public static final String KEY = "UIMA.DataFormatMode";
+
+  /**
+   * @return a new factory for the parsers and generators of this format.
+   */
+  public JsonFactory createFactory() {
+    switch (this) {
+      case SMILE:
+        return new SmileFactory();
+      case CBOR:
+        return new CBORFactory();
+      case JSON: // fall-through
+      default:
+        return new JsonFactory();
+    }
+  }
+
+  public static void set(DatabindContext aProvider, DataFormatMode aMode) {
+    aProvider.setAttribute(KEY, aMode);
+  }
+
+  public static DataFormatMode get(DatabindContext aProvider) {
+    DataFormatMode mode = (DataFormatMode) aProvider.getAttribute(KEY);
+    return mode != null ? mode : JSON;
+  }
+}
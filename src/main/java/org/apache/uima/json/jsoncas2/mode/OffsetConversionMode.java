@@ -59,28 +59,43 @@ public enum OffsetConversionMode {
     return getDefault();
   }
 
-  public static OffsetConverter initConverter(DatabindContext aProvider, String aView,
-          String aText) {
-    OffsetConverter converter;
-    switch (getOrDefault(aProvider)) {
+  /**
+   * @param aText
+   *          the text of a view.
+   * @return a converter mapping offsets in the given text from UIMA's UTF-16 code units to this
+   *         mode's units and back.
+   */
+  public OffsetConverter createConverter(String aText) {
+    switch (this) {
       case UTF_8:
-        converter = new Utf8ByteOffsetConverter(aText);
-        break;
+        return new Utf8ByteOffsetConverter(aText);
       case UTF_16:
-        converter = new Utf16CodeunitOffsetConverter(aText);
-        break;
+        return new Utf16CodeunitOffsetConverter(aText);
       case UTF_32:
-        converter = new Utf32CodepointOffsetConverter(aText);
-        break;
+        return new Utf32CodepointOffsetConverter(aText);
       default:
-        throw new IllegalArgumentException("Unsupported conversion mode: [" + aProvider + "]");
+        throw new IllegalArgumentException("Unsupported conversion mode: [" + this + "]");
     }
+  }
+
+  /**
+   * @deprecated The serializers now create converters on demand per view. Use
+   *             {@link #createConverter(String)} instead.
+   */
+  @Deprecated
+  public static OffsetConverter initConverter(DatabindContext aProvider, String aView,
+          String aText) {
+    OffsetConverter converter = getOrDefault(aProvider).createConverter(aText);
 
     aProvider.setAttribute(KEY + SEPARATOR + aView, converter);
 
     return converter;
   }
 
+  /**
+   * @deprecated The serializers now create converters on demand per view.
+   */
+  @Deprecated
   public static Optional<OffsetConverter> getConverter(DatabindContext aProvider, String aSofaId) {
     return Optional.ofNullable((OffsetConverter) aProvider.getAttribute(KEY + SEPARATOR + aSofaId));
   }
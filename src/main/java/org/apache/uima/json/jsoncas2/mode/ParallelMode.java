@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.mode;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.fasterxml.jackson.databind.DatabindContext;
+
+public enum ParallelMode {
+
+  /**
+   * Write or read the feature structures one after another on the calling thread.
+   */
+  SEQUENTIAL,
+
+  /**
+   * When serializing, write the feature structures in contiguous chunks on the threads of a
+   * {@link ForkJoinPool} and concatenate the chunks in order. The output is identical to
+   * {@link #SEQUENTIAL}. Only applies to {@link FeatureStructuresMode#AS_ARRAY} in
+   * {@link StreamingMode#BUFFERED} mode when writing {@link FormattingMode#COMPACT compact} JSON
+   * to a byte stream.
+   * <p>
+   * When deserializing, parse the feature structures on the threads of a {@link ForkJoinPool}
+   * while the rest of the document is read. The feature structures are then created in the CAS on
+   * the calling thread. Only applies to {@link FeatureStructuresMode#AS_ARRAY}.
+   * <p>
+   * In both cases, CASes which are too small to benefit from it are processed sequentially.
+   */
+  PARALLEL;
+
+  public static final String KEY = "UIMA.ParallelMode";
+  public static final String POOL_KEY = "UIMA.ParallelMode.Pool";
+
+  public static void set(DatabindContext aProvider, ParallelMode aMode) {
+    aProvider.setAttribute(KEY, aMode);
+  }
+
+  public static ParallelMode get(DatabindContext aProvider) {
+    ParallelMode mode = (ParallelMode) aProvider.getAttribute(KEY);
+    return mode != null ? mode : SEQUENTIAL;
+  }
+
+  public static void setPool(DatabindContext aProvider, ForkJoinPool aPool) {
+    aProvider.setAttribute(POOL_KEY, aPool);
+  }
+
+  /**
+   * @return the pool used in {@link #PARALLEL} mode - by default the common pool.
+   */
+  public static ForkJoinPool getPool(DatabindContext aProvider) {
+    ForkJoinPool pool = (ForkJoinPool) aProvider.getAttribute(POOL_KEY);
+    return pool != null ? pool : ForkJoinPool.commonPool();
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.mode;
+
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+public enum StreamingMode {
+
+  /**
+   * Collect all feature structures before writing them and write them sorted by type name.
+   */
+  BUFFERED,
+
+  /**
+   * Write the feature structures while walking the CAS. The feature structures are not collected
+   * up front, so the memory overhead is independent of the size of the CAS except for the ID
+   * assignment. Feature structures are written in the order in which they are reached: first the
+   * SofAs, then the indexed feature structures of each view, each followed by the not yet written
+   * feature structures it references.
+   * <p>
+   * The CAS is walked only once. In {@link TypeSystemMode#MINIMAL} mode, the used types must be
+   * written before the feature structures, so this walk collects the feature structures in a list
+   * while gathering their types. This is still cheaper than the set and sorted copy of the
+   * buffered mode.
+   */
+  STREAMING;
+
+  public static final String KEY = "UIMA.StreamingMode";
+
+  public static void set(SerializerProvider aProvider, StreamingMode aMode) {
+    aProvider.setAttribute(KEY, aMode);
+  }
+
+  public static StreamingMode get(SerializerProvider aProvider) {
+    StreamingMode mode = (StreamingMode) aProvider.getAttribute(KEY);
+    return mode != null ? mode : BUFFERED;
+  }
+}
@@ -36,7 +36,15 @@ public enum TypeSystemMode {
    * Do not include the type system in the JSON file. The reader must obtain the type system by some
    * other means.
    */
-  NONE;
+  NONE,
+
+  /**
+   * Do not include the type system in the JSON file but record a hash of it in the header. The
+   * reader can use the hash to look up a type system which it received previously.
+   * 
+   * @see org.apache.uima.json.jsoncas2.TypeSystemRegistry
+   */
+  HASH;
 
   public static final String KEY = "UIMA.TypeSystemMode";
 
@@ -21,24 +21,26 @@ package org.apache.uima.json.jsoncas2.model;
 import static java.util.Comparator.comparing;
 import static java.util.stream.Collectors.toList;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.FeatureStructure;
 import com.fasterxml.jackson.databind.DatabindContext;
 
 public class FeatureStructures implements Iterable<FeatureStructure> {
   public static final String ALL_FEATURE_STRUCTURES = "UIMA.AllFeatureStructures";
 
-  private final List<FeatureStructure> featureStructures;
+  private Iterable<FeatureStructure> featureStructures;
 
-  private final Set<String> typeNames;
+  private Set<String> typeNames;
 
   public FeatureStructures(Collection<FeatureStructure> aFeatureStructures) {
-    typeNames = new HashSet<>();
+    Set<String> typeNames = new HashSet<>();
     featureStructures = aFeatureStructures.stream() //
             .map(fs -> {
               typeNames.add(fs.getType().getName());
@@ -46,9 +48,39 @@ public class FeatureStructures implements Iterable<FeatureStructure> {
             }) //
             .sorted(comparing(fs -> fs.getType().getName())) //
             .collect(toList());
+    this.typeNames = typeNames;
+  }
+
+  private FeatureStructures(CAS aCas) {
+    featureStructures = () -> new ReachableFeatureStructureIterator(aCas);
+  }
+
+  /**
+   * Creates a view on all feature structures reachable from the given CAS which walks the CAS when
+   * it is iterated instead of collecting the feature structures up front. Only if the types of the
+   * feature structures are requested before they are written, the walk collects them while
+   * gathering the types, so the CAS is still walked only once.
+   * 
+   * @param aCas
+   *          the CAS.
+   * @return the feature structures.
+   */
+  public static FeatureStructures streaming(CAS aCas) {
+    return new FeatureStructures(aCas);
   }
 
   public boolean existsAnnotationOfType(String aTypeName) {
+    if (typeNames == null) {
+      List<FeatureStructure> fses = new ArrayList<>();
+      Set<String> names = new HashSet<>();
+      for (FeatureStructure fs : featureStructures) {
+        fses.add(fs);
+        names.add(fs.getType().getName());
+      }
+      featureStructures = fses;
+      typeNames = names;
+    }
+
     return typeNames.contains(aTypeName);
   }
 
@@ -58,7 +90,7 @@ public class FeatureStructures implements Iterable<FeatureStructure> {
   }
 
   public boolean isEmpty() {
-    return featureStructures.isEmpty();
+    return !featureStructures.iterator().hasNext();
   }
 
   public static void set(DatabindContext aProvider, FeatureStructures aAllFs) {
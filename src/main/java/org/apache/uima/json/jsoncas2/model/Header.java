@@ -18,10 +18,15 @@
  */
 package org.apache.uima.json.jsoncas2.model;
 
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.HEADER_ARRAY_ENCODING;
 import static org.apache.uima.json.jsoncas2.JsonCas2Names.HEADER_OFFSET_ENCODING;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.HEADER_TYPE_SYSTEM_HASH;
 
+import org.apache.uima.json.jsoncas2.mode.ArrayEncodingMode;
 import org.apache.uima.json.jsoncas2.mode.OffsetConversionMode;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.DatabindContext;
 
@@ -29,12 +34,23 @@ public class Header {
   @JsonProperty(HEADER_OFFSET_ENCODING)
   private OffsetConversionMode offsetEncoding;
 
+  @JsonProperty(HEADER_ARRAY_ENCODING)
+  @JsonInclude(Include.NON_NULL)
+  private ArrayEncodingMode arrayEncoding;
+
+  @JsonProperty(HEADER_TYPE_SYSTEM_HASH)
+  @JsonInclude(Include.NON_NULL)
+  private String typeSystemHash;
+
   public Header() {
     // Used for deserialization
   }
 
   public Header(DatabindContext aProvider) {
     offsetEncoding = OffsetConversionMode.get(aProvider);
+    ArrayEncodingMode arrayEncodingMode = ArrayEncodingMode.get(aProvider);
+    // Only mark the array encoding if it deviates from the default
+    arrayEncoding = arrayEncodingMode != ArrayEncodingMode.ARRAY ? arrayEncodingMode : null;
   }
 
   public OffsetConversionMode getOffsetEncoding() {
@@ -45,7 +61,24 @@ public class Header {
     offsetEncoding = aOffsetEncoding;
   }
 
+  public ArrayEncodingMode getArrayEncoding() {
+    return arrayEncoding;
+  }
+
+  public void setArrayEncoding(ArrayEncodingMode aArrayEncoding) {
+    arrayEncoding = aArrayEncoding;
+  }
+
+  public String getTypeSystemHash() {
+    return typeSystemHash;
+  }
+
+  public void setTypeSystemHash(String aTypeSystemHash) {
+    typeSystemHash = aTypeSystemHash;
+  }
+
   public boolean requiresSerialization() {
-    return offsetEncoding != null && offsetEncoding != OffsetConversionMode.getDefault();
+    return (offsetEncoding != null && offsetEncoding != OffsetConversionMode.getDefault())
+            || arrayEncoding != null || typeSystemHash != null;
   }
 }
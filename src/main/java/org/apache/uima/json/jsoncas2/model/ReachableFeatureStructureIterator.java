@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.model;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.uima.cas.ArrayFS;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.impl.FeatureImpl;
+import org.apache.uima.cas.impl.TypeImpl;
+import org.apache.uima.jcas.cas.TOP;
+
+/**
+ * Lazily walks all feature structures reachable from a CAS: first the SofAs, then the indexed
+ * feature structures of each view, each followed by the not yet visited feature structures it
+ * references. Only a bit set of visited IDs and the references that still need to be followed are
+ * kept in memory.
+ */
+class ReachableFeatureStructureIterator implements Iterator<FeatureStructure> {
+  private final Iterator<CAS> sofaViews;
+  private final Iterator<CAS> indexViews;
+  private final BitSet visited = new BitSet();
+  private final Deque<TOP> pending = new ArrayDeque<>();
+  private Iterator<TOP> viewMembers;
+  private TOP next;
+
+  ReachableFeatureStructureIterator(CAS aCas) {
+    sofaViews = aCas.getViewIterator();
+    indexViews = aCas.getViewIterator();
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null) {
+      next = advance();
+    }
+    return next != null;
+  }
+
+  @Override
+  public FeatureStructure next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    TOP fs = next;
+    next = null;
+    scheduleReferences(fs);
+    return fs;
+  }
+
+  private TOP advance() {
+    if (!pending.isEmpty()) {
+      return pending.pop();
+    }
+
+    while (sofaViews.hasNext()) {
+      TOP sofa = (TOP) sofaViews.next().getSofa();
+      if (sofa != null && markVisited(sofa)) {
+        return sofa;
+      }
+    }
+
+    while (true) {
+      if (viewMembers != null) {
+        while (viewMembers.hasNext()) {
+          TOP fs = viewMembers.next();
+          if (markVisited(fs)) {
+            return fs;
+          }
+        }
+      }
+
+      if (!indexViews.hasNext()) {
+        return null;
+      }
+
+      CAS view = indexViews.next();
+      viewMembers = view.getIndexRepository()
+              .<TOP> getAllIndexedFS(view.getTypeSystem().getTopType());
+    }
+  }
+
+  private void scheduleReferences(TOP aFs) {
+    TypeImpl type = (TypeImpl) aFs.getType();
+
+    // Push in reverse order so that the references are written in feature/element order
+    if (aFs instanceof ArrayFS) {
+      ArrayFS<?> array = (ArrayFS<?>) aFs;
+      for (int i = array.size() - 1; i >= 0; i--) {
+        schedule(array.get(i));
+      }
+      return;
+    }
+
+    FeatureImpl[] features = type.getFeatureImpls();
+    for (int i = features.length - 1; i >= 0; i--) {
+      FeatureImpl feature = features[i];
+      if (!feature.getRange().isPrimitive()) {
+        schedule(aFs.getFeatureValue(feature));
+      }
+    }
+  }
+
+  private void schedule(FeatureStructure aFs) {
+    if (aFs != null && markVisited((TOP) aFs)) {
+      pending.push((TOP) aFs);
+    }
+  }
+
+  private boolean markVisited(TOP aFs) {
+    int id = aFs._id();
+    if (visited.get(id)) {
+      return false;
+    }
+    visited.set(id);
+    return true;
+  }
+}
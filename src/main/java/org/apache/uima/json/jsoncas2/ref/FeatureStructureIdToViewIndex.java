@@ -18,9 +18,15 @@
  */
 package org.apache.uima.json.jsoncas2.ref;
 
-import java.util.Collections;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.Collections.unmodifiableSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -29,19 +35,136 @@ import com.fasterxml.jackson.databind.DatabindContext;
 public class FeatureStructureIdToViewIndex {
   public static final String FS_VIEW_CACHE = "UIMA.FeatureStructureIdToViewIndex";
 
-  // FIXME Should use a map implementation with a primitive key!
-  private Map<Integer, Set<String>> fsIdToViewsCache;
+  private static final int INITIAL_CAPACITY = 256;
+
+  private static final int NO_VIEW = 0;
+
+  private final Map<String, Integer> viewOrdinals;
+  private final List<Set<String>> singleViewSets;
+
+  /**
+   * Views assigned to each FS ID. Most feature structures are only in a single view, so the entry
+   * is {@code ordinal + 1} of that view. If a feature structure is in multiple views, the entry is
+   * {@code -(index + 1)} into {@link #multiViewAssignments}. {@link #NO_VIEW} means that the
+   * feature structure is not in any view. IDs which do not fit the array (negative IDs, large gaps)
+   * are kept in {@link #sparseFsIdToViews} using the same encoding.
+   */
+  private int[] fsIdToViews;
+  private Map<Integer, Integer> sparseFsIdToViews;
+  private final List<int[]> multiViewAssignments;
 
   public FeatureStructureIdToViewIndex() {
-    fsIdToViewsCache = new HashMap<>();
+    viewOrdinals = new HashMap<>();
+    singleViewSets = new ArrayList<>();
+    fsIdToViews = new int[INITIAL_CAPACITY];
+    multiViewAssignments = new ArrayList<>();
   }
 
   public Set<String> getViewsContainingFs(int aFsId) {
-    return fsIdToViewsCache.getOrDefault(aFsId, Collections.emptySet());
+    int views = getEncodedViews(aFsId);
+
+    if (views == NO_VIEW) {
+      return emptySet();
+    }
+
+    if (views > 0) {
+      return singleViewSets.get(views - 1);
+    }
+
+    Set<String> viewNames = new LinkedHashSet<>();
+    for (int ordinal : multiViewAssignments.get(-views - 1)) {
+      viewNames.add(singleViewSets.get(ordinal).iterator().next());
+    }
+    return unmodifiableSet(viewNames);
   }
 
   public void assignFsToView(int aFsId, String aView) {
-    fsIdToViewsCache.computeIfAbsent(aFsId, _fsId -> new HashSet<>()).add(aView);
+    int ordinal = internView(aView);
+    int views = getEncodedViews(aFsId);
+
+    if (views == NO_VIEW) {
+      setEncodedViews(aFsId, ordinal + 1);
+      return;
+    }
+
+    if (views > 0) {
+      if (views - 1 != ordinal) {
+        multiViewAssignments.add(new int[] { views - 1, ordinal });
+        setEncodedViews(aFsId, -multiViewAssignments.size());
+      }
+      return;
+    }
+
+    int[] ordinals = multiViewAssignments.get(-views - 1);
+    for (int o : ordinals) {
+      if (o == ordinal) {
+        return;
+      }
+    }
+    ordinals = Arrays.copyOf(ordinals, ordinals.length + 1);
+    ordinals[ordinals.length - 1] = ordinal;
+    multiViewAssignments.set(-views - 1, ordinals);
+  }
+
+  /**
+   * Removes all view assignments while keeping the allocated capacity so the index can be re-used.
+   */
+  public void clear() {
+    Arrays.fill(fsIdToViews, NO_VIEW);
+    sparseFsIdToViews = null;
+    multiViewAssignments.clear();
+  }
+
+  private int internView(String aView) {
+    Integer ordinal = viewOrdinals.get(aView);
+    if (ordinal == null) {
+      ordinal = singleViewSets.size();
+      viewOrdinals.put(aView, ordinal);
+      singleViewSets.add(singleton(aView));
+    }
+    return ordinal;
+  }
+
+  private int getEncodedViews(int aFsId) {
+    if (aFsId >= 0 && aFsId < fsIdToViews.length) {
+      return fsIdToViews[aFsId];
+    }
+
+    if (sparseFsIdToViews == null) {
+      return NO_VIEW;
+    }
+
+    return sparseFsIdToViews.getOrDefault(aFsId, NO_VIEW);
+  }
+
+  private void setEncodedViews(int aFsId, int aViews) {
+    if (aFsId >= 0 && aFsId >= fsIdToViews.length
+            && (long) aFsId <= 2L * (fsIdToViews.length + INITIAL_CAPACITY)) {
+      int[] oldFsIdToViews = fsIdToViews;
+      fsIdToViews = Arrays.copyOf(fsIdToViews,
+              (int) Math.min(Integer.MAX_VALUE - 8, Math.max(aFsId + 1L, fsIdToViews.length * 2L)));
+      // Pull in sparse entries which are now covered by the array
+      if (sparseFsIdToViews != null) {
+        sparseFsIdToViews.entrySet().removeIf(e -> {
+          int id = e.getKey();
+          if (id >= oldFsIdToViews.length && id < fsIdToViews.length) {
+            fsIdToViews[id] = e.getValue();
+            return true;
+          }
+          return false;
+        });
+      }
+    }
+
+    if (aFsId >= 0 && aFsId < fsIdToViews.length) {
+      fsIdToViews[aFsId] = aViews;
+      return;
+    }
+
+    if (sparseFsIdToViews == null) {
+      sparseFsIdToViews = new HashMap<>();
+    }
+    sparseFsIdToViews.put(aFsId, aViews);
   }
 
   public static void set(DatabindContext aProvider, FeatureStructureIdToViewIndex aRefCache) {
@@ -18,14 +18,20 @@
  */
 package org.apache.uima.json.jsoncas2.ref;
 
-import java.util.Comparator;
+import static java.lang.Math.max;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NavigableMap;
 import java.util.Optional;
 import java.util.OptionalInt;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
+import java.util.function.ObjIntConsumer;
 
 import org.apache.uima.cas.FeatureStructure;
 
@@ -34,32 +40,131 @@ import com.fasterxml.jackson.databind.DatabindContext;
 public class FeatureStructureToIdIndex {
   public static final String KEY = "UIMA.FeatureStructureToIdIndex";
 
+  private static final int INITIAL_CAPACITY = 256;
+
+  /**
+   * IDs are normally assigned sequentially, so feature structures are kept in an array indexed by
+   * their ID. IDs which would make that array too sparse (e.g. negative IDs or large gaps) go to
+   * {@link #sparseIdToFsIndex} instead.
+   */
+  private FeatureStructure[] idToFsIndex;
+  private int denseCount;
+  private NavigableMap<Integer, FeatureStructure> sparseIdToFsIndex;
+
+  /**
+   * Reverse index - only built if {@link #get(FeatureStructure)} is actually used.
+   */
   private Map<FeatureStructure, Integer> fsToIdIndex;
-  private Map<Integer, FeatureStructure> idToFsIndex;
 
   public FeatureStructureToIdIndex() {
-    idToFsIndex = new HashMap<>();
-    fsToIdIndex = new HashMap<>();
+    idToFsIndex = new FeatureStructure[INITIAL_CAPACITY];
   }
 
   public void put(int aFsId, FeatureStructure aFs) {
-    idToFsIndex.put(aFsId, aFs);
-    fsToIdIndex.put(aFs, aFsId);
+    if (aFsId >= 0 && ensureDenseCapacity(aFsId)) {
+      if (idToFsIndex[aFsId] == null) {
+        denseCount++;
+      }
+      idToFsIndex[aFsId] = aFs;
+    } else {
+      if (sparseIdToFsIndex == null) {
+        sparseIdToFsIndex = new TreeMap<>();
+      }
+      sparseIdToFsIndex.put(aFsId, aFs);
+    }
+
+    if (fsToIdIndex != null) {
+      fsToIdIndex.put(aFs, aFsId);
+    }
+  }
+
+  private boolean ensureDenseCapacity(int aFsId) {
+    if (aFsId < idToFsIndex.length) {
+      return true;
+    }
+
+    // Do not grow the array if it would end up mostly empty
+    if ((long) aFsId > 2L * (denseCount + INITIAL_CAPACITY)) {
+      return false;
+    }
+
+    int newCapacity = (int) Math.min(Integer.MAX_VALUE - 8,
+            max(aFsId + 1L, idToFsIndex.length * 2L));
+    idToFsIndex = Arrays.copyOf(idToFsIndex, newCapacity);
+
+    // Pull in sparse entries which are now covered by the array
+    if (sparseIdToFsIndex != null) {
+      Map<Integer, FeatureStructure> covered = sparseIdToFsIndex.subMap(0, true, newCapacity,
+              false);
+      for (Entry<Integer, FeatureStructure> e : covered.entrySet()) {
+        idToFsIndex[e.getKey()] = e.getValue();
+        denseCount++;
+      }
+      covered.clear();
+    }
+
+    return true;
   }
 
   public OptionalInt get(FeatureStructure aFs) {
+    if (fsToIdIndex == null) {
+      fsToIdIndex = new HashMap<>();
+      forEach((fs, id) -> fsToIdIndex.put(fs, id));
+    }
+
     Integer id = fsToIdIndex.get(aFs);
     return id != null ? OptionalInt.of(id) : OptionalInt.empty();
   }
 
-  public List<Entry<Integer, FeatureStructure>> getAllFeatureStructures() {
-    return idToFsIndex.entrySet().stream() //
-            .sorted(Comparator.comparing(Entry::getKey)) //
-            .collect(Collectors.toList());
+  /**
+   * @return the feature structure with the given ID or {@code null} if there is none.
+   */
+  public FeatureStructure getOrNull(int aId) {
+    if (aId >= 0 && aId < idToFsIndex.length) {
+      return idToFsIndex[aId];
+    }
+
+    return sparseIdToFsIndex != null ? sparseIdToFsIndex.get(aId) : null;
   }
 
   public Optional<FeatureStructure> get(int aId) {
-    return Optional.ofNullable(idToFsIndex.get(aId));
+    return Optional.ofNullable(getOrNull(aId));
+  }
+
+  /**
+   * Calls the given action for each feature structure and its ID in ascending order of the IDs.
+   */
+  public void forEach(ObjIntConsumer<FeatureStructure> aAction) {
+    if (sparseIdToFsIndex != null) {
+      sparseIdToFsIndex.headMap(0).forEach((id, fs) -> aAction.accept(fs, id));
+    }
+
+    for (int id = 0; id < idToFsIndex.length; id++) {
+      FeatureStructure fs = idToFsIndex[id];
+      if (fs != null) {
+        aAction.accept(fs, id);
+      }
+    }
+
+    if (sparseIdToFsIndex != null) {
+      sparseIdToFsIndex.tailMap(0, true).forEach((id, fs) -> aAction.accept(fs, id));
+    }
+  }
+
+  /**
+   * Removes all entries while keeping the allocated capacity so the index can be re-used.
+   */
+  public void clear() {
+    Arrays.fill(idToFsIndex, null);
+    denseCount = 0;
+    sparseIdToFsIndex = null;
+    fsToIdIndex = null;
+  }
+
+  public List<Entry<Integer, FeatureStructure>> getAllFeatureStructures() {
+    List<Entry<Integer, FeatureStructure>> all = new ArrayList<>();
+    forEach((fs, id) -> all.add(new SimpleImmutableEntry<>(id, fs)));
+    return all;
   }
 
   public static void set(DatabindContext aProvider, FeatureStructureToIdIndex aRefCache) {
@@ -31,22 +31,43 @@ import com.fasterxml.jackson.databind.DatabindContext;
 public class FeatureStructureToViewIndex {
   public static final String FS_VIEW_CACHE = "UIMA.FeatureStructureToViewIndex";
 
-  private final FeatureStructures featureStructures;
+  private FeatureStructures featureStructures;
 
   private Map<FeatureStructure, Set<String>> fsToViewsCache;
 
+  private boolean indexed;
+
   public FeatureStructureToViewIndex() {
     featureStructures = null;
     fsToViewsCache = new IdentityHashMap<>();
+    indexed = true;
   }
 
   public FeatureStructureToViewIndex(FeatureStructures aFeatureStructures) {
     featureStructures = aFeatureStructures;
   }
 
+  /**
+   * Prepares the index for another set of feature structures. The internal map is cleared but
+   * retained so that its capacity can be re-used.
+   * 
+   * @param aFeatureStructures
+   *          the feature structures of the next CAS.
+   */
+  public void reset(FeatureStructures aFeatureStructures) {
+    featureStructures = aFeatureStructures;
+    indexed = false;
+    if (fsToViewsCache != null) {
+      fsToViewsCache.clear();
+    }
+  }
+
   public Set<String> getViewsContainingFs(FeatureStructure aFS) {
-    if (fsToViewsCache == null) {
-      fsToViewsCache = new IdentityHashMap<>();
+    if (!indexed) {
+      if (fsToViewsCache == null) {
+        fsToViewsCache = new IdentityHashMap<>();
+      }
+      indexed = true;
       featureStructures.iterator().next().getCAS().getViewIterator().forEachRemaining(view -> {
         for (FeatureStructure fs : view.select()) {
           fsToViewsCache.computeIfAbsent(fs, _fs -> new HashSet<>()).add(view.getViewName());
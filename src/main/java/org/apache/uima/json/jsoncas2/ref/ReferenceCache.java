@@ -18,7 +18,10 @@
  */
 package org.apache.uima.json.jsoncas2.ref;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -26,31 +29,103 @@ import java.util.function.ToIntFunction;
 
 import org.apache.uima.cas.FeatureStructure;
 import org.apache.uima.cas.Type;
+import org.apache.uima.jcas.cas.TOP;
 
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.DatabindContext;
 
 public class ReferenceCache {
   public static final String KEY = "UIMA.ReferenceCache";
 
-  private final ToIntFunction<FeatureStructure> idRefGenerator;
-  private Map<FeatureStructure, Integer> idRefCache = new HashMap<>();
+  private static final int INITIAL_CAPACITY = 256;
 
-  private final Function<Type, String> typeRefGenerator;
+  private final Supplier<ToIntFunction<FeatureStructure>> idRefGeneratorSupplier;
+  private final Supplier<Function<Type, String>> typeRefGeneratorSupplier;
+
+  private ToIntFunction<FeatureStructure> idRefGenerator;
+
+  /**
+   * ID references indexed by the CAS-internal {@link TOP#_id() ID} of the feature structure. Since
+   * a generator may hand out any int value, {@link #idRefCached} tracks which slots are in use.
+   */
+  private int[] idRefCache = new int[INITIAL_CAPACITY];
+  private BitSet idRefCached = new BitSet(INITIAL_CAPACITY);
+
+  /**
+   * Fallback for feature structures which are not {@link TOP} instances and thus have no
+   * CAS-internal ID.
+   */
+  private Map<FeatureStructure, Integer> otherIdRefCache;
+
+  private Function<Type, String> typeRefGenerator;
   private Map<Type, String> typeRefCache = new HashMap<>();
+  private Map<Type, SerializableString> serializedTypeRefCache = new HashMap<>();
 
   private ReferenceCache(Builder builder) {
-    idRefGenerator = builder.idRefGeneratorSupplier.get();
-    typeRefGenerator = builder.typeRefGeneratorSupplier.get();
+    idRefGeneratorSupplier = builder.idRefGeneratorSupplier;
+    typeRefGeneratorSupplier = builder.typeRefGeneratorSupplier;
+    idRefGenerator = idRefGeneratorSupplier.get();
+    typeRefGenerator = typeRefGeneratorSupplier.get();
+  }
+
+  /**
+   * Forgets all references handed out so far and starts over with fresh generators, so that the
+   * cache can be re-used for another CAS while keeping its allocated capacity.
+   */
+  public void reset() {
+    idRefGenerator = idRefGeneratorSupplier.get();
+    typeRefGenerator = typeRefGeneratorSupplier.get();
+    idRefCached.clear();
+    otherIdRefCache = null;
+    typeRefCache.clear();
+    serializedTypeRefCache.clear();
   }
 
   public int fsRef(FeatureStructure aFs) {
-    return idRefCache.computeIfAbsent(aFs, _fs -> idRefGenerator.applyAsInt(_fs));
+    if (!(aFs instanceof TOP)) {
+      if (otherIdRefCache == null) {
+        otherIdRefCache = new IdentityHashMap<>();
+      }
+      return otherIdRefCache.computeIfAbsent(aFs, _fs -> idRefGenerator.applyAsInt(_fs));
+    }
+
+    int internalId = ((TOP) aFs)._id();
+    if (idRefCached.get(internalId)) {
+      return idRefCache[internalId];
+    }
+
+    if (internalId >= idRefCache.length) {
+      idRefCache = Arrays.copyOf(idRefCache, Math.max(internalId + 1, idRefCache.length * 2));
+    }
+
+    int ref = idRefGenerator.applyAsInt(aFs);
+    idRefCache[internalId] = ref;
+    idRefCached.set(internalId);
+    return ref;
   }
 
   public String typeRef(Type aType) {
     return typeRefCache.computeIfAbsent(aType, typeRefGenerator);
   }
 
+  /**
+   * Same as {@link #typeRef(Type)}, but pre-encoded so that writing the reference repeatedly does
+   * not require quoting and encoding it every time.
+   * 
+   * @param aType
+   *          the type.
+   * @return the encoded type reference.
+   */
+  public SerializableString serializedTypeRef(Type aType) {
+    SerializableString ref = serializedTypeRefCache.get(aType);
+    if (ref == null) {
+      ref = new SerializedString(typeRef(aType));
+      serializedTypeRefCache.put(aType, ref);
+    }
+    return ref;
+  }
+
   /**
    * Creates builder to build {@link ReferenceCache}.
    * 
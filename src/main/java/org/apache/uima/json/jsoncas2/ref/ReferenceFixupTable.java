@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ref;
+
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
+
+import java.util.NoSuchElementException;
+
+import org.apache.uima.cas.ArrayFS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.FeatureStructure;
+
+import com.fasterxml.jackson.databind.DatabindContext;
+
+/**
+ * Forward references encountered during deserialization, i.e. references to feature structures
+ * which have not been read yet. Each entry records the source feature structure, the feature or
+ * array slot to set and the ID of the target feature structure. The entries are kept in parallel
+ * arrays and resolved in a single pass once all feature structures have been read.
+ */
+public class ReferenceFixupTable {
+  public static final String KEY = "UIMA.ReferenceFixupTable";
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private static final int NO_SLOT = -1;
+
+  private FeatureStructure[] sources = new FeatureStructure[INITIAL_CAPACITY];
+  private Feature[] features = new Feature[INITIAL_CAPACITY];
+  private int[] slots = new int[INITIAL_CAPACITY];
+  private int[] targetIds = new int[INITIAL_CAPACITY];
+  private int size;
+
+  /**
+   * Records that the given feature of the source feature structure must be set to the feature
+   * structure with the given ID.
+   */
+  public void addFeatureFixup(FeatureStructure aSource, Feature aFeature, int aTargetId) {
+    add(aSource, aFeature, NO_SLOT, aTargetId);
+  }
+
+  /**
+   * Records that the given slot of the source array must be set to the feature structure with the
+   * given ID.
+   */
+  public void addArraySlotFixup(ArrayFS<?> aSource, int aSlot, int aTargetId) {
+    add(aSource, null, aSlot, aTargetId);
+  }
+
+  private void add(FeatureStructure aSource, Feature aFeature, int aSlot, int aTargetId) {
+    if (size == sources.length) {
+      int newCapacity = size * 2;
+      sources = copyOf(sources, newCapacity);
+      features = copyOf(features, newCapacity);
+      slots = copyOf(slots, newCapacity);
+      targetIds = copyOf(targetIds, newCapacity);
+    }
+
+    sources[size] = aSource;
+    features[size] = aFeature;
+    slots[size] = aSlot;
+    targetIds[size] = aTargetId;
+    size++;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Resolves all recorded references against the given index and clears the table.
+   * 
+   * @throws NoSuchElementException
+   *           if a target ID cannot be resolved.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public void resolve(FeatureStructureToIdIndex aIdToFsIndex) {
+    for (int i = 0; i < size; i++) {
+      int targetId = targetIds[i];
+      FeatureStructure target = aIdToFsIndex.getOrNull(targetId);
+      if (slots[i] == NO_SLOT) {
+        if (target == null) {
+          throw new NoSuchElementException(
+                  "Unable to resolve ID [" + targetId + "] during post-processing");
+        }
+        sources[i].setFeatureValue(features[i], target);
+      } else {
+        if (target == null) {
+          throw new NoSuchElementException(
+                  "Unable to resolve ID [" + targetId + "] during array post-processing");
+        }
+        ((ArrayFS) sources[i]).set(slots[i], target);
+      }
+    }
+
+    clear();
+  }
+
+  public void clear() {
+    // Release the references to the feature structures
+    fill(sources, 0, size, null);
+    fill(features, 0, size, null);
+    size = 0;
+  }
+
+  public static void set(DatabindContext aProvider, ReferenceFixupTable aTable) {
+    aProvider.setAttribute(KEY, aTable);
+  }
+
+  public static ReferenceFixupTable get(DatabindContext aProvider) {
+    return (ReferenceFixupTable) aProvider.getAttribute(KEY);
+  }
+}
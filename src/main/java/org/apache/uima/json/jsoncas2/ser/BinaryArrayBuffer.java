@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ser;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+
+import org.apache.uima.cas.DoubleArrayFS;
+import org.apache.uima.cas.FloatArrayFS;
+import org.apache.uima.cas.IntArrayFS;
+import org.apache.uima.cas.LongArrayFS;
+import org.apache.uima.cas.ShortArrayFS;
+
+import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DatabindContext;
+
+/**
+ * Growable buffer in which the elements of numeric arrays are encoded as little-endian bytes for
+ * {@link org.apache.uima.json.jsoncas2.mode.ArrayEncodingMode#BASE64}. The elements are copied out
+ * of the arrays in small chunks, so no intermediate copy of a whole array is made. The buffer is
+ * reused for all arrays written with the same provider and is not thread-safe.
+ */
+final class BinaryArrayBuffer {
+  static final String KEY = "UIMA.BinaryArrayBuffer";
+
+  private static final int CHUNK_SIZE = 1024;
+
+  // Some VMs reserve header words in arrays, so stay slightly below Integer.MAX_VALUE
+  private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+  private byte[] bytes = new byte[0];
+
+  private short[] shorts;
+  private int[] ints;
+  private long[] longs;
+  private float[] floats;
+  private double[] doubles;
+
+  void write(JsonGenerator aJg, DoubleArrayFS aArray) throws IOException {
+    int size = aArray.size();
+    int byteSize = byteSize(aJg, size, Double.BYTES);
+    DoubleBuffer target = reset(byteSize).asDoubleBuffer();
+    if (doubles == null) {
+      doubles = new double[CHUNK_SIZE];
+    }
+    for (int i = 0; i < size; i += CHUNK_SIZE) {
+      int n = min(CHUNK_SIZE, size - i);
+      aArray.copyToArray(i, doubles, 0, n);
+      target.put(doubles, 0, n);
+    }
+    aJg.writeBinary(bytes, 0, byteSize);
+  }
+
+  void write(JsonGenerator aJg, FloatArrayFS aArray) throws IOException {
+    int size = aArray.size();
+    int byteSize = byteSize(aJg, size, Float.BYTES);
+    FloatBuffer target = reset(byteSize).asFloatBuffer();
+    if (floats == null) {
+      floats = new float[CHUNK_SIZE];
+    }
+    for (int i = 0; i < size; i += CHUNK_SIZE) {
+      int n = min(CHUNK_SIZE, size - i);
+      aArray.copyToArray(i, floats, 0, n);
+      target.put(floats, 0, n);
+    }
+    aJg.writeBinary(bytes, 0, byteSize);
+  }
+
+  void write(JsonGenerator aJg, IntArrayFS aArray) throws IOException {
+    int size = aArray.size();
+    int byteSize = byteSize(aJg, size, Integer.BYTES);
+    IntBuffer target = reset(byteSize).asIntBuffer();
+    if (ints == null) {
+      ints = new int[CHUNK_SIZE];
+    }
+    for (int i = 0; i < size; i += CHUNK_SIZE) {
+      int n = min(CHUNK_SIZE, size - i);
+      aArray.copyToArray(i, ints, 0, n);
+      target.put(ints, 0, n);
+    }
+    aJg.writeBinary(bytes, 0, byteSize);
+  }
+
+  void write(JsonGenerator aJg, LongArrayFS aArray) throws IOException {
+    int size = aArray.size();
+    int byteSize = byteSize(aJg, size, Long.BYTES);
+    LongBuffer target = reset(byteSize).asLongBuffer();
+    if (longs == null) {
+      longs = new long[CHUNK_SIZE];
+    }
+    for (int i = 0; i < size; i += CHUNK_SIZE) {
+      int n = min(CHUNK_SIZE, size - i);
+      aArray.copyToArray(i, longs, 0, n);
+      target.put(longs, 0, n);
+    }
+    aJg.writeBinary(bytes, 0, byteSize);
+  }
+
+  void write(JsonGenerator aJg, ShortArrayFS aArray) throws IOException {
+    int size = aArray.size();
+    int byteSize = byteSize(aJg, size, Short.BYTES);
+    ShortBuffer target = reset(byteSize).asShortBuffer();
+    if (shorts == null) {
+      shorts = new short[CHUNK_SIZE];
+    }
+    for (int i = 0; i < size; i += CHUNK_SIZE) {
+      int n = min(CHUNK_SIZE, size - i);
+      aArray.copyToArray(i, shorts, 0, n);
+      target.put(shorts, 0, n);
+    }
+    aJg.writeBinary(bytes, 0, byteSize);
+  }
+
+  /**
+   * @return the number of bytes needed to encode the given number of elements.
+   * @throws JsonGenerationException
+   *           if the elements do not fit into a single byte array.
+   */
+  private static int byteSize(JsonGenerator aJg, int aSize, int aElementBytes)
+          throws JsonGenerationException {
+    long byteSize = (long) aSize * aElementBytes;
+    if (byteSize > MAX_CAPACITY) {
+      throw new JsonGenerationException("Array of " + aSize + " elements is too large to be "
+              + "encoded as binary data", aJg);
+    }
+    return (int) byteSize;
+  }
+
+  /**
+   * @return a little-endian view of the buffer which can hold at least the given number of bytes.
+   */
+  private ByteBuffer reset(int aMinCapacity) {
+    if (bytes.length < aMinCapacity) {
+      bytes = new byte[(int) max(aMinCapacity, min(bytes.length * 2L, MAX_CAPACITY))];
+    }
+    return ByteBuffer.wrap(bytes, 0, aMinCapacity).order(LITTLE_ENDIAN);
+  }
+
+  static void set(DatabindContext aProvider, BinaryArrayBuffer aBuffer) {
+    aProvider.setAttribute(KEY, aBuffer);
+  }
+
+  static BinaryArrayBuffer get(DatabindContext aProvider) {
+    BinaryArrayBuffer buffer = (BinaryArrayBuffer) aProvider.getAttribute(KEY);
+    if (buffer == null) {
+      buffer = new BinaryArrayBuffer();
+      set(aProvider, buffer);
+    }
+    return buffer;
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ser;
+
+import org.apache.uima.json.jsoncas2.mode.OffsetConversionMode;
+import org.apache.uima.json.jsoncas2.ref.FeatureStructureIdToViewIndex;
+import org.apache.uima.json.jsoncas2.ref.FeatureStructureToIdIndex;
+import org.apache.uima.json.jsoncas2.ref.ReferenceFixupTable;
+
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+/**
+ * Per-document state of the {@link CasDeserializer} which can be kept and re-used across multiple
+ * deserializations instead of being allocated anew for every CAS. The context is reset at the end
+ * of each deserialization. It is not thread-safe and should be pooled per thread or per worker.
+ */
+public class CasDeserializationContext {
+  public static final String KEY = "UIMA.CasDeserializationContext";
+
+  private final FeatureStructureIdToViewIndex fsIdToViewIndex = new FeatureStructureIdToViewIndex();
+  private final FeatureStructureToIdIndex fsToIdIndex = new FeatureStructureToIdIndex();
+  private final ReferenceFixupTable referenceFixups = new ReferenceFixupTable();
+  private final PrimitiveArrayBuffers arrayBuffers = new PrimitiveArrayBuffers();
+  private final OffsetConverterRegistry offsetConverters = new OffsetConverterRegistry();
+
+  void install(DeserializationContext aCtxt) {
+    FeatureStructureIdToViewIndex.set(aCtxt, fsIdToViewIndex);
+    FeatureStructureToIdIndex.set(aCtxt, fsToIdIndex);
+    ReferenceFixupTable.set(aCtxt, referenceFixups);
+    aCtxt.setAttribute(PrimitiveArrayBuffers.KEY, arrayBuffers);
+    offsetConverters.reset(OffsetConversionMode.get(aCtxt));
+    OffsetConverterRegistry.set(aCtxt, offsetConverters);
+  }
+
+  /**
+   * Clears the state left over from the previous document.
+   */
+  public void reset() {
+    fsIdToViewIndex.clear();
+    fsToIdIndex.clear();
+    referenceFixups.clear();
+    offsetConverters.reset(null);
+  }
+
+  public static void set(DatabindContext aProvider, CasDeserializationContext aContext) {
+    aProvider.setAttribute(KEY, aContext);
+  }
+
+  public static CasDeserializationContext get(DatabindContext aProvider) {
+    return (CasDeserializationContext) aProvider.getAttribute(KEY);
+  }
+}
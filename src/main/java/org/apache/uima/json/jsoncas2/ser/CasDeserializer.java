@@ -20,6 +20,7 @@ package org.apache.uima.json.jsoncas2.ser;
 
 import static com.fasterxml.jackson.core.JsonTokenId.ID_END_ARRAY;
 import static com.fasterxml.jackson.core.JsonTokenId.ID_END_OBJECT;
+import static com.fasterxml.jackson.core.JsonTokenId.ID_FIELD_NAME;
 import static com.fasterxml.jackson.core.JsonTokenId.ID_START_OBJECT;
 import static org.apache.uima.json.jsoncas2.JsonCas2Names.FEATURE_STRUCTURES_FIELD;
 import static org.apache.uima.json.jsoncas2.JsonCas2Names.HEADER_FIELD;
@@ -27,10 +28,11 @@ import static org.apache.uima.json.jsoncas2.JsonCas2Names.TYPES_FIELD;
 import static org.apache.uima.json.jsoncas2.JsonCas2Names.VIEWS_FIELD;
 
 import java.io.IOException;
-import java.util.Map.Entry;
 
 import org.apache.uima.cas.CAS;
-import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.json.jsoncas2.TypeSystemRegistry;
+import org.apache.uima.json.jsoncas2.mode.ArrayEncodingMode;
 import org.apache.uima.json.jsoncas2.mode.OffsetConversionMode;
 import org.apache.uima.json.jsoncas2.model.FeatureStructures;
 import org.apache.uima.json.jsoncas2.model.Header;
@@ -43,11 +45,18 @@ import org.apache.uima.util.CasCreationUtils;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 
 public class CasDeserializer extends CasDeserializer_ImplBase<CAS> {
   private static final long serialVersionUID = -5937326876753347248L;
 
+  /**
+   * Hash of the type system of the target CAS last seen by this deserializer. Usually, all CASes
+   * read through the same mapper share a type system, so the hash only needs to be computed once.
+   */
+  private transient volatile TypeSystemHash cachedHash;
+
   public CasDeserializer() {
     super(CAS.class);
   }
@@ -56,11 +65,35 @@ public class CasDeserializer extends CasDeserializer_ImplBase<CAS> {
   public CAS deserialize(JsonParser aParser, DeserializationContext aCtxt)
           throws IOException, JsonProcessingException {
 
-    FeatureStructureIdToViewIndex.set(aCtxt, new FeatureStructureIdToViewIndex());
-    FeatureStructureToIdIndex.set(aCtxt, new FeatureStructureToIdIndex());
+    CasDeserializationContext context = begin(aCtxt);
+    try {
+      CAS cas = readSections(aParser, aCtxt);
+      indexFeatureStructures(aCtxt, cas);
+      return cas;
+    } finally {
+      context.reset();
+    }
+  }
+
+  /**
+   * Installs the deserialization context for a new document.
+   */
+  static CasDeserializationContext begin(DeserializationContext aCtxt) {
+    CasDeserializationContext context = CasDeserializationContext.get(aCtxt);
+    if (context == null) {
+      context = new CasDeserializationContext();
+    }
+
+    context.install(aCtxt);
+    return context;
+  }
 
+  /**
+   * Reads the sections of the document object the parser is positioned on.
+   */
+  CAS readSections(JsonParser aParser, DeserializationContext aCtxt) throws IOException {
     boolean isFirst = true;
-    CAS cas = null;
+    CAS cas = getCas(aCtxt);
     TypeSystemDescription types = null;
 
     while (aParser.currentToken() != null) {
@@ -78,6 +111,10 @@ public class CasDeserializer extends CasDeserializer_ImplBase<CAS> {
             // feature structures if we find them.
             aParser.nextFieldName();
             break;
+          case ID_FIELD_NAME:
+            // The caller has already consumed the start of the object, e.g. to inspect the first
+            // field of a record in a batch.
+            break;
           default:
             throw new IOException("JSON must start with an object, array or string value, but was ["
                     + aParser.currentTokenId() + "]");
@@ -94,6 +131,15 @@ public class CasDeserializer extends CasDeserializer_ImplBase<CAS> {
           aParser.nextValue();
           Header header = aCtxt.readValue(aParser, Header.class);
           OffsetConversionMode.set(aCtxt, header.getOffsetEncoding());
+          OffsetConverterRegistry.get(aCtxt).reset(header.getOffsetEncoding());
+          ArrayEncodingMode.set(aCtxt, header.getArrayEncoding());
+          if (header.getTypeSystemHash() != null) {
+            if (cas == null) {
+              cas = createCasFromRegistry(aCtxt, header.getTypeSystemHash());
+            } else {
+              checkTypeSystemHash(cas, header.getTypeSystemHash());
+            }
+          }
           aParser.nextToken();
           break;
         }
@@ -104,24 +150,69 @@ public class CasDeserializer extends CasDeserializer_ImplBase<CAS> {
           cas = createCasOrGetFromContext(aCtxt, types);
           break;
         case VIEWS_FIELD:
+          skipToValue(aParser);
           aCtxt.readValue(aParser, Views.class);
           break;
         case FEATURE_STRUCTURES_FIELD:
+          skipToValue(aParser);
           aCtxt.readValue(aParser, FeatureStructures.class);
           break;
       }
     }
 
-    // Index FS in the respective views
+    return cas;
+  }
+
+  /**
+   * Adds the feature structures to the indexes of the views which they were in.
+   */
+  static void indexFeatureStructures(DeserializationContext aCtxt, CAS aCas) {
     FeatureStructureIdToViewIndex fsIdToViewIndex = FeatureStructureIdToViewIndex.get(aCtxt);
-    for (Entry<Integer, FeatureStructure> fsEntry : FeatureStructureToIdIndex.get(aCtxt)
-            .getAllFeatureStructures()) {
-      for (String viewName : fsIdToViewIndex.getViewsContainingFs(fsEntry.getKey())) {
-        cas.getView(viewName).addFsToIndexes(fsEntry.getValue());
+    FeatureStructureToIdIndex.get(aCtxt).forEach((fs, fsId) -> {
+      for (String viewName : fsIdToViewIndex.getViewsContainingFs(fsId)) {
+        aCas.getView(viewName).addFsToIndexes(fs);
       }
+    });
+  }
+
+  /**
+   * Moves from a field name to its value. Depending on the preceding section, the parser may
+   * already be positioned on the value, e.g. if there is no {@code %TYPES} section.
+   */
+  private void skipToValue(JsonParser aParser) throws IOException {
+    if (aParser.currentToken() == JsonToken.FIELD_NAME) {
+      aParser.nextToken();
     }
+  }
 
-    return cas;
+  private void checkTypeSystemHash(CAS aCas, String aTypeSystemHash) throws IOException {
+    TypeSystemHash cached = cachedHash;
+    TypeSystemHash hash = TypeSystemHash.forTypeSystem(cached, aCas.getTypeSystem());
+    if (hash != cached) {
+      cachedHash = hash;
+    }
+
+    if (!hash.getValue().equals(aTypeSystemHash)) {
+      throw new IOException("Document requires type system [" + aTypeSystemHash
+              + "] but the target CAS has type system [" + hash.getValue() + "]");
+    }
+  }
+
+  private CAS createCasFromRegistry(DeserializationContext aCtxt, String aTypeSystemHash)
+          throws IOException {
+    TypeSystemRegistry registry = TypeSystemRegistry.get(aCtxt);
+    TypeSystem ts = registry != null ? registry.get(aTypeSystemHash) : null;
+    if (ts == null) {
+      throw new IOException("Unknown type system [" + aTypeSystemHash + "]");
+    }
+
+    try {
+      CAS cas = CasCreationUtils.createCas(ts, null, null, null);
+      aCtxt.setAttribute(CONTEXT_CAS, cas);
+      return cas;
+    } catch (ResourceInitializationException e) {
+      throw new IOException(e);
+    }
   }
 
   private CAS createCasOrGetFromContext(DeserializationContext aCtxt, TypeSystemDescription aTypes)
@@ -25,6 +25,8 @@ import java.util.Set;
 
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.CASRuntimeException;
+import org.apache.uima.json.jsoncas2.ref.FeatureStructureToIdIndex;
+import org.apache.uima.json.jsoncas2.ref.ReferenceFixupTable;
 
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
@@ -55,7 +57,21 @@ public abstract class CasDeserializer_ImplBase<T> extends StdDeserializer<T> {
     postProcessors.add(aAction);
   }
 
+  protected ReferenceFixupTable getReferenceFixups(DeserializationContext aCtxt) {
+    ReferenceFixupTable fixups = ReferenceFixupTable.get(aCtxt);
+    if (fixups == null) {
+      fixups = new ReferenceFixupTable();
+      ReferenceFixupTable.set(aCtxt, fixups);
+    }
+    return fixups;
+  }
+
   protected void runPostprocessors(DeserializationContext aCtxt) {
+    ReferenceFixupTable fixups = ReferenceFixupTable.get(aCtxt);
+    if (fixups != null) {
+      fixups.resolve(FeatureStructureToIdIndex.get(aCtxt));
+    }
+
     List<Runnable> postProcessors = (List<Runnable>) aCtxt.getAttribute(CONTEXT_POST_PROCESSORS);
     if (postProcessors != null) {
       postProcessors.forEach(Runnable::run);
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ser;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.json.jsoncas2.mode.OffsetConversionMode;
+import org.apache.uima.json.jsoncas2.model.FeatureStructures;
+import org.apache.uima.json.jsoncas2.ref.FeatureStructureToViewIndex;
+import org.apache.uima.json.jsoncas2.ref.ReferenceCache;
+
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Per-document state of the {@link CasSerializer} which can be kept and re-used across multiple
+ * serializations instead of being allocated anew for every CAS. The context is reset when a
+ * serialization has completed, so it does not keep the serialized CAS reachable. It is not
+ * thread-safe and should be pooled per thread or per worker.
+ */
+public class CasSerializationContext {
+  public static final String KEY = "UIMA.CasSerializationContext";
+
+  /**
+   * Attribute telling the {@link CasSerializer} not to reset the context after the serialization
+   * because the caller still needs it and resets it itself.
+   */
+  public static final String RESET_DEFERRED_KEY = "UIMA.CasSerializationContext.ResetDeferred";
+
+  private final ReferenceCache referenceCache;
+  private final FeatureStructureToViewIndex fsToViewIndex;
+  private final Set<FeatureStructure> fsBuffer;
+  private final OffsetConverterRegistry offsetConverters;
+  private final BinaryArrayBuffer binaryArrayBuffer;
+
+  public CasSerializationContext(ReferenceCache aReferenceCache) {
+    referenceCache = aReferenceCache;
+    fsToViewIndex = new FeatureStructureToViewIndex(null);
+    fsBuffer = new LinkedHashSet<>();
+    offsetConverters = new OffsetConverterRegistry();
+    binaryArrayBuffer = new BinaryArrayBuffer();
+  }
+
+  public ReferenceCache getReferenceCache() {
+    return referenceCache;
+  }
+
+  FeatureStructureToViewIndex getFeatureStructureToViewIndex(FeatureStructures aAllFSes) {
+    fsToViewIndex.reset(aAllFSes);
+    return fsToViewIndex;
+  }
+
+  OffsetConverterRegistry getOffsetConverterRegistry(OffsetConversionMode aMode) {
+    offsetConverters.reset(aMode);
+    return offsetConverters;
+  }
+
+  BinaryArrayBuffer getBinaryArrayBuffer() {
+    return binaryArrayBuffer;
+  }
+
+  Set<FeatureStructure> getFeatureStructureBuffer() {
+    fsBuffer.clear();
+    return fsBuffer;
+  }
+
+  /**
+   * Clears the state left over from the previous document.
+   */
+  public void reset() {
+    referenceCache.reset();
+    fsBuffer.clear();
+    fsToViewIndex.reset(null);
+    offsetConverters.reset(null);
+  }
+
+  /**
+   * Binds the context to a single call of the given writer. The context is passed as a per-call
+   * attribute, so the shared attributes of the writer are not copied. Since writers are immutable,
+   * the writer itself is still copied shallowly.
+   * 
+   * @param aWriter
+   *          the writer.
+   * @param aContext
+   *          the context.
+   * @return a writer which uses the given context.
+   */
+  public static ObjectWriter bind(ObjectWriter aWriter, CasSerializationContext aContext) {
+    return aWriter.with(aWriter.getConfig().getAttributes().withPerCallAttribute(KEY, aContext));
+  }
+
+  public static void set(DatabindContext aProvider, CasSerializationContext aContext) {
+    aProvider.setAttribute(KEY, aContext);
+  }
+
+  public static CasSerializationContext get(DatabindContext aProvider) {
+    return (CasSerializationContext) aProvider.getAttribute(KEY);
+  }
+
+  public static boolean isResetDeferred(DatabindContext aProvider) {
+    return Boolean.TRUE.equals(aProvider.getAttribute(RESET_DEFERRED_KEY));
+  }
+}
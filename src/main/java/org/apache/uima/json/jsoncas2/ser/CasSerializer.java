@@ -24,7 +24,6 @@ import static org.apache.uima.json.jsoncas2.JsonCas2Names.TYPES_FIELD;
 import static org.apache.uima.json.jsoncas2.JsonCas2Names.VIEWS_FIELD;
 
 import java.io.IOException;
-import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.function.Supplier;
 
@@ -32,6 +31,7 @@ import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.FeatureStructure;
 import org.apache.uima.cas.impl.CASImpl;
 import org.apache.uima.json.jsoncas2.mode.OffsetConversionMode;
+import org.apache.uima.json.jsoncas2.mode.StreamingMode;
 import org.apache.uima.json.jsoncas2.mode.TypeSystemMode;
 import org.apache.uima.json.jsoncas2.model.FeatureStructures;
 import org.apache.uima.json.jsoncas2.model.Header;
@@ -48,6 +48,8 @@ public class CasSerializer extends StdSerializer<CAS> {
 
   private final Supplier<ReferenceCache> refCacheSupplier;
 
+  private transient volatile TypeSystemHash cachedTypeSystemHash;
+
   public CasSerializer() {
     this(ReferenceCache.builder()::build);
   }
@@ -60,29 +62,49 @@ public class CasSerializer extends StdSerializer<CAS> {
   @Override
   public void serialize(CAS aCas, JsonGenerator aJg, SerializerProvider aProvider)
           throws IOException {
-    ReferenceCache.set(aProvider, refCacheSupplier.get());
+    CasSerializationContext context = CasSerializationContext.get(aProvider);
+    if (context == null) {
+      context = new CasSerializationContext(refCacheSupplier.get());
+      CasSerializationContext.set(aProvider, context);
+    }
+
+    try {
+      ReferenceCache.set(aProvider, context.getReferenceCache());
+      BinaryArrayBuffer.set(aProvider, context.getBinaryArrayBuffer());
 
-    initOffsetConversion(aCas, aProvider);
+      OffsetConverterRegistry.set(aProvider,
+              context.getOffsetConverterRegistry(OffsetConversionMode.get(aProvider)));
 
-    aJg.writeStartObject(aCas);
+      aJg.writeStartObject(aCas);
 
-    serializeHeader(aCas, aJg, aProvider);
+      serializeHeader(aCas, aJg, aProvider);
 
-    FeatureStructures allFSes = findAllFeatureStructures(aCas);
-    FeatureStructures.set(aProvider, allFSes);
+      FeatureStructures allFSes = findAllFeatureStructures(aCas, context, aProvider);
+      FeatureStructures.set(aProvider, allFSes);
 
-    serializeTypes(aCas, aJg, aProvider);
+      serializeTypes(aCas, aJg, aProvider);
 
-    serializeFeatureStructures(allFSes, aJg, aProvider);
+      serializeFeatureStructures(allFSes, context, aJg, aProvider);
 
-    serializeViews(aCas, aJg, aProvider);
+      serializeViews(aCas, aJg, aProvider);
 
-    aJg.writeEndObject();
+      aJg.writeEndObject();
+    } finally {
+      if (!CasSerializationContext.isResetDeferred(aProvider)) {
+        context.reset();
+      }
+    }
   }
 
   private void serializeHeader(CAS aCas, JsonGenerator aJg, SerializerProvider aProvider)
           throws IOException {
     Header header = new Header(aProvider);
+    if (TypeSystemMode.get(aProvider) == TypeSystemMode.HASH) {
+      TypeSystemHash hash = TypeSystemHash.forTypeSystem(cachedTypeSystemHash,
+              aCas.getTypeSystem());
+      cachedTypeSystemHash = hash;
+      header.setTypeSystemHash(hash.getValue());
+    }
     if (header.requiresSerialization()) {
       aJg.writeFieldName(HEADER_FIELD);
       aProvider.defaultSerializeValue(header, aJg);
@@ -91,15 +113,17 @@ public class CasSerializer extends StdSerializer<CAS> {
 
   private void serializeTypes(CAS aCas, JsonGenerator aJg, SerializerProvider aProvider)
           throws IOException {
-    if (TypeSystemMode.get(aProvider) != TypeSystemMode.NONE) {
+    TypeSystemMode mode = TypeSystemMode.get(aProvider);
+    if (mode != TypeSystemMode.NONE && mode != TypeSystemMode.HASH) {
       aJg.writeFieldName(TYPES_FIELD);
       aProvider.defaultSerializeValue(aCas.getTypeSystem(), aJg);
     }
   }
 
-  private void serializeFeatureStructures(FeatureStructures aAllFSes, JsonGenerator aJg, SerializerProvider aProvider)
+  private void serializeFeatureStructures(FeatureStructures aAllFSes,
+          CasSerializationContext aContext, JsonGenerator aJg, SerializerProvider aProvider)
           throws IOException {
-    FeatureStructureToViewIndex.set(aProvider, new FeatureStructureToViewIndex(aAllFSes));
+    FeatureStructureToViewIndex.set(aProvider, aContext.getFeatureStructureToViewIndex(aAllFSes));
     if (!aAllFSes.isEmpty()) {
       aJg.writeFieldName(FEATURE_STRUCTURES_FIELD);
       aProvider.defaultSerializeValue(aAllFSes, aJg);
@@ -115,14 +139,13 @@ public class CasSerializer extends StdSerializer<CAS> {
     }
   }
 
-  private void initOffsetConversion(CAS aCas, SerializerProvider aProvider) {
-    for (CAS view : new Views(aCas)) {
-      OffsetConversionMode.initConverter(aProvider, view.getViewName(), view.getDocumentText());
+  private FeatureStructures findAllFeatureStructures(CAS aCas, CasSerializationContext aContext,
+          SerializerProvider aProvider) {
+    if (StreamingMode.get(aProvider) == StreamingMode.STREAMING) {
+      return FeatureStructures.streaming(aCas);
     }
-  }
 
-  private FeatureStructures findAllFeatureStructures(CAS aCas) {
-    Set<FeatureStructure> allFSes = new LinkedHashSet<>();
+    Set<FeatureStructure> allFSes = aContext.getFeatureStructureBuffer();
     ((CASImpl) aCas).walkReachablePlusFSsSorted(allFSes::add, null, null, null);
     return new FeatureStructures(allFSes);
   }
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Output which records what is written to it as a sequence of segments, so that it can be read
+ * back in chunks. In the {@link org.apache.uima.json.jsoncas2.mode.StreamingMode#BUFFERED buffered}
+ * array layout of compact JSON, the feature structures are not written right away, but in chunks
+ * only once the consumer reads them. This way, only a small part of the feature structures is held
+ * in memory at any time.
+ * <p>
+ * The serialization state is kept until all segments have been read or the output is
+ * {@link #release() released}. The CAS must not be modified in the meantime.
+ */
+public class ChunkedOutput extends OutputStream {
+  private final Deque<Segment> segments = new ArrayDeque<>();
+  private final List<Runnable> releaseActions = new ArrayList<>();
+  private ByteArrayOutputStream literal = new ByteArrayOutputStream();
+
+  @Override
+  public void write(int aByte) {
+    literal.write(aByte);
+  }
+
+  @Override
+  public void write(byte[] aBytes, int aOffset, int aLength) {
+    literal.write(aBytes, aOffset, aLength);
+  }
+
+  /**
+   * Adds a segment which is only written once it is read.
+   */
+  void defer(Segment aSegment) {
+    endLiteral();
+    segments.add(aSegment);
+  }
+
+  /**
+   * Registers an action which releases the serialization state once all segments have been read.
+   */
+  public void onRelease(Runnable aAction) {
+    releaseActions.add(aAction);
+  }
+
+  private void endLiteral() {
+    if (literal.size() > 0) {
+      byte[] bytes = literal.toByteArray();
+      segments.add(() -> bytes);
+      literal = new ByteArrayOutputStream();
+    }
+  }
+
+  /**
+   * @return the next segment or {@code null} if all segments have been read.
+   * @throws IOException
+   *           if the segment could not be written.
+   */
+  public byte[] next() throws IOException {
+    endLiteral();
+    Segment segment = segments.poll();
+    if (segment == null) {
+      release();
+      return null;
+    }
+    return segment.write();
+  }
+
+  /**
+   * Discards the remaining segments and releases the serialization state.
+   */
+  public void release() {
+    segments.clear();
+    literal.reset();
+    releaseActions.forEach(Runnable::run);
+    releaseActions.clear();
+  }
+
+  @FunctionalInterface
+  interface Segment {
+    byte[] write() throws IOException;
+  }
+}
@@ -18,7 +18,7 @@
  */
 package org.apache.uima.json.jsoncas2.ser;
 
-import static org.apache.uima.json.jsoncas2.JsonCas2Names.ELEMENTS_FIELD;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.ELEMENTS_FIELD_SERIALIZED;
 
 import java.io.IOException;
 
@@ -34,6 +34,7 @@ import org.apache.uima.cas.LongArrayFS;
 import org.apache.uima.cas.ShortArrayFS;
 import org.apache.uima.cas.StringArrayFS;
 import org.apache.uima.jcas.cas.FSArray;
+import org.apache.uima.json.jsoncas2.mode.ArrayEncodingMode;
 import org.apache.uima.json.jsoncas2.ref.ReferenceCache;
 
 import com.fasterxml.jackson.core.JsonGenerator;
@@ -51,7 +52,13 @@ public class CommonArrayFSSerializer extends FeatureStructureSerializer_ImplBase
   @Override
   protected void writeBody(SerializerProvider aProvider, JsonGenerator aJg, FeatureStructure aFs)
           throws IOException {
-    aJg.writeFieldName(ELEMENTS_FIELD);
+    aJg.writeFieldName(ELEMENTS_FIELD_SERIALIZED);
+
+    if (ArrayEncodingMode.get(aProvider) == ArrayEncodingMode.BASE64
+            && writeBinaryIfNumeric(aProvider, aJg, aFs)) {
+      return;
+    }
+
     switch (aFs.getType().getName()) {
       case CAS.TYPE_NAME_BOOLEAN_ARRAY: {
         aJg.writeStartArray();
@@ -116,4 +123,39 @@ public class CommonArrayFSSerializer extends FeatureStructureSerializer_ImplBase
       }
     }
   }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  protected void prepareBody(SerializerProvider aProvider, FeatureStructure aFs) {
+    if (aFs instanceof FSArray) {
+      ReferenceCache refCache = ReferenceCache.get(aProvider);
+      for (FeatureStructure fs : ((FSArray<FeatureStructure>) aFs)) {
+        refCache.fsRef(fs);
+      }
+    }
+  }
+
+  private boolean writeBinaryIfNumeric(SerializerProvider aProvider, JsonGenerator aJg,
+          FeatureStructure aFs)
+          throws IOException {
+    switch (aFs.getType().getName()) {
+      case CAS.TYPE_NAME_DOUBLE_ARRAY:
+        BinaryArrayBuffer.get(aProvider).write(aJg, (DoubleArrayFS) aFs);
+        return true;
+      case CAS.TYPE_NAME_FLOAT_ARRAY:
+        BinaryArrayBuffer.get(aProvider).write(aJg, (FloatArrayFS) aFs);
+        return true;
+      case CAS.TYPE_NAME_INTEGER_ARRAY:
+        BinaryArrayBuffer.get(aProvider).write(aJg, (IntArrayFS) aFs);
+        return true;
+      case CAS.TYPE_NAME_LONG_ARRAY:
+        BinaryArrayBuffer.get(aProvider).write(aJg, (LongArrayFS) aFs);
+        return true;
+      case CAS.TYPE_NAME_SHORT_ARRAY:
+        BinaryArrayBuffer.get(aProvider).write(aJg, (ShortArrayFS) aFs);
+        return true;
+      default:
+        return false;
+    }
+  }
 }
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ser;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Type;
+
+/**
+ * Primitive codes for the kind of value a feature holds. Used by the per-type read and write plans
+ * to avoid switching over range type names for every feature value.
+ */
+final class FeatureRangeKind {
+  static final int UNSUPPORTED = -1;
+  static final int REFERENCE = 0;
+  static final int STRING = 1;
+  static final int BOOLEAN = 2;
+  static final int BYTE = 3;
+  static final int DOUBLE = 4;
+  static final int FLOAT = 5;
+  static final int INTEGER = 6;
+  static final int LONG = 7;
+  static final int SHORT = 8;
+
+  private FeatureRangeKind() {
+    // No instances
+  }
+
+  static int of(Type aRange) {
+    if (!aRange.isPrimitive()) {
+      return REFERENCE;
+    }
+
+    if (aRange.isStringOrStringSubtype()) {
+      return STRING;
+    }
+
+    switch (aRange.getName()) {
+      case CAS.TYPE_NAME_BOOLEAN:
+        return BOOLEAN;
+      case CAS.TYPE_NAME_BYTE:
+        return BYTE;
+      case CAS.TYPE_NAME_DOUBLE:
+        return DOUBLE;
+      case CAS.TYPE_NAME_FLOAT:
+        return FLOAT;
+      case CAS.TYPE_NAME_INTEGER:
+        return INTEGER;
+      case CAS.TYPE_NAME_LONG:
+        return LONG;
+      case CAS.TYPE_NAME_SHORT:
+        return SHORT;
+      default:
+        return UNSUPPORTED;
+    }
+  }
+}
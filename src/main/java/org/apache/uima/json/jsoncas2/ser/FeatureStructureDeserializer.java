@@ -19,8 +19,10 @@
 package org.apache.uima.json.jsoncas2.ser;
 
 import static com.fasterxml.jackson.core.JsonToken.END_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
 import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
 import static java.lang.Integer.MIN_VALUE;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static org.apache.uima.cas.CAS.FEATURE_BASE_NAME_SOFAARRAY;
 import static org.apache.uima.cas.CAS.FEATURE_BASE_NAME_SOFAID;
 import static org.apache.uima.cas.CAS.FEATURE_BASE_NAME_SOFAMIME;
@@ -28,39 +30,36 @@ import static org.apache.uima.cas.CAS.FEATURE_BASE_NAME_SOFANUM;
 import static org.apache.uima.cas.CAS.FEATURE_BASE_NAME_SOFASTRING;
 import static org.apache.uima.cas.CAS.FEATURE_BASE_NAME_SOFAURI;
 import static org.apache.uima.cas.CAS.TYPE_NAME_BOOLEAN_ARRAY;
-import static org.apache.uima.cas.CAS.TYPE_NAME_BYTE;
 import static org.apache.uima.cas.CAS.TYPE_NAME_BYTE_ARRAY;
 import static org.apache.uima.cas.CAS.TYPE_NAME_DOCUMENT_ANNOTATION;
-import static org.apache.uima.cas.CAS.TYPE_NAME_DOUBLE;
 import static org.apache.uima.cas.CAS.TYPE_NAME_DOUBLE_ARRAY;
-import static org.apache.uima.cas.CAS.TYPE_NAME_FLOAT;
 import static org.apache.uima.cas.CAS.TYPE_NAME_FLOAT_ARRAY;
-import static org.apache.uima.cas.CAS.TYPE_NAME_INTEGER;
 import static org.apache.uima.cas.CAS.TYPE_NAME_INTEGER_ARRAY;
-import static org.apache.uima.cas.CAS.TYPE_NAME_LONG;
 import static org.apache.uima.cas.CAS.TYPE_NAME_LONG_ARRAY;
-import static org.apache.uima.cas.CAS.TYPE_NAME_SHORT;
 import static org.apache.uima.cas.CAS.TYPE_NAME_SHORT_ARRAY;
 import static org.apache.uima.cas.CAS.TYPE_NAME_SOFA;
 import static org.apache.uima.cas.CAS.TYPE_NAME_STRING_ARRAY;
-import static org.apache.uima.json.jsoncas2.JsonCas2Names.ANCHOR_FEATURE_PREFIX;
 import static org.apache.uima.json.jsoncas2.JsonCas2Names.ID_FIELD;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.ID_FIELD_SERIALIZED;
 import static org.apache.uima.json.jsoncas2.JsonCas2Names.NUMBER_FLOAT_NAN;
 import static org.apache.uima.json.jsoncas2.JsonCas2Names.NUMBER_FLOAT_NEGATIVE_INFINITY;
 import static org.apache.uima.json.jsoncas2.JsonCas2Names.NUMBER_FLOAT_NEGATIVE_INFINITY_ABBR;
 import static org.apache.uima.json.jsoncas2.JsonCas2Names.NUMBER_FLOAT_POSITIVE_INFINITY;
 import static org.apache.uima.json.jsoncas2.JsonCas2Names.NUMBER_FLOAT_POSITIVE_INFINITY_ABBR;
-import static org.apache.uima.json.jsoncas2.JsonCas2Names.NUMERIC_FEATURE_PREFIX;
 import static org.apache.uima.json.jsoncas2.JsonCas2Names.REF_FEATURE_PREFIX;
 import static org.apache.uima.json.jsoncas2.JsonCas2Names.RESERVED_FIELD_PREFIX;
 import static org.apache.uima.json.jsoncas2.JsonCas2Names.TYPE_FIELD;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.NoSuchElementException;
-import java.util.Optional;
 
 import org.apache.uima.cas.ArrayFS;
 import org.apache.uima.cas.BooleanArrayFS;
@@ -79,10 +78,18 @@ import org.apache.uima.cas.StringArrayFS;
 import org.apache.uima.cas.Type;
 import org.apache.uima.cas.TypeSystem;
 import org.apache.uima.cas.impl.CASImpl;
+import org.apache.uima.jcas.cas.DoubleArray;
+import org.apache.uima.jcas.cas.FloatArray;
+import org.apache.uima.jcas.cas.IntegerArray;
+import org.apache.uima.jcas.cas.LongArray;
+import org.apache.uima.jcas.cas.ShortArray;
 import org.apache.uima.jcas.cas.TOP;
 import org.apache.uima.jcas.tcas.Annotation;
-import org.apache.uima.json.jsoncas2.mode.OffsetConversionMode;
+import org.apache.uima.json.jsoncas2.encoding.OffsetConverter;
 import org.apache.uima.json.jsoncas2.ref.FeatureStructureToIdIndex;
+import org.apache.uima.json.jsoncas2.ref.ReferenceFixupTable;
+import org.apache.uima.json.jsoncas2.ser.TypeReadPlan.FieldReadPlan;
+import org.apache.uima.json.jsoncas2.ser.TypeReadPlan.FieldType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -97,9 +104,10 @@ public class FeatureStructureDeserializer extends CasDeserializer_ImplBase<Featu
 
   private final Logger log = LoggerFactory.getLogger(getClass());
 
-  private enum FieldType {
-    REGULAR, REFERENCE, NUMBER, ANCHOR
-  }
+  /**
+   * Read plans for the type system last seen by this deserializer.
+   */
+  private transient volatile TypePlans<TypeReadPlan> cachedPlans;
 
   public FeatureStructureDeserializer() {
     super(FeatureStructure.class);
@@ -123,7 +131,17 @@ public class FeatureStructureDeserializer extends CasDeserializer_ImplBase<Featu
     }
 
     FeatureStructure fs = null;
-    aParser.nextValue();
+    TypeReadPlan plan = null;
+    OffsetConverter offsetConverter = null;
+    // In array mode, the ID comes first and can be matched against its encoded form without
+    // decoding the field name
+    if (aParser.nextFieldName(ID_FIELD_SERIALIZED)) {
+      aParser.nextToken();
+      fsId = aParser.getIntValue();
+      aParser.nextValue();
+    } else if (aParser.currentToken() == FIELD_NAME) {
+      aParser.nextToken();
+    }
     while (aParser.currentToken() != END_OBJECT) {
       String fieldName = aParser.currentName();
 
@@ -143,7 +161,7 @@ public class FeatureStructureDeserializer extends CasDeserializer_ImplBase<Featu
 
             switch (typeName) {
               case TYPE_NAME_BOOLEAN_ARRAY:
-                fs = deserializeBooleanArray(aParser, cas);
+                fs = deserializeBooleanArray(aParser, cas, aCtxt);
                 FeatureStructureToIdIndex.get(aCtxt).put(fsId, fs);
                 continue;
               case TYPE_NAME_BYTE_ARRAY:
@@ -151,23 +169,23 @@ public class FeatureStructureDeserializer extends CasDeserializer_ImplBase<Featu
                 FeatureStructureToIdIndex.get(aCtxt).put(fsId, fs);
                 continue;
               case TYPE_NAME_DOUBLE_ARRAY:
-                fs = deserializeDoubleArray(aParser, cas);
+                fs = deserializeDoubleArray(aParser, cas, aCtxt);
                 FeatureStructureToIdIndex.get(aCtxt).put(fsId, fs);
                 continue;
               case TYPE_NAME_FLOAT_ARRAY:
-                fs = deserializeFloatArray(aParser, cas);
+                fs = deserializeFloatArray(aParser, cas, aCtxt);
                 FeatureStructureToIdIndex.get(aCtxt).put(fsId, fs);
                 continue;
               case TYPE_NAME_INTEGER_ARRAY:
-                fs = deserializeIntegerArray(aParser, cas);
+                fs = deserializeIntegerArray(aParser, cas, aCtxt);
                 FeatureStructureToIdIndex.get(aCtxt).put(fsId, fs);
                 continue;
               case TYPE_NAME_LONG_ARRAY:
-                fs = deserializeLongArray(aParser, cas);
+                fs = deserializeLongArray(aParser, cas, aCtxt);
                 FeatureStructureToIdIndex.get(aCtxt).put(fsId, fs);
                 continue;
               case TYPE_NAME_SHORT_ARRAY:
-                fs = deserializeShortArray(aParser, cas);
+                fs = deserializeShortArray(aParser, cas, aCtxt);
                 FeatureStructureToIdIndex.get(aCtxt).put(fsId, fs);
                 continue;
               case TYPE_NAME_STRING_ARRAY:
@@ -204,20 +222,17 @@ public class FeatureStructureDeserializer extends CasDeserializer_ImplBase<Featu
                 "Features must come after " + ID_FIELD + "" + TYPE_FIELD);
       }
 
-      FieldType fieldType = FieldType.REGULAR;
-      if (fieldName.startsWith(REF_FEATURE_PREFIX)) {
-        fieldName = fieldName.substring(REF_FEATURE_PREFIX.length());
-        fieldType = FieldType.REFERENCE;
-      } else if (fieldName.startsWith(NUMERIC_FEATURE_PREFIX)) {
-        fieldName = fieldName.substring(NUMERIC_FEATURE_PREFIX.length());
-        fieldType = FieldType.NUMBER;
-      } else if (fieldName.startsWith(ANCHOR_FEATURE_PREFIX)) {
-        fieldName = fieldName.substring(ANCHOR_FEATURE_PREFIX.length());
-        fieldType = FieldType.ANCHOR;
+      if (plan == null) {
+        plan = getReadPlan(fs.getType());
+      }
+
+      FieldReadPlan field = plan.field(fieldName);
+      if (field == null) {
+        throw new JsonParseException(aParser, "Type [" + fs.getType().getName()
+                + "] has no feature matching field [" + fieldName + "]");
       }
 
-      if (CAS.FEATURE_FULL_NAME_SOFA
-              .equals(fs.getType().getFeatureByBaseName(fieldName).getName())) {
+      if (field.sofaFeature) {
         // Ignore the SofA feature of AnnotationBase-derived types - this feature cannot be set
         // manually - this happens (hopefully) when adding the AnnotationBase FS to the indexes of
         // the particular SofA.
@@ -225,13 +240,17 @@ public class FeatureStructureDeserializer extends CasDeserializer_ImplBase<Featu
         continue;
       }
 
-      if (fieldType == FieldType.REFERENCE) {
-        deserializeFsReference(aParser, aCtxt, fs, fieldName);
+      if (field.fieldType == FieldType.REFERENCE) {
+        deserializeFsReference(aParser, aCtxt, fs, field.feature);
         aParser.nextValue();
         continue;
       }
 
-      deserializePrimitive(aParser, aCtxt, fs, fieldName, fieldType);
+      if (field.offsetFeature && offsetConverter == null && fs instanceof Annotation) {
+        offsetConverter = OffsetConverterRegistry.get(aCtxt).forSofa(((Annotation) fs).getSofa());
+      }
+
+      deserializePrimitive(aParser, offsetConverter, fs, field);
       aParser.nextValue();
     }
 
@@ -244,6 +263,16 @@ public class FeatureStructureDeserializer extends CasDeserializer_ImplBase<Featu
     return fs;
   }
 
+  private TypeReadPlan getReadPlan(Type aType) {
+    TypePlans<TypeReadPlan> cached = cachedPlans;
+    TypePlans<TypeReadPlan> plans = TypePlans.forTypeSystemOf(cached, aType,
+            TypeReadPlan::compile);
+    if (plans != cached) {
+      cachedPlans = plans;
+    }
+    return plans.forType(aType);
+  }
+
   private FeatureStructure createFS(JsonParser aParser, DeserializationContext aCtxt, int aFsId,
           CAS aCas) throws IOException {
     String typeName = aParser.getValueAsString();
@@ -355,7 +384,6 @@ public class FeatureStructureDeserializer extends CasDeserializer_ImplBase<Featu
       view.setSofaDataURI(sofaURI, mimeType);
     } else if (sofaString != null) {
       view.setSofaDataString(sofaString, mimeType);
-      OffsetConversionMode.initConverter(aCtxt, sofaID, sofaString);
     } else if (sofaArray != null) {
       view.setSofaDataArray(sofaArray, mimeType);
     }
@@ -368,19 +396,23 @@ public class FeatureStructureDeserializer extends CasDeserializer_ImplBase<Featu
     return ((CASImpl) view).getSofaRef();
   }
 
-  private BooleanArrayFS deserializeBooleanArray(JsonParser aParser, CAS aCas) throws IOException {
+  private BooleanArrayFS deserializeBooleanArray(JsonParser aParser, CAS aCas,
+          DeserializationContext aCtxt) throws IOException {
     // Skip array opening and go to first value (or end of array if there is no value)
     aParser.nextValue();
     aParser.nextValue();
-    List<Boolean> values = new ArrayList<>();
+    PrimitiveArrayBuffers buffers = PrimitiveArrayBuffers.get(aCtxt);
+    boolean[] values = buffers.booleans(0);
+    int size = 0;
     while (aParser.currentToken() != JsonToken.END_ARRAY) {
-      values.add(aParser.getBooleanValue());
+      if (size == values.length) {
+        values = buffers.booleans(size + 1);
+      }
+      values[size++] = aParser.getBooleanValue();
       aParser.nextValue();
     }
-    BooleanArrayFS arrayFs = aCas.createBooleanArrayFS(values.size());
-    for (int i = 0; i < values.size(); i++) {
-      arrayFs.set(i, values.get(i));
-    }
+    BooleanArrayFS arrayFs = aCas.createBooleanArrayFS(size);
+    arrayFs.copyFromArray(values, 0, 0, size);
     return arrayFs;
   }
 
@@ -393,38 +425,82 @@ public class FeatureStructureDeserializer extends CasDeserializer_ImplBase<Featu
     return arrayFs;
   }
 
-  private DoubleArrayFS deserializeDoubleArray(JsonParser aParser, CAS aCas) throws IOException {
-    // Skip array opening and go to first value (or end of array if there is no value)
+  private DoubleArrayFS deserializeDoubleArray(JsonParser aParser, CAS aCas,
+          DeserializationContext aCtxt) throws IOException {
     aParser.nextValue();
+    if (isBinaryValue(aParser)) {
+      // Base64-encoded little-endian elements (ArrayEncodingMode.BASE64)
+      DoubleBuffer elements = readBinaryElements(aParser, Double.BYTES).asDoubleBuffer();
+      // Decode straight into the new array instead of going through a scratch buffer
+      DoubleArray arrayFs = (DoubleArray) aCas.createDoubleArrayFS(elements.remaining());
+      elements.get(arrayFs._getTheArray());
+      aParser.nextToken();
+      return arrayFs;
+    }
+
+    // Go to first value (or end of array if there is no value)
     aParser.nextValue();
-    List<Double> values = new ArrayList<>();
+    PrimitiveArrayBuffers buffers = PrimitiveArrayBuffers.get(aCtxt);
+    double[] values = buffers.doubles(0);
+    int size = 0;
     while (aParser.currentToken() != JsonToken.END_ARRAY) {
-      values.add(readDoubleValue(aParser));
+      if (size == values.length) {
+        values = buffers.doubles(size + 1);
+      }
+      values[size++] = readDoubleValue(aParser);
       aParser.nextValue();
     }
-    DoubleArrayFS arrayFs = aCas.createDoubleArrayFS(values.size());
-    for (int i = 0; i < values.size(); i++) {
-      arrayFs.set(i, values.get(i));
-    }
+    DoubleArrayFS arrayFs = aCas.createDoubleArrayFS(size);
+    arrayFs.copyFromArray(values, 0, 0, size);
     return arrayFs;
   }
 
-  private FloatArrayFS deserializeFloatArray(JsonParser aParser, CAS aCas) throws IOException {
-    // Skip array opening and go to first value (or end of array if there is no value)
+  private FloatArrayFS deserializeFloatArray(JsonParser aParser, CAS aCas,
+          DeserializationContext aCtxt) throws IOException {
     aParser.nextValue();
+    if (isBinaryValue(aParser)) {
+      // Base64-encoded little-endian elements (ArrayEncodingMode.BASE64)
+      FloatBuffer elements = readBinaryElements(aParser, Float.BYTES).asFloatBuffer();
+      FloatArray arrayFs = (FloatArray) aCas.createFloatArrayFS(elements.remaining());
+      elements.get(arrayFs._getTheArray());
+      aParser.nextToken();
+      return arrayFs;
+    }
+
+    // Go to first value (or end of array if there is no value)
     aParser.nextValue();
-    List<Float> values = new ArrayList<>();
+    PrimitiveArrayBuffers buffers = PrimitiveArrayBuffers.get(aCtxt);
+    float[] values = buffers.floats(0);
+    int size = 0;
     while (aParser.currentToken() != JsonToken.END_ARRAY) {
-      values.add((float) readDoubleValue(aParser));
+      if (size == values.length) {
+        values = buffers.floats(size + 1);
+      }
+      values[size++] = (float) readDoubleValue(aParser);
       aParser.nextValue();
     }
-    FloatArrayFS arrayFs = aCas.createFloatArrayFS(values.size());
-    for (int i = 0; i < values.size(); i++) {
-      arrayFs.set(i, values.get(i));
-    }
+    FloatArrayFS arrayFs = aCas.createFloatArrayFS(size);
+    arrayFs.copyFromArray(values, 0, 0, size);
     return arrayFs;
   }
 
+  /**
+   * Binary values are Base64-encoded strings in JSON, but native values in binary formats.
+   */
+  private boolean isBinaryValue(JsonParser aParser) {
+    return aParser.currentToken() == JsonToken.VALUE_STRING
+            || aParser.currentToken() == JsonToken.VALUE_EMBEDDED_OBJECT;
+  }
+
+  private ByteBuffer readBinaryElements(JsonParser aParser, int aElementSize) throws IOException {
+    byte[] bytes = aParser.getBinaryValue();
+    if (bytes.length % aElementSize != 0) {
+      throw new JsonParseException(aParser, "Binary array data of " + bytes.length
+              + " bytes is not a multiple of the element size " + aElementSize);
+    }
+    return ByteBuffer.wrap(bytes).order(LITTLE_ENDIAN);
+  }
+
   private double readDoubleValue(JsonParser aParser) throws IOException {
     if (aParser.currentToken() == JsonToken.VALUE_NUMBER_FLOAT) {
       return aParser.getDoubleValue();
@@ -453,51 +529,90 @@ public class FeatureStructureDeserializer extends CasDeserializer_ImplBase<Featu
                     + "]");
   }
 
-  private IntArrayFS deserializeIntegerArray(JsonParser aParser, CAS aCas) throws IOException {
-    // Skip array opening and go to first value (or end of array if there is no value)
+  private IntArrayFS deserializeIntegerArray(JsonParser aParser, CAS aCas,
+          DeserializationContext aCtxt) throws IOException {
     aParser.nextValue();
+    if (isBinaryValue(aParser)) {
+      // Base64-encoded little-endian elements (ArrayEncodingMode.BASE64)
+      IntBuffer elements = readBinaryElements(aParser, Integer.BYTES).asIntBuffer();
+      IntegerArray arrayFs = (IntegerArray) aCas.createIntArrayFS(elements.remaining());
+      elements.get(arrayFs._getTheArray());
+      aParser.nextToken();
+      return arrayFs;
+    }
+
+    // Go to first value (or end of array if there is no value)
     aParser.nextValue();
-    List<Integer> values = new ArrayList<>();
+    PrimitiveArrayBuffers buffers = PrimitiveArrayBuffers.get(aCtxt);
+    int[] values = buffers.ints(0);
+    int size = 0;
     while (aParser.currentToken() != JsonToken.END_ARRAY) {
-      values.add(aParser.getIntValue());
+      if (size == values.length) {
+        values = buffers.ints(size + 1);
+      }
+      values[size++] = aParser.getIntValue();
       aParser.nextValue();
     }
-    IntArrayFS arrayFs = aCas.createIntArrayFS(values.size());
-    for (int i = 0; i < values.size(); i++) {
-      arrayFs.set(i, values.get(i));
-    }
+    IntArrayFS arrayFs = aCas.createIntArrayFS(size);
+    arrayFs.copyFromArray(values, 0, 0, size);
     return arrayFs;
   }
 
-  private LongArrayFS deserializeLongArray(JsonParser aParser, CAS aCas) throws IOException {
-    // Skip array opening and go to first value (or end of array if there is no value)
+  private LongArrayFS deserializeLongArray(JsonParser aParser, CAS aCas,
+          DeserializationContext aCtxt) throws IOException {
     aParser.nextValue();
+    if (isBinaryValue(aParser)) {
+      // Base64-encoded little-endian elements (ArrayEncodingMode.BASE64)
+      LongBuffer elements = readBinaryElements(aParser, Long.BYTES).asLongBuffer();
+      LongArray arrayFs = (LongArray) aCas.createLongArrayFS(elements.remaining());
+      elements.get(arrayFs._getTheArray());
+      aParser.nextToken();
+      return arrayFs;
+    }
+
+    // Go to first value (or end of array if there is no value)
     aParser.nextValue();
-    List<Long> values = new ArrayList<>();
+    PrimitiveArrayBuffers buffers = PrimitiveArrayBuffers.get(aCtxt);
+    long[] values = buffers.longs(0);
+    int size = 0;
     while (aParser.currentToken() != JsonToken.END_ARRAY) {
-      values.add(aParser.getLongValue());
+      if (size == values.length) {
+        values = buffers.longs(size + 1);
+      }
+      values[size++] = aParser.getLongValue();
       aParser.nextValue();
     }
-    LongArrayFS arrayFs = aCas.createLongArrayFS(values.size());
-    for (int i = 0; i < values.size(); i++) {
-      arrayFs.set(i, values.get(i));
-    }
+    LongArrayFS arrayFs = aCas.createLongArrayFS(size);
+    arrayFs.copyFromArray(values, 0, 0, size);
     return arrayFs;
   }
 
-  private ShortArrayFS deserializeShortArray(JsonParser aParser, CAS aCas) throws IOException {
-    // Skip array opening and go to first value (or end of array if there is no value)
+  private ShortArrayFS deserializeShortArray(JsonParser aParser, CAS aCas,
+          DeserializationContext aCtxt) throws IOException {
     aParser.nextValue();
+    if (isBinaryValue(aParser)) {
+      // Base64-encoded little-endian elements (ArrayEncodingMode.BASE64)
+      ShortBuffer elements = readBinaryElements(aParser, Short.BYTES).asShortBuffer();
+      ShortArray arrayFs = (ShortArray) aCas.createShortArrayFS(elements.remaining());
+      elements.get(arrayFs._getTheArray());
+      aParser.nextToken();
+      return arrayFs;
+    }
+
+    // Go to first value (or end of array if there is no value)
     aParser.nextValue();
-    List<Short> values = new ArrayList<>();
+    PrimitiveArrayBuffers buffers = PrimitiveArrayBuffers.get(aCtxt);
+    short[] values = buffers.shorts(0);
+    int size = 0;
     while (aParser.currentToken() != JsonToken.END_ARRAY) {
-      values.add((short) aParser.getIntValue());
+      if (size == values.length) {
+        values = buffers.shorts(size + 1);
+      }
+      values[size++] = (short) aParser.getIntValue();
       aParser.nextValue();
     }
-    ShortArrayFS arrayFs = aCas.createShortArrayFS(values.size());
-    for (int i = 0; i < values.size(); i++) {
-      arrayFs.set(i, values.get(i));
-    }
+    ShortArrayFS arrayFs = aCas.createShortArrayFS(size);
+    arrayFs.copyFromArray(values, 0, 0, size);
     return arrayFs;
   }
 
@@ -524,40 +639,40 @@ public class FeatureStructureDeserializer extends CasDeserializer_ImplBase<Featu
     aParser.nextValue();
     // Go to first value if any or to end of array
     aParser.nextValue();
-    List<Integer> values = new ArrayList<>();
+    PrimitiveArrayBuffers buffers = PrimitiveArrayBuffers.get(aCtxt);
+    int[] values = buffers.ints(0);
+    int size = 0;
     while (aParser.currentToken() != JsonToken.END_ARRAY) {
-      values.add(aParser.getIntValue());
+      if (size == values.length) {
+        values = buffers.ints(size + 1);
+      }
+      values[size++] = aParser.getIntValue();
       aParser.nextValue();
     }
 
     @SuppressWarnings("unchecked")
-    ArrayFS<FeatureStructure> arrayFs = aCas.createArrayFS(values.size());
+    ArrayFS<FeatureStructure> arrayFs = aCas.createArrayFS(size);
     FeatureStructureToIdIndex idToFsIdx = FeatureStructureToIdIndex.get(aCtxt);
-    for (int i = 0; i < values.size(); i++) {
-      int targetFsId = values.get(i);
-      Optional<FeatureStructure> targetFs = idToFsIdx.get(targetFsId);
-      if (targetFs.isPresent()) {
-        arrayFs.set(i, targetFs.get());
+    ReferenceFixupTable fixups = null;
+    for (int i = 0; i < size; i++) {
+      int targetFsId = values[i];
+      FeatureStructure targetFs = idToFsIdx.getOrNull(targetFsId);
+      if (targetFs != null) {
+        arrayFs.set(i, targetFs);
       } else {
-        int finalIndex = i;
-        schedulePostprocessing(aCtxt, () -> {
-          arrayFs.set(finalIndex,
-                  idToFsIdx.get(targetFsId)
-                          .orElseThrow(() -> new NoSuchElementException("Unable to resolve ID ["
-                                  + targetFsId + "] during array post-processing")));
-        });
+        if (fixups == null) {
+          fixups = getReferenceFixups(aCtxt);
+        }
+        fixups.addArraySlotFixup(arrayFs, i, targetFsId);
       }
     }
     return arrayFs;
   }
 
-  private void deserializePrimitive(JsonParser aParser, DeserializationContext aCtxt,
-          FeatureStructure aFs, String aFeatureName, FieldType fieldType)
-          throws CASRuntimeException, IOException {
-    Feature feature = aFs.getType().getFeatureByBaseName(aFeatureName);
-
-    if (fieldType == FieldType.NUMBER) {
-      deserializeFloatingPointValue(aParser, aFs, feature);
+  private void deserializePrimitive(JsonParser aParser, OffsetConverter aOffsetConverter,
+          FeatureStructure aFs, FieldReadPlan aField) throws CASRuntimeException, IOException {
+    if (aField.fieldType == FieldType.NUMBER) {
+      deserializeFloatingPointValue(aParser, aFs, aField);
       return;
     }
 
@@ -567,16 +682,16 @@ public class FeatureStructureDeserializer extends CasDeserializer_ImplBase<Featu
         break;
       case VALUE_TRUE: // fall-through
       case VALUE_FALSE:
-        aFs.setBooleanValue(feature, aParser.getBooleanValue());
+        aFs.setBooleanValue(aField.feature, aParser.getBooleanValue());
         break;
       case VALUE_STRING:
-        aFs.setStringValue(feature, aParser.getValueAsString());
+        aFs.setStringValue(aField.feature, aParser.getValueAsString());
         break;
       case VALUE_NUMBER_FLOAT: // JSON does not distinguish between double and float
-        deserializeFloatingPointValue(aParser, aFs, feature);
+        deserializeFloatingPointValue(aParser, aFs, aField);
         break;
       case VALUE_NUMBER_INT:
-        deserializeIntegerValue(aParser, aCtxt, aFs, feature, fieldType);
+        deserializeIntegerValue(aParser, aOffsetConverter, aFs, aField);
         break;
       default:
         throw new JsonParseException(aParser,
@@ -586,73 +701,56 @@ public class FeatureStructureDeserializer extends CasDeserializer_ImplBase<Featu
   }
 
   private void deserializeFsReference(JsonParser aParser, DeserializationContext aCtxt,
-          FeatureStructure aFs, String aFieldName) throws IOException {
+          FeatureStructure aFs, Feature aFeature) throws IOException {
     FeatureStructureToIdIndex idToFsIdx = FeatureStructureToIdIndex.get(aCtxt);
     int targetFsId = aParser.getIntValue();
-    Optional<FeatureStructure> targetFs = idToFsIdx.get(targetFsId);
-    Feature feature = aFs.getType().getFeatureByBaseName(aFieldName);
-    if (targetFs.isPresent()) {
-      aFs.setFeatureValue(feature, targetFs.get());
+    FeatureStructure targetFs = idToFsIdx.getOrNull(targetFsId);
+    if (targetFs != null) {
+      aFs.setFeatureValue(aFeature, targetFs);
     } else {
-      FeatureStructure finalFs = aFs;
-      schedulePostprocessing(aCtxt, () -> {
-        finalFs.setFeatureValue(feature,
-                idToFsIdx.get(targetFsId).orElseThrow(() -> new NoSuchElementException(
-                        "Unable to resolve ID [" + targetFsId + "] during post-processing")));
-      });
+      getReferenceFixups(aCtxt).addFeatureFixup(aFs, aFeature, targetFsId);
     }
   }
 
   private void deserializeFloatingPointValue(JsonParser aParser, FeatureStructure aFs,
-          Feature aFeature) throws CASRuntimeException, IOException {
-    switch (aFeature.getRange().getName()) {
-      case TYPE_NAME_DOUBLE:
-        aFs.setDoubleValue(aFeature, readDoubleValue(aParser));
+          FieldReadPlan aField) throws CASRuntimeException, IOException {
+    switch (aField.rangeKind) {
+      case FeatureRangeKind.DOUBLE:
+        aFs.setDoubleValue(aField.feature, readDoubleValue(aParser));
         break;
-      case TYPE_NAME_FLOAT:
-        aFs.setFloatValue(aFeature, (float) readDoubleValue(aParser));
+      case FeatureRangeKind.FLOAT:
+        aFs.setFloatValue(aField.feature, (float) readDoubleValue(aParser));
         break;
       default:
-        throw new JsonParseException(aParser, "Feature of type " + aFeature.getRange().getName()
-                + " cannot be set from a JSON value of type " + aParser.currentToken());
+        throw new JsonParseException(aParser,
+                "Feature of type " + aField.feature.getRange().getName()
+                        + " cannot be set from a JSON value of type " + aParser.currentToken());
     }
   }
 
-  private void deserializeIntegerValue(JsonParser aParser, DeserializationContext aCtxt,
-          FeatureStructure aFs, Feature aFeature, FieldType fieldType)
-          throws CASRuntimeException, IOException {
-    switch (aFeature.getRange().getName()) {
-      case TYPE_NAME_BYTE:
-        aFs.setByteValue(aFeature, (byte) aParser.getValueAsInt());
+  private void deserializeIntegerValue(JsonParser aParser, OffsetConverter aOffsetConverter,
+          FeatureStructure aFs, FieldReadPlan aField) throws CASRuntimeException, IOException {
+    switch (aField.rangeKind) {
+      case FeatureRangeKind.BYTE:
+        aFs.setByteValue(aField.feature, (byte) aParser.getValueAsInt());
         break;
-      case TYPE_NAME_INTEGER:
+      case FeatureRangeKind.INTEGER:
         int value = aParser.getValueAsInt();
-        value = convertOffsetsIfNecessary(aCtxt, aFs, aFeature, value, fieldType);
-        aFs.setIntValue(aFeature, value);
+        if (aField.offsetFeature && aOffsetConverter != null) {
+          value = aOffsetConverter.mapExternal(value);
+        }
+        aFs.setIntValue(aField.feature, value);
         break;
-      case TYPE_NAME_LONG:
-        aFs.setLongValue(aFeature, aParser.getValueAsLong());
+      case FeatureRangeKind.LONG:
+        aFs.setLongValue(aField.feature, aParser.getValueAsLong());
         break;
-      case TYPE_NAME_SHORT:
-        aFs.setShortValue(aFeature, (short) aParser.getValueAsInt());
+      case FeatureRangeKind.SHORT:
+        aFs.setShortValue(aField.feature, (short) aParser.getValueAsInt());
         break;
       default:
-        throw new JsonParseException(aParser, "Feature of type " + aFeature.getRange().getName()
-                + " cannot be set from a JSON value of type " + aParser.currentToken());
-    }
-  }
-
-  private int convertOffsetsIfNecessary(DeserializationContext aCtxt, FeatureStructure aFs,
-          Feature aFeature, int aValue, FieldType fieldType) {
-    if (aFs instanceof Annotation && (CAS.FEATURE_FULL_NAME_BEGIN.equals(aFeature.getName())
-            || CAS.FEATURE_FULL_NAME_END.equals(aFeature.getName())
-            || fieldType == FieldType.ANCHOR)) {
-      Annotation ann = (Annotation) aFs;
-      return OffsetConversionMode.getConverter(aCtxt, ann.getSofa().getSofaID()) //
-              .map(conv -> conv.mapExternal(aValue)) //
-              .orElse(aValue);
+        throw new JsonParseException(aParser,
+                "Feature of type " + aField.feature.getRange().getName()
+                        + " cannot be set from a JSON value of type " + aParser.currentToken());
     }
-
-    return aValue;
   }
 }
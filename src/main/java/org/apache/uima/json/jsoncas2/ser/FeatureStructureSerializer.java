@@ -21,26 +21,39 @@ package org.apache.uima.json.jsoncas2.ser;
 import static org.apache.uima.json.jsoncas2.JsonCas2Names.NUMBER_FLOAT_NAN;
 import static org.apache.uima.json.jsoncas2.JsonCas2Names.NUMBER_FLOAT_NEGATIVE_INFINITY;
 import static org.apache.uima.json.jsoncas2.JsonCas2Names.NUMBER_FLOAT_POSITIVE_INFINITY;
-import static org.apache.uima.json.jsoncas2.JsonCas2Names.NUMERIC_FEATURE_PREFIX;
-import static org.apache.uima.json.jsoncas2.JsonCas2Names.REF_FEATURE_PREFIX;
+import static org.apache.uima.json.jsoncas2.ser.FeatureRangeKind.BOOLEAN;
+import static org.apache.uima.json.jsoncas2.ser.FeatureRangeKind.BYTE;
+import static org.apache.uima.json.jsoncas2.ser.FeatureRangeKind.DOUBLE;
+import static org.apache.uima.json.jsoncas2.ser.FeatureRangeKind.FLOAT;
+import static org.apache.uima.json.jsoncas2.ser.FeatureRangeKind.INTEGER;
+import static org.apache.uima.json.jsoncas2.ser.FeatureRangeKind.LONG;
+import static org.apache.uima.json.jsoncas2.ser.FeatureRangeKind.REFERENCE;
+import static org.apache.uima.json.jsoncas2.ser.FeatureRangeKind.SHORT;
+import static org.apache.uima.json.jsoncas2.ser.FeatureRangeKind.STRING;
 
 import java.io.IOException;
 
-import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.Feature;
 import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.Type;
 import org.apache.uima.jcas.tcas.Annotation;
-import org.apache.uima.json.jsoncas2.mode.OffsetConversionMode;
+import org.apache.uima.json.jsoncas2.encoding.OffsetConverter;
 import org.apache.uima.json.jsoncas2.ref.ReferenceCache;
+import org.apache.uima.json.jsoncas2.ser.TypeWritePlan.FeatureWritePlan;
 
 import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.databind.DatabindContext;
 import com.fasterxml.jackson.databind.SerializerProvider;
 
 public class FeatureStructureSerializer
         extends FeatureStructureSerializer_ImplBase<FeatureStructure> {
   private static final long serialVersionUID = -5346232657650250679L;
 
+  /**
+   * Write plans for the type system last seen by this serializer. Usually, all CASes serialized
+   * through the same mapper share a type system, so the plans only need to be compiled once.
+   */
+  private transient volatile TypePlans<TypeWritePlan> cachedPlans;
+
   public FeatureStructureSerializer() {
     super(FeatureStructure.class);
   }
@@ -53,86 +66,115 @@ public class FeatureStructureSerializer
   protected void writeBody(SerializerProvider aProvider, JsonGenerator aJg, FeatureStructure aFs)
           throws IOException {
     ReferenceCache refCache = ReferenceCache.get(aProvider);
-    for (Feature feature : aFs.getType().getFeatures()) {
-      writeFeature(aProvider, refCache, aJg, aFs, feature);
+    TypeWritePlan plan = getWritePlan(aFs.getType());
+    OffsetConverter offsetConverter = null;
+    if (plan.hasOffsetFeatures && aFs instanceof Annotation) {
+      offsetConverter = OffsetConverterRegistry.get(aProvider)
+              .forSofa(((Annotation) aFs).getSofa());
+    }
+    for (FeatureWritePlan feature : plan.features) {
+      writeFeature(refCache, offsetConverter, aJg, aFs, feature);
     }
   }
 
-  protected void writeFeature(SerializerProvider aProvider, ReferenceCache aRefCache,
-          JsonGenerator aJg, FeatureStructure aFs, Feature aFeature) throws IOException {
-    if (!aFeature.getRange().isPrimitive()) {
-      FeatureStructure target = aFs.getFeatureValue(aFeature);
-      if (target != null) {
-        aJg.writeNumberField(REF_FEATURE_PREFIX + aFeature.getShortName(),
-                aRefCache.fsRef(aFs.getFeatureValue(aFeature)));
-      }
-      return;
+  @Override
+  protected void prepareBody(SerializerProvider aProvider, FeatureStructure aFs) {
+    ReferenceCache refCache = ReferenceCache.get(aProvider);
+    TypeWritePlan plan = getWritePlan(aFs.getType());
+    if (plan.hasOffsetFeatures && aFs instanceof Annotation) {
+      OffsetConverterRegistry.get(aProvider).forSofa(((Annotation) aFs).getSofa());
     }
-
-    if (aFeature.getRange().isStringOrStringSubtype()) {
-      String value = aFs.getStringValue(aFeature);
-      if (value != null) {
-        aJg.writeStringField(aFeature.getShortName(), value);
+    for (FeatureWritePlan feature : plan.features) {
+      if (feature.rangeKind == REFERENCE) {
+        FeatureStructure target = aFs.getFeatureValue(feature.feature);
+        if (target != null) {
+          refCache.fsRef(target);
+        }
       }
+    }
+  }
 
-      return;
+  private TypeWritePlan getWritePlan(Type aType) {
+    TypePlans<TypeWritePlan> cached = cachedPlans;
+    TypePlans<TypeWritePlan> plans = TypePlans.forTypeSystemOf(cached, aType,
+            TypeWritePlan::compile);
+    if (plans != cached) {
+      cachedPlans = plans;
     }
+    return plans.forType(aType);
+  }
 
-    String rangeTypeName = aFeature.getRange().getName();
-    switch (rangeTypeName) {
-      case CAS.TYPE_NAME_BOOLEAN:
-        aJg.writeBooleanField(aFeature.getShortName(), aFs.getBooleanValue(aFeature));
+  private void writeFeature(ReferenceCache aRefCache, OffsetConverter aOffsetConverter,
+          JsonGenerator aJg, FeatureStructure aFs, FeatureWritePlan aPlan) throws IOException {
+    Feature feature = aPlan.feature;
+    switch (aPlan.rangeKind) {
+      case REFERENCE: {
+        FeatureStructure target = aFs.getFeatureValue(feature);
+        if (target != null) {
+          aJg.writeFieldName(aPlan.fieldName);
+          aJg.writeNumber(aRefCache.fsRef(target));
+        }
         break;
-      case CAS.TYPE_NAME_BYTE:
-        aJg.writeNumberField(aFeature.getShortName(), aFs.getByteValue(aFeature));
+      }
+      case STRING: {
+        String value = aFs.getStringValue(feature);
+        if (value != null) {
+          aJg.writeFieldName(aPlan.fieldName);
+          aJg.writeString(value);
+        }
+        break;
+      }
+      case BOOLEAN:
+        aJg.writeFieldName(aPlan.fieldName);
+        aJg.writeBoolean(aFs.getBooleanValue(feature));
+        break;
+      case BYTE:
+        aJg.writeFieldName(aPlan.fieldName);
+        aJg.writeNumber(aFs.getByteValue(feature));
         break;
-      case CAS.TYPE_NAME_DOUBLE:
-        writeFloatingPointField(aJg, aFeature.getShortName(), aFs.getDoubleValue(aFeature));
+      case DOUBLE:
+        writeFloatingPointField(aJg, aPlan, aFs.getDoubleValue(feature));
         break;
-      case CAS.TYPE_NAME_FLOAT:
-        writeFloatingPointField(aJg, aFeature.getShortName(), aFs.getFloatValue(aFeature));
+      case FLOAT:
+        writeFloatingPointField(aJg, aPlan, aFs.getFloatValue(feature));
         break;
-      case CAS.TYPE_NAME_INTEGER: {
-        aJg.writeFieldName(aFeature.getShortName());
-        int value = aFs.getIntValue(aFeature);
-        value = convertOffsetsIfNecessary(aProvider, aFs, aFeature, value);
+      case INTEGER: {
+        aJg.writeFieldName(aPlan.fieldName);
+        int value = aFs.getIntValue(feature);
+        if (aPlan.offsetFeature && aOffsetConverter != null) {
+          value = aOffsetConverter.mapInternal(value);
+        }
         aJg.writeNumber(value);
         break;
       }
-      case CAS.TYPE_NAME_LONG:
-        aJg.writeNumberField(aFeature.getShortName(), aFs.getLongValue(aFeature));
+      case LONG:
+        aJg.writeFieldName(aPlan.fieldName);
+        aJg.writeNumber(aFs.getLongValue(feature));
         break;
-      case CAS.TYPE_NAME_SHORT:
-        aJg.writeNumberField(aFeature.getShortName(), aFs.getShortValue(aFeature));
+      case SHORT:
+        aJg.writeFieldName(aPlan.fieldName);
+        aJg.writeNumber(aFs.getShortValue(feature));
         break;
       default:
-        throw new IOException("Unsupported primitive type [" + rangeTypeName + "]");
+        throw new IOException(
+                "Unsupported primitive type [" + feature.getRange().getName() + "]");
     }
   }
 
-  private void writeFloatingPointField(JsonGenerator aJg, String aFeatureName, double aValue)
+  private void writeFloatingPointField(JsonGenerator aJg, FeatureWritePlan aPlan, double aValue)
           throws IOException {
     if (Double.isNaN(aValue)) {
-      aJg.writeStringField(NUMERIC_FEATURE_PREFIX + aFeatureName, NUMBER_FLOAT_NAN);
+      aJg.writeFieldName(aPlan.numericFieldName);
+      aJg.writeString(NUMBER_FLOAT_NAN);
     } else if (aValue == Double.NEGATIVE_INFINITY) {
-      aJg.writeStringField(NUMERIC_FEATURE_PREFIX + aFeatureName, NUMBER_FLOAT_NEGATIVE_INFINITY);
+      aJg.writeFieldName(aPlan.numericFieldName);
+      aJg.writeString(NUMBER_FLOAT_NEGATIVE_INFINITY);
     } else if (aValue == Double.POSITIVE_INFINITY) {
-      aJg.writeStringField(NUMERIC_FEATURE_PREFIX + aFeatureName, NUMBER_FLOAT_POSITIVE_INFINITY);
+      aJg.writeFieldName(aPlan.numericFieldName);
+      aJg.writeString(NUMBER_FLOAT_POSITIVE_INFINITY);
     } else {
-      aJg.writeNumberField(aFeatureName, aValue);
+      aJg.writeFieldName(aPlan.fieldName);
+      aJg.writeNumber(aValue);
     }
   }
-
-  private int convertOffsetsIfNecessary(DatabindContext aCtxt, FeatureStructure aFs,
-          Feature aFeature, int aValue) {
-    if (aFs instanceof Annotation && (CAS.FEATURE_FULL_NAME_BEGIN.equals(aFeature.getName())
-            || CAS.FEATURE_FULL_NAME_END.equals(aFeature.getName()))) {
-      Annotation ann = (Annotation) aFs;
-      return OffsetConversionMode.getConverter(aCtxt, ann.getSofa().getSofaID()) //
-              .map(conv -> conv.mapInternal(aValue)) //
-              .orElse(aValue);
-    }
-
-    return aValue;
-  }
 }
@@ -19,14 +19,14 @@
 package org.apache.uima.json.jsoncas2.ser;
 
 import static java.util.Arrays.sort;
-import static org.apache.uima.json.jsoncas2.JsonCas2Names.ID_FIELD;
-import static org.apache.uima.json.jsoncas2.JsonCas2Names.TYPE_FIELD;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.ID_FIELD_SERIALIZED;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.TYPE_FIELD_SERIALIZED;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.VIEWS_FIELD_SERIALIZED;
 
 import java.io.IOException;
 import java.util.Set;
 
 import org.apache.uima.cas.FeatureStructure;
-import org.apache.uima.json.jsoncas2.JsonCas2Names;
 import org.apache.uima.json.jsoncas2.mode.FeatureStructuresMode;
 import org.apache.uima.json.jsoncas2.mode.ViewsMode;
 import org.apache.uima.json.jsoncas2.ref.FeatureStructureToViewIndex;
@@ -53,9 +53,11 @@ public abstract class FeatureStructureSerializer_ImplBase<T extends FeatureStruc
 
     jg.writeStartObject();
     if (featureStructuresMode == FeatureStructuresMode.AS_ARRAY) {
-      jg.writeNumberField(ID_FIELD, refCache.fsRef(aFs));
+      jg.writeFieldName(ID_FIELD_SERIALIZED);
+      jg.writeNumber(refCache.fsRef(aFs));
     }
-    jg.writeStringField(TYPE_FIELD, refCache.typeRef(aFs.getType()));
+    jg.writeFieldName(TYPE_FIELD_SERIALIZED);
+    jg.writeString(refCache.serializedTypeRef(aFs.getType()));
 
     if (viewsMode == ViewsMode.INLINE) {
       Set<String> views = fsToViewIndex.getViewsContainingFs(aFs);
@@ -63,7 +65,8 @@ public abstract class FeatureStructureSerializer_ImplBase<T extends FeatureStruc
       if (views != null && !views.isEmpty()) {
         String[] viewsArray = views.toArray(new String[views.size()]);
         sort(viewsArray);
-        jg.writeArrayFieldStart(JsonCas2Names.VIEWS_FIELD);
+        jg.writeFieldName(VIEWS_FIELD_SERIALIZED);
+        jg.writeStartArray();
         for (String view : viewsArray) {
           jg.writeString(view);
         }
@@ -91,4 +94,36 @@ public abstract class FeatureStructureSerializer_ImplBase<T extends FeatureStruc
 
   protected abstract void writeBody(SerializerProvider aProvider, JsonGenerator jg,
           FeatureStructure aFs) throws IOException;
+
+  /**
+   * Requests the references to the given feature structure and all the feature structures it
+   * refers to in the same order as {@link #serialize} does, but without writing anything. This
+   * assigns the IDs up front so that afterwards multiple feature structures can be written
+   * concurrently with the same result as writing them one after another.
+   * 
+   * @param aProvider
+   *          the serializer provider.
+   * @param aFs
+   *          the feature structure.
+   */
+  public void prepare(SerializerProvider aProvider, T aFs) {
+    ReferenceCache refCache = ReferenceCache.get(aProvider);
+
+    if (FeatureStructuresMode.get(aProvider) == FeatureStructuresMode.AS_ARRAY) {
+      refCache.fsRef(aFs);
+    }
+    // Also encodes the type reference, so the cache is not modified while writing concurrently
+    refCache.serializedTypeRef(aFs.getType());
+
+    if (ViewsMode.get(aProvider) == ViewsMode.INLINE) {
+      FeatureStructureToViewIndex.get(aProvider).getViewsContainingFs(aFs);
+    }
+
+    prepareBody(aProvider, aFs);
+  }
+
+  /**
+   * Requests the references written by {@link #writeBody} in the same order.
+   */
+  protected abstract void prepareBody(SerializerProvider aProvider, FeatureStructure aFs);
 }
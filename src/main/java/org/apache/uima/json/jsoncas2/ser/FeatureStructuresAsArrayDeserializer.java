@@ -29,6 +29,7 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
 public class FeatureStructuresAsArrayDeserializer
         extends CasDeserializer_ImplBase<FeatureStructures> {
@@ -51,6 +52,19 @@ public class FeatureStructuresAsArrayDeserializer
       aParser.nextToken();
     }
 
+    // If the feature structures have been parsed in parallel, the array in the document is empty
+    PreparsedFeatureStructures preparsed = PreparsedFeatureStructures.get(aCtxt);
+    if (preparsed != null) {
+      for (int i = 0; i < preparsed.getChunkCount(); i++) {
+        for (TokenBuffer buffer : preparsed.getChunk(i)) {
+          try (JsonParser parser = buffer.asParser(aParser.getCodec())) {
+            parser.nextToken();
+            featureStructures.add(aCtxt.readValue(parser, FeatureStructure.class));
+          }
+        }
+      }
+    }
+
     runPostprocessors(aCtxt);
 
     // Consume array end
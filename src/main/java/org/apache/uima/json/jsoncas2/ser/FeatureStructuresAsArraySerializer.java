@@ -18,18 +18,63 @@
  */
 package org.apache.uima.json.jsoncas2.ser;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.json.jsoncas2.mode.ArrayEncodingMode;
+import org.apache.uima.json.jsoncas2.mode.DataFormatMode;
+import org.apache.uima.json.jsoncas2.mode.FeatureStructuresMode;
+import org.apache.uima.json.jsoncas2.mode.ParallelMode;
+import org.apache.uima.json.jsoncas2.mode.StreamingMode;
+import org.apache.uima.json.jsoncas2.mode.ViewsMode;
 import org.apache.uima.json.jsoncas2.model.FeatureStructures;
+import org.apache.uima.json.jsoncas2.ref.FeatureStructureToViewIndex;
+import org.apache.uima.json.jsoncas2.ref.ReferenceCache;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.CharacterEscapes;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.cfg.ContextAttributes;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.fasterxml.jackson.databind.ser.SerializerFactory;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 
 public class FeatureStructuresAsArraySerializer extends StdSerializer<FeatureStructures> {
   private static final long serialVersionUID = 4848917731920209133L;
 
+  /**
+   * Minimum number of feature structures per chunk in {@link ParallelMode#PARALLEL} mode. Smaller
+   * CASes are written sequentially.
+   */
+  private static final int MIN_CHUNK_SIZE = 1024;
+
+  /**
+   * Number of chunks per thread of the pool so that threads which finish early can pick up more
+   * work.
+   */
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  /**
+   * Number of feature structures per chunk when writing to a {@link ChunkedOutput}.
+   */
+  private static final int DEFERRED_CHUNK_SIZE = 256;
+
   public FeatureStructuresAsArraySerializer() {
     super(FeatureStructures.class);
   }
@@ -43,6 +88,35 @@ public class FeatureStructuresAsArraySerializer extends StdSerializer<FeatureStr
       return;
     }
 
+    // Chunks of binary formats cannot be concatenated, e.g. because of back-references in Smile.
+    // Pretty-printed chunks would depend on the state of the pretty printer.
+    if (StreamingMode.get(aProvider) == StreamingMode.BUFFERED
+            && DataFormatMode.get(aProvider) == DataFormatMode.JSON
+            && jg.getPrettyPrinter() == null && jg.getCodec() instanceof ObjectMapper
+            && aProvider instanceof DefaultSerializerProvider) {
+      if (jg.getOutputTarget() instanceof ChunkedOutput) {
+        List<FeatureStructure> fses = new ArrayList<>();
+        aFeatureStructures.forEach(fses::add);
+        serializeDeferred(fses, jg, aProvider);
+        return;
+      }
+
+      if (ParallelMode.get(aProvider) == ParallelMode.PARALLEL
+              && jg.getOutputTarget() instanceof OutputStream) {
+        List<FeatureStructure> fses = new ArrayList<>();
+        aFeatureStructures.forEach(fses::add);
+        if (fses.size() >= 2 * MIN_CHUNK_SIZE) {
+          serializeParallel(fses, jg, aProvider);
+          return;
+        }
+      }
+    }
+
+    serializeSequential(aFeatureStructures, jg, aProvider);
+  }
+
+  private void serializeSequential(Iterable<FeatureStructure> aFeatureStructures,
+          JsonGenerator jg, SerializerProvider aProvider) throws IOException {
     jg.writeStartArray();
 
     for (FeatureStructure fs : aFeatureStructures) {
@@ -50,4 +124,204 @@ public class FeatureStructuresAsArraySerializer extends StdSerializer<FeatureStr
     }
     jg.writeEndArray();
   }
+
+  /**
+   * Prepares the feature structures one after another in the order in which they would be written
+   * sequentially, so that all IDs are the same as in sequential mode and the reference cache is
+   * only read when the feature structures are written out of order afterwards.
+   * 
+   * @return the serializers by feature structure class or {@code null} if not all feature
+   *         structures can be prepared.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private Map<Class<?>, JsonSerializer<Object>> prepare(List<FeatureStructure> aFses,
+          SerializerProvider aProvider) throws IOException {
+    Map<Class<?>, JsonSerializer<Object>> serializers = new IdentityHashMap<>();
+    for (FeatureStructure fs : aFses) {
+      if (!serializers.containsKey(fs.getClass())) {
+        JsonSerializer<Object> serializer = aProvider.findTypedValueSerializer(fs.getClass(), true,
+                null);
+        if (!(serializer instanceof FeatureStructureSerializer_ImplBase)) {
+          // We do not know in which order this serializer requests references
+          return null;
+        }
+        serializers.put(fs.getClass(), serializer);
+      }
+    }
+
+    for (FeatureStructure fs : aFses) {
+      ((FeatureStructureSerializer_ImplBase) serializers.get(fs.getClass())).prepare(aProvider, fs);
+    }
+
+    return serializers;
+  }
+
+  /**
+   * Writes the first feature structure through the given generator and all others in chunks into
+   * separate buffers on the pool threads. The chunks are then appended to the output in order.
+   */
+  private void serializeParallel(List<FeatureStructure> aFses, JsonGenerator jg,
+          SerializerProvider aProvider) throws IOException {
+    Map<Class<?>, JsonSerializer<Object>> serializers = prepare(aFses, aProvider);
+    if (serializers == null) {
+      serializeSequential(aFses, jg, aProvider);
+      return;
+    }
+
+    jg.writeStartArray();
+
+    ChunkWriter chunkWriter = new ChunkWriter(jg, aProvider, serializers);
+    ForkJoinPool pool = ParallelMode.getPool(aProvider);
+    int chunkSize = Math.max(MIN_CHUNK_SIZE,
+            (aFses.size() - 1) / (pool.getParallelism() * CHUNKS_PER_THREAD) + 1);
+    List<ForkJoinTask<byte[]>> chunks = new ArrayList<>();
+    for (int begin = 1; begin < aFses.size(); begin += chunkSize) {
+      List<FeatureStructure> chunk = aFses.subList(begin,
+              Math.min(begin + chunkSize, aFses.size()));
+      chunks.add(pool.submit(() -> chunkWriter.write(chunk)));
+    }
+
+    serializers.get(aFses.get(0).getClass()).serialize(aFses.get(0), jg, aProvider);
+    // Bypass the generator for the chunks - they already contain the separators
+    jg.flush();
+    OutputStream out = (OutputStream) jg.getOutputTarget();
+    try {
+      for (ForkJoinTask<byte[]> chunk : chunks) {
+        out.write(chunk.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while writing feature structures", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Unable to write feature structures", e.getCause());
+    } finally {
+      chunks.forEach(chunk -> chunk.cancel(false));
+    }
+    jg.writeEndArray();
+  }
+
+  /**
+   * Writes the first feature structure through the given generator and registers all others in
+   * chunks with the output, which writes each chunk only once it is requested by the consumer.
+   */
+  private void serializeDeferred(List<FeatureStructure> aFses, JsonGenerator jg,
+          SerializerProvider aProvider) throws IOException {
+    Map<Class<?>, JsonSerializer<Object>> serializers = prepare(aFses, aProvider);
+    if (serializers == null) {
+      serializeSequential(aFses, jg, aProvider);
+      return;
+    }
+
+    jg.writeStartArray();
+
+    ChunkWriter chunkWriter = new ChunkWriter(jg, aProvider, serializers);
+    serializers.get(aFses.get(0).getClass()).serialize(aFses.get(0), jg, aProvider);
+    jg.flush();
+    ChunkedOutput out = (ChunkedOutput) jg.getOutputTarget();
+    for (int begin = 1; begin < aFses.size(); begin += DEFERRED_CHUNK_SIZE) {
+      List<FeatureStructure> chunk = aFses.subList(begin,
+              Math.min(begin + DEFERRED_CHUNK_SIZE, aFses.size()));
+      out.defer(() -> chunkWriter.write(chunk));
+    }
+
+    jg.writeEndArray();
+  }
+
+  /**
+   * Writes chunks of feature structures on threads other than the one owning the original
+   * generator, possibly after the original serialization call has returned. Jackson serializer
+   * providers are not thread-safe, so each chunk is written with its own provider which is
+   * initialized from a snapshot of the attributes read by the feature structure serializers. The
+   * objects in the snapshot are only read while writing the chunks, since all references have been
+   * {@link FeatureStructureSerializer_ImplBase#prepare prepared} before.
+   * <p>
+   * Chunks are only written for compact JSON. Each chunk is written at the root level of its own
+   * generator with the separators between the elements of the feature structures array inserted
+   * explicitly, which is exactly what the original generator would write at this point.
+   */
+  private static final class ChunkWriter {
+    private static final SerializableString SEPARATOR = new SerializedString(",");
+
+    private final Map<Class<?>, JsonSerializer<Object>> serializers;
+
+    private final JsonFactory factory;
+    private final int featureMask;
+    private final CharacterEscapes characterEscapes;
+    private final int highestNonEscapedChar;
+
+    private final DefaultSerializerProvider blueprint;
+    private final SerializationConfig config;
+    private final SerializerFactory serializerFactory;
+
+    private final ReferenceCache referenceCache;
+    private final FeatureStructureToViewIndex fsToViewIndex;
+    private final OffsetConverterRegistry offsetConverters;
+    private final ArrayEncodingMode arrayEncodingMode;
+    private final FeatureStructuresMode featureStructuresMode;
+    private final ViewsMode viewsMode;
+
+    private ChunkWriter(JsonGenerator aTemplate, SerializerProvider aProvider,
+            Map<Class<?>, JsonSerializer<Object>> aSerializers) {
+      serializers = aSerializers;
+
+      ObjectMapper mapper = (ObjectMapper) aTemplate.getCodec();
+      factory = mapper.getFactory();
+      featureMask = aTemplate.getFeatureMask();
+      characterEscapes = aTemplate.getCharacterEscapes();
+      highestNonEscapedChar = aTemplate.getHighestEscapedChar();
+
+      blueprint = (DefaultSerializerProvider) aProvider;
+      // Start from empty attributes, so per-call attributes of the original call are not shared
+      config = aProvider.getConfig().with(ContextAttributes.getEmpty());
+      serializerFactory = mapper.getSerializerFactory();
+
+      referenceCache = ReferenceCache.get(aProvider);
+      fsToViewIndex = FeatureStructureToViewIndex.get(aProvider);
+      offsetConverters = OffsetConverterRegistry.get(aProvider);
+      arrayEncodingMode = ArrayEncodingMode.get(aProvider);
+      featureStructuresMode = FeatureStructuresMode.get(aProvider);
+      viewsMode = ViewsMode.get(aProvider);
+    }
+
+    /**
+     * @return the given feature structures as they would be written by the original generator
+     *         following a preceding element, including the leading separator.
+     */
+    private byte[] write(List<FeatureStructure> aChunk) throws IOException {
+      SerializerProvider provider = createProvider();
+
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      try (JsonGenerator jg = createGenerator(buffer)) {
+        jg.writeRaw(SEPARATOR);
+        for (FeatureStructure fs : aChunk) {
+          serializers.get(fs.getClass()).serialize(fs, jg, provider);
+        }
+      }
+
+      return buffer.toByteArray();
+    }
+
+    private SerializerProvider createProvider() {
+      SerializerProvider provider = blueprint.createInstance(config, serializerFactory);
+      ReferenceCache.set(provider, referenceCache);
+      FeatureStructureToViewIndex.set(provider, fsToViewIndex);
+      OffsetConverterRegistry.set(provider, offsetConverters);
+      ArrayEncodingMode.set(provider, arrayEncodingMode);
+      FeatureStructuresMode.set(provider, featureStructuresMode);
+      ViewsMode.set(provider, viewsMode);
+      return provider;
+    }
+
+    private JsonGenerator createGenerator(OutputStream aOut) throws IOException {
+      JsonGenerator jg = factory.createGenerator(aOut, JsonEncoding.UTF8);
+      jg.overrideStdFeatures(featureMask, -1);
+      jg.setCharacterEscapes(characterEscapes);
+      jg.setHighestNonEscapedChar(highestNonEscapedChar);
+      jg.setRootValueSeparator(SEPARATOR);
+      return jg;
+    }
+  }
 }
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ser;
+
+import java.io.IOException;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.FeatureStructure;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+/**
+ * Deserializes a CAS piece by piece instead of from a single parser, e.g. while the document is
+ * still being received. The caller splits the document into its sections and, in the
+ * {@link org.apache.uima.json.jsoncas2.mode.FeatureStructuresMode#AS_ARRAY} layout, into its
+ * feature structures and passes them in document order. All pieces must be passed using the same
+ * deserialization context.
+ */
+public class IncrementalCasDeserializer {
+  private final CasDeserializer casDeserializer = new CasDeserializer();
+  private final DeserializationContext ctxt;
+  private final CasDeserializationContext context;
+
+  private CAS cas;
+
+  public IncrementalCasDeserializer(DeserializationContext aCtxt) {
+    ctxt = aCtxt;
+    context = CasDeserializer.begin(aCtxt);
+    cas = casDeserializer.getCas(aCtxt);
+  }
+
+  /**
+   * Reads a section of the document other than an array of feature structures.
+   * 
+   * @param aParser
+   *          a parser positioned on an object which contains only the section.
+   * @throws IOException
+   *           if the section could not be read.
+   */
+  public void readSection(JsonParser aParser) throws IOException {
+    CAS sectionCas = casDeserializer.readSections(aParser, ctxt);
+    if (sectionCas != null) {
+      cas = sectionCas;
+    }
+  }
+
+  /**
+   * Reads an element of the feature structures array.
+   * 
+   * @param aParser
+   *          a parser positioned on the start of the feature structure.
+   * @throws IOException
+   *           if the feature structure could not be read.
+   */
+  public void readFeatureStructure(JsonParser aParser) throws IOException {
+    ctxt.readValue(aParser, FeatureStructure.class);
+  }
+
+  /**
+   * Resolves the references between the feature structures once the end of the feature structures
+   * array has been reached.
+   */
+  public void endFeatureStructures() {
+    casDeserializer.runPostprocessors(ctxt);
+  }
+
+  /**
+   * Indexes the feature structures and releases the deserialization state.
+   * 
+   * @return the deserialized CAS.
+   */
+  public CAS finish() {
+    try {
+      if (cas != null) {
+        CasDeserializer.indexFeatureStructures(ctxt, cas);
+      }
+      return cas;
+    } finally {
+      context.reset();
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ser;
+
+import static java.lang.Math.max;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
+
+import org.apache.uima.cas.SofaFS;
+import org.apache.uima.json.jsoncas2.encoding.OffsetConverter;
+import org.apache.uima.json.jsoncas2.mode.OffsetConversionMode;
+
+import com.fasterxml.jackson.databind.DatabindContext;
+
+/**
+ * Offset converters of the views of the CAS currently being (de)serialized, indexed by the SofA
+ * number. A converter is only built when the first annotation of its view asks for it, so views
+ * without annotations do not pay for scanning their text. Resolving the converter for a feature
+ * structure is an array read.
+ */
+final class OffsetConverterRegistry {
+  static final String KEY = "UIMA.OffsetConverterRegistry";
+
+  private static final int INITIAL_CAPACITY = 4;
+
+  private OffsetConversionMode mode = OffsetConversionMode.getDefault();
+  private OffsetConverter[] converters = new OffsetConverter[INITIAL_CAPACITY];
+
+  /**
+   * Drops all converters and sets the mode used to build new ones.
+   * 
+   * @param aMode
+   *          the offset conversion mode.
+   */
+  void reset(OffsetConversionMode aMode) {
+    mode = aMode != null ? aMode : OffsetConversionMode.getDefault();
+    fill(converters, null);
+  }
+
+  /**
+   * @param aSofa
+   *          the SofA of the view.
+   * @return the converter for the text of the given SofA.
+   */
+  OffsetConverter forSofa(SofaFS aSofa) {
+    int sofaNum = aSofa.getSofaRef();
+    if (sofaNum >= converters.length) {
+      converters = copyOf(converters, max(converters.length * 2, sofaNum + 1));
+    }
+
+    OffsetConverter converter = converters[sofaNum];
+    if (converter == null) {
+      String text = aSofa.getLocalStringData();
+      converter = mode.createConverter(text);
+      // During deserialization, annotations may be read before the text of their SofA. Do not
+      // keep the converter for the missing text so the real text is picked up once it is set.
+      if (text != null) {
+        converters[sofaNum] = converter;
+      }
+    }
+    return converter;
+  }
+
+  static void set(DatabindContext aProvider, OffsetConverterRegistry aRegistry) {
+    aProvider.setAttribute(KEY, aRegistry);
+  }
+
+  static OffsetConverterRegistry get(DatabindContext aProvider) {
+    return (OffsetConverterRegistry) aProvider.getAttribute(KEY);
+  }
+}
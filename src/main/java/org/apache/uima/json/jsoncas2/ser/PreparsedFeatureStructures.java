@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ser;
+
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.FEATURE_STRUCTURES_FIELD;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * The feature structures of a JSON document which are parsed in parallel before the document is
+ * deserialized. Locating the feature structures in the document is a cheap scan. Parsing them into
+ * token buffers happens on the threads of a {@link ForkJoinPool}, while the rest of the document
+ * is read on the calling thread. The {@link FeatureStructuresAsArrayDeserializer} then replays the
+ * token buffers in order on the calling thread, so all CAS modifications remain single-threaded.
+ */
+public class PreparsedFeatureStructures {
+  public static final String KEY = "UIMA.PreparsedFeatureStructures";
+
+  /**
+   * Minimum number of feature structures per chunk. Smaller documents are not worth splitting.
+   */
+  private static final int MIN_CHUNK_SIZE = 1024;
+
+  /**
+   * Number of chunks per thread of the pool so that threads which finish early can pick up more
+   * work.
+   */
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  private final byte[] json;
+  private final StructuralIndex index;
+  private final List<ForkJoinTask<List<TokenBuffer>>> chunks;
+
+  private PreparsedFeatureStructures(byte[] aJson, StructuralIndex aIndex, JsonFactory aFactory,
+          ForkJoinPool aPool) {
+    json = aJson;
+    index = aIndex;
+    chunks = new ArrayList<>();
+
+    int chunkSize = Math.max(MIN_CHUNK_SIZE,
+            index.elementCount / (aPool.getParallelism() * CHUNKS_PER_THREAD) + 1);
+    for (int begin = 0; begin < index.elementCount; begin += chunkSize) {
+      int first = begin;
+      int last = Math.min(begin + chunkSize, index.elementCount);
+      chunks.add(aPool.submit(() -> parse(aFactory, first, last)));
+    }
+  }
+
+  /**
+   * Starts parsing the feature structures of the given document in the background.
+   * 
+   * @param aJson
+   *          the UTF-8 encoded document.
+   * @param aFactory
+   *          the factory to create the parsers with.
+   * @param aPool
+   *          the pool to parse on.
+   * @return the pre-parsed feature structures or {@code null} if the document does not contain
+   *         enough feature structures in an array to be worth parsing them in parallel.
+   */
+  public static PreparsedFeatureStructures start(byte[] aJson, JsonFactory aFactory,
+          ForkJoinPool aPool) {
+    StructuralIndex index = StructuralIndex.scan(aJson, FEATURE_STRUCTURES_FIELD);
+    if (index == null || index.elementCount < 2 * MIN_CHUNK_SIZE) {
+      return null;
+    }
+
+    return new PreparsedFeatureStructures(aJson, index, aFactory, aPool);
+  }
+
+  private List<TokenBuffer> parse(JsonFactory aFactory, int aFirst, int aLast)
+          throws IOException {
+    List<TokenBuffer> buffers = new ArrayList<>(aLast - aFirst);
+    for (int i = aFirst; i < aLast; i++) {
+      int start = index.elementStarts[i];
+      try (JsonParser parser = aFactory.createParser(json, start,
+              index.elementEnds[i] - start)) {
+        parser.nextToken();
+        // Not bound to the parsing context of the element parser, so the replayed element is a root
+        TokenBuffer buffer = new TokenBuffer(parser.getCodec(), false);
+        buffer.copyCurrentStructure(parser);
+        buffers.add(buffer);
+      }
+    }
+    return buffers;
+  }
+
+  /**
+   * @return the document with an empty feature structures array - to be read while the feature
+   *         structures are parsed.
+   */
+  public InputStream getRemainder() {
+    return new SequenceInputStream(new ByteArrayInputStream(json, 0, index.arrayStart + 1),
+            new ByteArrayInputStream(json, index.arrayEnd, json.length - index.arrayEnd));
+  }
+
+  int getChunkCount() {
+    return chunks.size();
+  }
+
+  /**
+   * Waits for the given chunk to be parsed.
+   */
+  List<TokenBuffer> getChunk(int aIndex) throws IOException {
+    try {
+      return chunks.get(aIndex).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading feature structures", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Unable to read feature structures", e.getCause());
+    }
+  }
+
+  /**
+   * Cancels parsing the chunks which have not been started yet, e.g. because reading the document
+   * failed.
+   */
+  public void cancel() {
+    chunks.forEach(chunk -> chunk.cancel(false));
+  }
+
+  public static void set(DatabindContext aProvider, PreparsedFeatureStructures aFeatureStructures) {
+    aProvider.setAttribute(KEY, aFeatureStructures);
+  }
+
+  public static PreparsedFeatureStructures get(DatabindContext aProvider) {
+    return (PreparsedFeatureStructures) aProvider.getAttribute(KEY);
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ser;
+
+import static java.lang.Math.max;
+import static java.util.Arrays.copyOf;
+
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+/**
+ * Growable primitive buffers used to collect the elements of arrays during deserialization without
+ * boxing them. The buffers are kept in the deserialization context and reused for all arrays read
+ * while parsing a CAS.
+ */
+final class PrimitiveArrayBuffers {
+  static final String KEY = "UIMA.PrimitiveArrayBuffers";
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private boolean[] booleans = new boolean[0];
+  private short[] shorts = new short[0];
+  private int[] ints = new int[0];
+  private long[] longs = new long[0];
+  private float[] floats = new float[0];
+  private double[] doubles = new double[0];
+
+  /**
+   * @return a buffer which can hold at least the given number of elements. The contents of the
+   *         previously returned buffer are retained.
+   */
+  boolean[] booleans(int aMinCapacity) {
+    if (booleans.length < aMinCapacity) {
+      booleans = copyOf(booleans, newCapacity(booleans.length, aMinCapacity));
+    }
+    return booleans;
+  }
+
+  short[] shorts(int aMinCapacity) {
+    if (shorts.length < aMinCapacity) {
+      shorts = copyOf(shorts, newCapacity(shorts.length, aMinCapacity));
+    }
+    return shorts;
+  }
+
+  int[] ints(int aMinCapacity) {
+    if (ints.length < aMinCapacity) {
+      ints = copyOf(ints, newCapacity(ints.length, aMinCapacity));
+    }
+    return ints;
+  }
+
+  long[] longs(int aMinCapacity) {
+    if (longs.length < aMinCapacity) {
+      longs = copyOf(longs, newCapacity(longs.length, aMinCapacity));
+    }
+    return longs;
+  }
+
+  float[] floats(int aMinCapacity) {
+    if (floats.length < aMinCapacity) {
+      floats = copyOf(floats, newCapacity(floats.length, aMinCapacity));
+    }
+    return floats;
+  }
+
+  double[] doubles(int aMinCapacity) {
+    if (doubles.length < aMinCapacity) {
+      doubles = copyOf(doubles, newCapacity(doubles.length, aMinCapacity));
+    }
+    return doubles;
+  }
+
+  private static int newCapacity(int aCurrentCapacity, int aMinCapacity) {
+    return max(aMinCapacity, max(INITIAL_CAPACITY, aCurrentCapacity * 2));
+  }
+
+  static PrimitiveArrayBuffers get(DeserializationContext aCtxt) {
+    PrimitiveArrayBuffers buffers = (PrimitiveArrayBuffers) aCtxt.getAttribute(KEY);
+    if (buffers == null) {
+      buffers = new PrimitiveArrayBuffers();
+      aCtxt.setAttribute(KEY, buffers);
+    }
+    return buffers;
+  }
+}
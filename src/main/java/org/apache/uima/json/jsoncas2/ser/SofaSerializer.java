@@ -18,7 +18,7 @@
  */
 package org.apache.uima.json.jsoncas2.ser;
 
-import static org.apache.uima.json.jsoncas2.JsonCas2Names.VIEW_MEMBERS_FIELD;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.VIEW_MEMBERS_FIELD_SERIALIZED;
 
 import java.io.IOException;
 
@@ -46,11 +46,22 @@ public class SofaSerializer extends FeatureStructureSerializer {
     ReferenceCache refCache = ReferenceCache.get(aProvider);
     Sofa sofa = (Sofa) aFs;
 
-    jg.writeFieldName(VIEW_MEMBERS_FIELD);
+    jg.writeFieldName(VIEW_MEMBERS_FIELD_SERIALIZED);
     jg.writeStartArray();
     for (TOP fs : sofa.getCAS().getView(sofa.getSofaID()).getIndexedFSs()) {
       jg.writeNumber(refCache.fsRef(fs));
     }
     jg.writeEndArray();
   }
+
+  @Override
+  protected void prepareBody(SerializerProvider aProvider, FeatureStructure aFs) {
+    super.prepareBody(aProvider, aFs);
+
+    ReferenceCache refCache = ReferenceCache.get(aProvider);
+    Sofa sofa = (Sofa) aFs;
+    for (TOP fs : sofa.getCAS().getView(sofa.getSofaID()).getIndexedFSs()) {
+      refCache.fsRef(fs);
+    }
+  }
 }
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ser;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.copyOf;
+
+/**
+ * Locates the elements of an array which is the value of a field of the root object of a JSON
+ * document without parsing the document. The scan only tracks strings and the nesting depth, which
+ * is much cheaper than tokenizing, and produces the byte ranges of the array elements so that they
+ * can be parsed independently from each other.
+ */
+final class StructuralIndex {
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /**
+   * Position of the opening bracket of the array.
+   */
+  final int arrayStart;
+
+  /**
+   * Position of the closing bracket of the array.
+   */
+  final int arrayEnd;
+
+  /**
+   * Start (inclusive) and end (exclusive) positions of the array elements.
+   */
+  final int[] elementStarts;
+  final int[] elementEnds;
+  final int elementCount;
+
+  private StructuralIndex(int aArrayStart, int aArrayEnd, int[] aElementStarts,
+          int[] aElementEnds, int aElementCount) {
+    arrayStart = aArrayStart;
+    arrayEnd = aArrayEnd;
+    elementStarts = aElementStarts;
+    elementEnds = aElementEnds;
+    elementCount = aElementCount;
+  }
+
+  /**
+   * @param aJson
+   *          the UTF-8 encoded JSON document.
+   * @param aFieldName
+   *          the name of the field of the root object holding the array.
+   * @return the index or {@code null} if the root object has no such field, its value is not an
+   *         array of objects or the document is malformed.
+   */
+  static StructuralIndex scan(byte[] aJson, String aFieldName) {
+    byte[] key = aFieldName.getBytes(UTF_8);
+    int depth = 0;
+    int i = 0;
+    while (i < aJson.length) {
+      byte b = aJson[i];
+      switch (b) {
+        case '"': {
+          int end = skipString(aJson, i);
+          if (end < 0) {
+            return null;
+          }
+          if (depth == 1 && isKey(aJson, i + 1, end - 1, key)) {
+            int colon = skipWhitespace(aJson, end);
+            if (colon < aJson.length && aJson[colon] == ':') {
+              int valueStart = skipWhitespace(aJson, colon + 1);
+              if (valueStart < aJson.length && aJson[valueStart] == '[') {
+                return scanArray(aJson, valueStart);
+              }
+            }
+          }
+          i = end;
+          continue;
+        }
+        case '{': // fall-through
+        case '[':
+          depth++;
+          break;
+        case '}': // fall-through
+        case ']':
+          depth--;
+          break;
+      }
+      i++;
+    }
+
+    return null;
+  }
+
+  private static StructuralIndex scanArray(byte[] aJson, int aArrayStart) {
+    int[] starts = new int[INITIAL_CAPACITY];
+    int[] ends = new int[INITIAL_CAPACITY];
+    int count = 0;
+
+    int depth = 0;
+    int i = aArrayStart + 1;
+    while (i < aJson.length) {
+      byte b = aJson[i];
+      switch (b) {
+        case '"': {
+          if (depth == 0) {
+            return null;
+          }
+          i = skipString(aJson, i);
+          if (i < 0) {
+            return null;
+          }
+          continue;
+        }
+        case '{': // fall-through
+        case '[':
+          if (depth == 0) {
+            if (b != '{') {
+              return null;
+            }
+            if (count == starts.length) {
+              starts = copyOf(starts, count * 2);
+              ends = copyOf(ends, count * 2);
+            }
+            starts[count] = i;
+          }
+          depth++;
+          break;
+        case '}': // fall-through
+        case ']':
+          if (depth == 0) {
+            return new StructuralIndex(aArrayStart, i, starts, ends, count);
+          }
+          depth--;
+          if (depth == 0) {
+            ends[count] = i + 1;
+            count++;
+          }
+          break;
+        case ',':
+        case ' ':
+        case '\t':
+        case '\n':
+        case '\r':
+          break;
+        default:
+          if (depth == 0) {
+            // Only objects are expected as elements
+            return null;
+          }
+      }
+      i++;
+    }
+
+    return null;
+  }
+
+  /**
+   * @return the position after the closing quote of the string starting at the given position or
+   *         -1 if the string is not terminated.
+   */
+  private static int skipString(byte[] aJson, int aStart) {
+    int i = aStart + 1;
+    while (i < aJson.length) {
+      byte b = aJson[i];
+      if (b == '\\') {
+        i += 2;
+        continue;
+      }
+      if (b == '"') {
+        return i + 1;
+      }
+      i++;
+    }
+    return -1;
+  }
+
+  private static int skipWhitespace(byte[] aJson, int aStart) {
+    int i = aStart;
+    while (i < aJson.length
+            && (aJson[i] == ' ' || aJson[i] == '\t' || aJson[i] == '\n' || aJson[i] == '\r')) {
+      i++;
+    }
+    return i;
+  }
+
+  private static boolean isKey(byte[] aJson, int aStart, int aEnd, byte[] aKey) {
+    if (aEnd - aStart != aKey.length) {
+      return false;
+    }
+    for (int i = 0; i < aKey.length; i++) {
+      if (aJson[aStart + i] != aKey[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ser;
+
+import java.util.function.Function;
+
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.cas.impl.TypeImpl;
+import org.apache.uima.cas.impl.TypeSystemImpl;
+
+/**
+ * Per-type plans for a single type system, indexed by type code. Plans are compiled lazily on
+ * first use. Plans must be immutable so that they can be shared between threads.
+ *
+ * @param <P>
+ *          the plan type.
+ */
+final class TypePlans<P> {
+  private final TypeSystem typeSystem;
+  private final Function<Type, P> compiler;
+  private final Object[] plans;
+
+  private TypePlans(TypeSystem aTypeSystem, Function<Type, P> aCompiler) {
+    typeSystem = aTypeSystem;
+    compiler = aCompiler;
+    plans = new Object[((TypeSystemImpl) aTypeSystem).getLargestTypeCode() + 1];
+  }
+
+  @SuppressWarnings("unchecked")
+  P forType(Type aType) {
+    int typeCode = ((TypeImpl) aType).getCode();
+    P plan = (P) plans[typeCode];
+    if (plan == null) {
+      // Racing threads may compile the same plan twice, but since plans are immutable, it does
+      // not matter which one ends up in the array.
+      plan = compiler.apply(aType);
+      plans[typeCode] = plan;
+    }
+    return plan;
+  }
+
+  /**
+   * @return the given plans if they belong to the type system of the given type, otherwise new
+   *         plans for that type system.
+   */
+  static <P> TypePlans<P> forTypeSystemOf(TypePlans<P> aPlans, Type aType,
+          Function<Type, P> aCompiler) {
+    TypeSystem typeSystem = ((TypeImpl) aType).getTypeSystem();
+    if (aPlans != null && aPlans.typeSystem == typeSystem) {
+      return aPlans;
+    }
+    return new TypePlans<>(typeSystem, aCompiler);
+  }
+}
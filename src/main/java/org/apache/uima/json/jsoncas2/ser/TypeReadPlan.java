@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ser;
+
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.ANCHOR_FEATURE_PREFIX;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.NUMERIC_FEATURE_PREFIX;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.REF_FEATURE_PREFIX;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.Type;
+
+/**
+ * Pre-compiled information on how to read the features of a particular type. The plan maps every
+ * JSON field name which may occur for the type - including the prefixed variants - directly to the
+ * feature it sets so that the deserializer needs only a single lookup per field. Plans are
+ * immutable and can be shared between threads.
+ */
+final class TypeReadPlan {
+  enum FieldType {
+    REGULAR, REFERENCE, NUMBER, ANCHOR
+  }
+
+  private final Map<String, FieldReadPlan> fields;
+
+  private TypeReadPlan(Type aType) {
+    fields = new HashMap<>();
+    for (Feature feature : aType.getFeatures()) {
+      String name = feature.getShortName();
+      fields.put(name, new FieldReadPlan(feature, FieldType.REGULAR));
+      fields.put(REF_FEATURE_PREFIX + name, new FieldReadPlan(feature, FieldType.REFERENCE));
+      fields.put(NUMERIC_FEATURE_PREFIX + name, new FieldReadPlan(feature, FieldType.NUMBER));
+      fields.put(ANCHOR_FEATURE_PREFIX + name, new FieldReadPlan(feature, FieldType.ANCHOR));
+    }
+  }
+
+  /**
+   * @return the plan for the given JSON field name or {@code null} if the type has no matching
+   *         feature.
+   */
+  FieldReadPlan field(String aFieldName) {
+    return fields.get(aFieldName);
+  }
+
+  static final class FieldReadPlan {
+    final Feature feature;
+    final FieldType fieldType;
+    final int rangeKind;
+
+    /**
+     * The SofA feature of {@code AnnotationBase}-derived types cannot be set manually.
+     */
+    final boolean sofaFeature;
+
+    /**
+     * Whether the value is a character offset which may need to be converted.
+     */
+    final boolean offsetFeature;
+
+    private FieldReadPlan(Feature aFeature, FieldType aFieldType) {
+      feature = aFeature;
+      fieldType = aFieldType;
+      rangeKind = FeatureRangeKind.of(aFeature.getRange());
+      sofaFeature = CAS.FEATURE_FULL_NAME_SOFA.equals(aFeature.getName());
+      offsetFeature = aFieldType == FieldType.ANCHOR
+              || CAS.FEATURE_FULL_NAME_BEGIN.equals(aFeature.getName())
+              || CAS.FEATURE_FULL_NAME_END.equals(aFeature.getName());
+    }
+  }
+
+  static TypeReadPlan compile(Type aType) {
+    return new TypeReadPlan(aType);
+  }
+}
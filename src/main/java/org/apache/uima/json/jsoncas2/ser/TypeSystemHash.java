@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ser;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.cas.impl.TypeImpl;
+
+/**
+ * Content hash of a type system. The hash covers the same types and features which are written
+ * to the {@code %TYPES} section, so two type systems which would be serialized identically have the
+ * same hash.
+ */
+public final class TypeSystemHash {
+  private static final String ALGORITHM = "SHA-256";
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final TypeSystem typeSystem;
+  private final String value;
+
+  private TypeSystemHash(TypeSystem aTypeSystem, String aValue) {
+    typeSystem = aTypeSystem;
+    value = aValue;
+  }
+
+  public TypeSystem getTypeSystem() {
+    return typeSystem;
+  }
+
+  public String getValue() {
+    return value;
+  }
+
+  public static TypeSystemHash of(TypeSystem aTypeSystem) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance(ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+
+    List<Type> types = StreamSupport.stream(aTypeSystem.spliterator(), false) //
+            .filter(type -> !type.isArray()) //
+            .filter(type -> !TypeSystemSerializer.BUILT_IN_TYPES.contains(type.getName())) //
+            .sorted(comparing(Type::getName)) //
+            .collect(toList());
+
+    for (Type type : types) {
+      update(digest, type.getName());
+      Type parent = ((TypeImpl) type).getSuperType();
+      update(digest, parent != null ? parent.getName() : "");
+
+      List<Feature> localFeatures = type.getFeatures().stream() //
+              .filter(f -> f.getDomain() == type) //
+              .sorted(comparing(Feature::getShortName)) //
+              .collect(toList());
+      for (Feature feature : localFeatures) {
+        update(digest, feature.getShortName());
+        update(digest, feature.getRange().getName());
+        update(digest, Boolean.toString(feature.isMultipleReferencesAllowed()));
+      }
+      update(digest, "");
+    }
+
+    byte[] hash = digest.digest();
+    char[] hex = new char[hash.length * 2];
+    for (int i = 0; i < hash.length; i++) {
+      hex[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+      hex[i * 2 + 1] = HEX[hash[i] & 0xF];
+    }
+
+    return new TypeSystemHash(aTypeSystem, new String(hex));
+  }
+
+  /**
+   * @return the given hash if it was computed for the given type system, otherwise a newly
+   *         computed hash.
+   */
+  public static TypeSystemHash forTypeSystem(TypeSystemHash aCached, TypeSystem aTypeSystem) {
+    if (aCached != null && aCached.typeSystem == aTypeSystem) {
+      return aCached;
+    }
+
+    return of(aTypeSystem);
+  }
+
+  private static void update(MessageDigest aDigest, String aValue) {
+    aDigest.update(aValue.getBytes(UTF_8));
+    aDigest.update((byte) 0);
+  }
+}
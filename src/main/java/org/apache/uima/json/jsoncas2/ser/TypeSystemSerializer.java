@@ -46,7 +46,7 @@ import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 public class TypeSystemSerializer extends StdSerializer<TypeSystem> {
   private static final long serialVersionUID = -4369127219437592227L;
 
-  private static final Set<String> BUILT_IN_TYPES = unmodifiableSet(new HashSet<>(asList(
+  static final Set<String> BUILT_IN_TYPES = unmodifiableSet(new HashSet<>(asList(
           CAS.TYPE_NAME_ANNOTATION, CAS.TYPE_NAME_ANNOTATION_BASE, CAS.TYPE_NAME_ARRAY_BASE,
           CAS.TYPE_NAME_BOOLEAN, CAS.TYPE_NAME_BOOLEAN_ARRAY, CAS.TYPE_NAME_BYTE,
           CAS.TYPE_NAME_BYTE_ARRAY, CAS.TYPE_NAME_DOCUMENT_ANNOTATION, CAS.TYPE_NAME_DOUBLE,
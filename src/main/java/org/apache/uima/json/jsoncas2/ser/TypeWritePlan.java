@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ser;
+
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.NUMERIC_FEATURE_PREFIX;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.REF_FEATURE_PREFIX;
+
+import java.util.List;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.Type;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+/**
+ * Pre-compiled information on how to write the features of a particular type. A plan is built once
+ * per type and contains the pre-encoded field names and the range kind of each feature so that the
+ * serializer does not have to inspect the type system or build field names for every feature
+ * structure. Plans are immutable and can be shared between threads.
+ */
+final class TypeWritePlan {
+  final FeatureWritePlan[] features;
+
+  /**
+   * Whether any of the features carries an offset which may need to be converted.
+   */
+  final boolean hasOffsetFeatures;
+
+  private TypeWritePlan(Type aType) {
+    List<Feature> typeFeatures = aType.getFeatures();
+    features = new FeatureWritePlan[typeFeatures.size()];
+    boolean offsets = false;
+    for (int i = 0; i < features.length; i++) {
+      features[i] = new FeatureWritePlan(typeFeatures.get(i));
+      offsets |= features[i].offsetFeature;
+    }
+    hasOffsetFeatures = offsets;
+  }
+
+  static final class FeatureWritePlan {
+    final Feature feature;
+    final int rangeKind;
+    final boolean offsetFeature;
+
+    /**
+     * The field name - for references it already includes the {@code @} prefix.
+     */
+    final SerializableString fieldName;
+
+    /**
+     * The field name with the {@code #} prefix used to encode special floating point values - only
+     * set for floating point features.
+     */
+    final SerializableString numericFieldName;
+
+    private FeatureWritePlan(Feature aFeature) {
+      feature = aFeature;
+      rangeKind = FeatureRangeKind.of(aFeature.getRange());
+      offsetFeature = CAS.FEATURE_FULL_NAME_BEGIN.equals(aFeature.getName())
+              || CAS.FEATURE_FULL_NAME_END.equals(aFeature.getName());
+
+      String name = aFeature.getShortName();
+      fieldName = new SerializedString(
+              rangeKind == FeatureRangeKind.REFERENCE ? REF_FEATURE_PREFIX + name : name);
+      numericFieldName = rangeKind == FeatureRangeKind.DOUBLE
+              || rangeKind == FeatureRangeKind.FLOAT
+              ? new SerializedString(NUMERIC_FEATURE_PREFIX + name)
+              : null;
+    }
+  }
+
+  static TypeWritePlan compile(Type aType) {
+    return new TypeWritePlan(aType);
+  }
+}
@@ -18,8 +18,8 @@
  */
 package org.apache.uima.json.jsoncas2.ser;
 
-import static org.apache.uima.json.jsoncas2.JsonCas2Names.VIEW_MEMBERS_FIELD;
-import static org.apache.uima.json.jsoncas2.JsonCas2Names.VIEW_SOFA_FIELD;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.VIEW_MEMBERS_FIELD_SERIALIZED;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.VIEW_SOFA_FIELD_SERIALIZED;
 
 import java.io.IOException;
 
@@ -54,15 +54,16 @@ public class ViewsSerializer extends StdSerializer<Views> {
 
       switch (sofaMode) {
         case AS_PART_OF_VIEW:
-          jg.writeFieldName(VIEW_SOFA_FIELD);
+          jg.writeFieldName(VIEW_SOFA_FIELD_SERIALIZED);
           aProvider.defaultSerializeValue(view.getSofa(), jg);
           break;
         case AS_REGULAR_FEATURE_STRUCTURE:
-          jg.writeNumberField(VIEW_SOFA_FIELD, refCache.fsRef(view.getSofa()));
+          jg.writeFieldName(VIEW_SOFA_FIELD_SERIALIZED);
+          jg.writeNumber(refCache.fsRef(view.getSofa()));
           break;
       }
 
-      jg.writeFieldName(VIEW_MEMBERS_FIELD);
+      jg.writeFieldName(VIEW_MEMBERS_FIELD_SERIALIZED);
       jg.writeStartArray();
       for (int fsId : view.getIndexedFSs().stream().mapToInt(refCache::fsRef).sorted().toArray()) {
         jg.writeNumber(fsId);
@@ -34,10 +34,100 @@ import java.util.zip.ZipFile;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.ArrayFS;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.IntArrayFS;
+import org.apache.uima.cas.Type;
 import org.apache.uima.cas.impl.CASMgrSerializer;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
 
 public class Fixtures
 {
+    public static final String TOKEN_TYPE = "x.Token";
+
+    /**
+     * @return a type system with a token annotation type which has a primitive feature, a
+     *         reference to another token, an array of tokens and a primitive array.
+     */
+    public static TypeSystemDescription makeTokenTypeSystem()
+    {
+        TypeSystemDescription tsd = UIMAFramework.getResourceSpecifierFactory()
+                .createTypeSystemDescription();
+        TypeDescription td = tsd.addType(TOKEN_TYPE, null, CAS.TYPE_NAME_ANNOTATION);
+        td.addFeature("lemma", null, CAS.TYPE_NAME_STRING);
+        td.addFeature("next", null, TOKEN_TYPE);
+        td.addFeature("parts", null, CAS.TYPE_NAME_FS_ARRAY, TOKEN_TYPE, false);
+        td.addFeature("values", null, CAS.TYPE_NAME_INTEGER_ARRAY);
+        return tsd;
+    }
+
+    /**
+     * @return a CAS with the {@link #makeTokenTypeSystem() token type system}, the given text and a
+     *         token covering its first five characters.
+     */
+    public static CAS makeTokenCas(String aText) throws ResourceInitializationException
+    {
+        CAS cas = CasCreationUtils.createCas(makeTokenTypeSystem(), null, null);
+        cas.setDocumentText(aText);
+        cas.addFsToIndexes(cas.createAnnotation(cas.getTypeSystem().getType(TOKEN_TYPE), 0,
+                Math.min(5, aText.length())));
+        return cas;
+    }
+
+    /**
+     * @return a CAS with the {@link #makeTokenTypeSystem() token type system}, the given text and
+     *         the given number of overlapping tokens. Each token refers to the next one, holds an
+     *         array with its predecessor and itself, and an array of integers.
+     */
+    public static CAS makeLinkedTokenCas(String aText, int aTokens)
+        throws ResourceInitializationException
+    {
+        CAS cas = CasCreationUtils.createCas(makeTokenTypeSystem(), null, null);
+        cas.setDocumentText(aText);
+        Type tokenType = cas.getTypeSystem().getType(TOKEN_TYPE);
+
+        FeatureStructure previous = null;
+        for (int i = 0; i < aTokens; i++) {
+            FeatureStructure token = cas.createAnnotation(tokenType, i, i + 3);
+            if (previous != null) {
+                previous.setFeatureValue(tokenType.getFeatureByBaseName("next"), token);
+                @SuppressWarnings("unchecked")
+                ArrayFS<FeatureStructure> parts = cas.createArrayFS(2);
+                parts.set(0, previous);
+                parts.set(1, token);
+                token.setFeatureValue(tokenType.getFeatureByBaseName("parts"), parts);
+            }
+            IntArrayFS values = cas.createIntArrayFS(3);
+            values.copyFromArray(new int[] { i, -i, i * i }, 0, 0, 3);
+            token.setFeatureValue(tokenType.getFeatureByBaseName("values"), values);
+            cas.addFsToIndexes(token);
+            previous = token;
+        }
+        return cas;
+    }
+
+    /**
+     * @return a CAS with the default type system, the given text and the given number of
+     *         annotations. The annotations start at different offsets and all end at the end of the
+     *         text.
+     */
+    public static CAS makeAnnotationCas(String aText, int aAnnotations)
+        throws ResourceInitializationException
+    {
+        CAS cas = CasCreationUtils.createCas();
+        cas.setDocumentText(aText);
+        for (int i = 0; i < aAnnotations; i++) {
+            cas.addFsToIndexes(cas.createAnnotation(cas.getAnnotationType(),
+                    i % aText.length(), aText.length()));
+        }
+        return cas;
+    }
+
     public static CASMgrSerializer readCasManager(InputStream tsiInputStream) throws IOException
     {
         try {
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2;
+
+import static java.util.Arrays.copyOfRange;
+import static org.apache.uima.json.jsoncas2.Fixtures.makeLinkedTokenCas;
+import static org.apache.uima.json.jsoncas2.Fixtures.makeTokenTypeSystem;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.json.jsoncas2.mode.DataFormatMode;
+import org.apache.uima.json.jsoncas2.mode.FeatureStructuresMode;
+import org.apache.uima.json.jsoncas2.mode.OffsetConversionMode;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.fasterxml.jackson.core.JsonParseException;
+
+class JsonCas2AsyncReaderTest {
+  // Chunks split multi-byte characters and tokens within strings
+  private static final String TEXT = "Gr\u00fc\u00dfe aus {K\u00f6ln} und \"Bonn\" \ud83d\ude00.";
+
+  @ParameterizedTest
+  @EnumSource(FeatureStructuresMode.class)
+  void thatChunkedInputProducesSameCasAsBlockingInput(FeatureStructuresMode aFsMode)
+          throws Exception {
+    JsonCas2Codec sut = JsonCas2Codec.builder() //
+            .withFsMode(aFsMode) //
+            .withOffsetConversionMode(OffsetConversionMode.UTF_8) //
+            .build();
+
+    ByteArrayOutputStream json = new ByteArrayOutputStream();
+    sut.serialize(makeLinkedTokenCas(TEXT, 10), json);
+    byte[] data = json.toByteArray();
+
+    CAS expected = CasCreationUtils.createCas(makeTokenTypeSystem(), null, null);
+    sut.deserialize(new ByteArrayInputStream(data), expected);
+
+    CAS actual = CasCreationUtils.createCas(makeTokenTypeSystem(), null, null);
+    JsonCas2AsyncReader reader = sut.createAsyncReader(actual);
+    // Chunks which split tokens and multi-byte characters
+    for (int i = 0; i < data.length; i += 7) {
+      reader.feed(copyOfRange(data, i, Math.min(i + 7, data.length)));
+    }
+    assertThat(reader.finish()).isSameAs(actual);
+
+    assertThat(serialize(sut, actual)).isEqualTo(serialize(sut, expected));
+  }
+
+  @Test
+  void thatChunkedSmileInputProducesSameCasAsBlockingInput() throws Exception {
+    JsonCas2Codec sut = JsonCas2Codec.builder() //
+            .withDataFormatMode(DataFormatMode.SMILE) //
+            .build();
+
+    byte[] data = serialize(sut, makeLinkedTokenCas(TEXT, 10));
+
+    CAS expected = CasCreationUtils.createCas(makeTokenTypeSystem(), null, null);
+    sut.deserialize(new ByteArrayInputStream(data), expected);
+
+    CAS actual = CasCreationUtils.createCas(makeTokenTypeSystem(), null, null);
+    JsonCas2AsyncReader reader = sut.createAsyncReader(actual);
+    for (int i = 0; i < data.length; i += 7) {
+      reader.feed(copyOfRange(data, i, Math.min(i + 7, data.length)));
+    }
+    assertThat(reader.finish()).isSameAs(actual);
+
+    assertThat(serialize(sut, actual)).isEqualTo(serialize(sut, expected));
+  }
+
+  @Test
+  void thatCborIsRejected() throws Exception {
+    JsonCas2Codec sut = JsonCas2Codec.builder() //
+            .withDataFormatMode(DataFormatMode.CBOR) //
+            .build();
+
+    CAS cas = CasCreationUtils.createCas(makeTokenTypeSystem(), null, null);
+    assertThatIllegalArgumentException() //
+            .isThrownBy(() -> sut.createAsyncReader(cas)) //
+            .withMessageContaining("CBOR");
+  }
+
+  @Test
+  void thatIncompleteDocumentIsRejected() throws Exception {
+    JsonCas2Codec sut = JsonCas2Codec.builder().build();
+
+    ByteArrayOutputStream json = new ByteArrayOutputStream();
+    sut.serialize(makeLinkedTokenCas(TEXT, 10), json);
+    byte[] data = json.toByteArray();
+
+    JsonCas2AsyncReader reader = sut
+            .createAsyncReader(CasCreationUtils.createCas(makeTokenTypeSystem(), null, null));
+    reader.feed(data, 0, data.length - 1);
+    assertThatExceptionOfType(JsonParseException.class).isThrownBy(reader::finish);
+  }
+
+  private static byte[] serialize(JsonCas2Codec aCodec, CAS aCas) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    aCodec.serialize(aCas, out);
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.uima.json.jsoncas2.Fixtures.TOKEN_TYPE;
+import static org.apache.uima.json.jsoncas2.Fixtures.makeTokenCas;
+import static org.apache.uima.json.jsoncas2.Fixtures.makeTokenTypeSystem;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class JsonCas2BatchReaderTest {
+  private final JsonCas2Codec sut = JsonCas2Codec.builder().build();
+
+  @ParameterizedTest
+  @ValueSource(booleans = { true, false })
+  void thatAllRecordsAreReadIntoTheSameCas(boolean aTypeSystemHeader) throws Exception {
+    List<String> expected = new ArrayList<>();
+    byte[] batch = writeBatch(aTypeSystemHeader, expected, "First.", "Second.", "Third.");
+
+    List<String> actual = new ArrayList<>();
+    CAS cas = CasCreationUtils.createCas(makeTokenTypeSystem(), null, null);
+    try (JsonCas2BatchReader reader = sut.createBatchReader(new ByteArrayInputStream(batch))) {
+      while (reader.read(cas)) {
+        actual.add(serialize(cas));
+      }
+    }
+
+    assertThat(actual).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  void thatIteratorReturnsAllRecords() throws Exception {
+    List<String> expected = new ArrayList<>();
+    byte[] batch = writeBatch(true, expected, "First.", "Second.");
+
+    List<String> actual = new ArrayList<>();
+    CAS cas = CasCreationUtils.createCas(makeTokenTypeSystem(), null, null);
+    try (JsonCas2BatchReader reader = sut.createBatchReader(new ByteArrayInputStream(batch))) {
+      Iterator<CAS> i = reader.iterator(cas);
+      while (i.hasNext()) {
+        actual.add(serialize(i.next()));
+      }
+    }
+
+    assertThat(actual).containsExactlyElementsOf(expected);
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = { true, false })
+  void thatParallelReadingReadsAllRecords(boolean aTypeSystemHeader) throws Exception {
+    String[] texts = new String[50];
+    for (int i = 0; i < texts.length; i++) {
+      texts[i] = "Document " + i + ".";
+    }
+    List<String> expected = new ArrayList<>();
+    byte[] batch = writeBatch(aTypeSystemHeader, expected, texts);
+
+    assertThat(readInParallel(batch, 4)).containsExactlyInAnyOrderElementsOf(expected);
+  }
+
+  @Test
+  void thatParallelReadingHandlesRecordsLargerThanTheReadBlock() throws Exception {
+    StringBuilder longText = new StringBuilder();
+    while (longText.length() < 200_000) {
+      longText.append("Long document. ");
+    }
+    List<String> expected = new ArrayList<>();
+    byte[] batch = writeBatch(true, expected, "Short.", longText.toString(), "Short again.");
+
+    assertThat(readInParallel(batch, 2)).containsExactlyInAnyOrderElementsOf(expected);
+  }
+
+  @Test
+  void thatFirstRecordStartingWithTypesIsNotTakenForHeader() throws Exception {
+    List<String> expected = new ArrayList<>();
+    byte[] batch = writeBatch(false, expected, "First.", "Second.");
+    assertThat(new String(batch, UTF_8)).startsWith("{\"%TYPES\":");
+
+    List<String> actual = new ArrayList<>();
+    CAS cas = CasCreationUtils.createCas(makeTokenTypeSystem(), null, null);
+    try (JsonCas2BatchReader reader = sut.createBatchReader(new ByteArrayInputStream(batch))) {
+      while (reader.read(cas)) {
+        actual.add(serialize(cas));
+      }
+    }
+
+    assertThat(actual).containsExactlyElementsOf(expected);
+    assertThat(readInParallel(batch, 2)).containsExactlyInAnyOrderElementsOf(expected);
+  }
+
+  @Test
+  void thatRecordWithOnlyTypesIsReadAsCas() throws Exception {
+    List<String> expected = new ArrayList<>();
+    expected.add(serialize(CasCreationUtils.createCas(makeTokenTypeSystem(), null, null)));
+    ByteArrayOutputStream batch = new ByteArrayOutputStream();
+    batch.write("{\"%TYPES\":{}}\n".getBytes(UTF_8));
+    batch.write(writeBatch(false, expected, "First."));
+
+    List<String> actual = new ArrayList<>();
+    CAS cas = CasCreationUtils.createCas(makeTokenTypeSystem(), null, null);
+    try (JsonCas2BatchReader reader = sut
+            .createBatchReader(new ByteArrayInputStream(batch.toByteArray()))) {
+      while (reader.read(cas)) {
+        actual.add(serialize(cas));
+      }
+    }
+
+    assertThat(actual).containsExactlyElementsOf(expected);
+    assertThat(readInParallel(batch.toByteArray(), 2))
+            .containsExactlyInAnyOrderElementsOf(expected);
+  }
+
+  @Test
+  void thatHeaderTypesMissingFromTargetCasAreRejected() throws Exception {
+    byte[] batch = writeBatch(true, new ArrayList<>(), "First.");
+
+    CAS cas = CasCreationUtils.createCas();
+    try (JsonCas2BatchReader reader = sut.createBatchReader(new ByteArrayInputStream(batch))) {
+      assertThatExceptionOfType(IOException.class) //
+              .isThrownBy(() -> reader.read(cas)) //
+              .withMessageContaining(TOKEN_TYPE);
+    }
+  }
+
+  private List<String> readInParallel(byte[] aBatch, int aThreads) throws Exception {
+    List<String> actual = Collections.synchronizedList(new ArrayList<>());
+    try (JsonCas2BatchReader reader = sut.createBatchReader(new ByteArrayInputStream(aBatch))) {
+      reader.forEachParallel(aThreads, () -> {
+        try {
+          return CasCreationUtils.createCas(makeTokenTypeSystem(), null, null);
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        }
+      }, cas -> {
+        try {
+          actual.add(serialize(cas));
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        }
+      });
+    }
+    return actual;
+  }
+
+  private byte[] writeBatch(boolean aTypeSystemHeader, List<String> aExpected, String... aTexts)
+          throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (JsonCas2BatchWriter writer = sut.createBatchWriter(out, aTypeSystemHeader)) {
+      for (String text : aTexts) {
+        CAS cas = makeTokenCas(text);
+        writer.write(cas);
+        aExpected.add(serialize(cas));
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private String serialize(CAS aCas) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    sut.serialize(aCas, out);
+    return out.toString(UTF_8.name());
+  }
+}
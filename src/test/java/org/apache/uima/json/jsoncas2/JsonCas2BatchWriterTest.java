@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.uima.json.jsoncas2.Fixtures.TOKEN_TYPE;
+import static org.apache.uima.json.jsoncas2.Fixtures.makeTokenCas;
+import static org.apache.uima.json.jsoncas2.mode.FormattingMode.COMPACT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.ByteArrayOutputStream;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.json.jsoncas2.mode.TypeSystemMode;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.api.Test;
+
+class JsonCas2BatchWriterTest {
+  @Test
+  void thatEachCasIsWrittenAsOneLine() throws Exception {
+    JsonCas2Codec sut = JsonCas2Codec.builder().build();
+    CAS[] cases = { makeTokenCas("First document."), makeTokenCas("Second document."),
+        makeTokenCas("Third document.") };
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (JsonCas2BatchWriter writer = sut.createBatchWriter(out, false)) {
+      for (CAS cas : cases) {
+        writer.write(cas);
+      }
+    }
+
+    JsonCas2Codec compact = JsonCas2Codec.builder().withFormattingMode(COMPACT).build();
+    StringBuilder expected = new StringBuilder();
+    for (CAS cas : cases) {
+      ByteArrayOutputStream single = new ByteArrayOutputStream();
+      compact.serialize(cas, single);
+      expected.append(single.toString(UTF_8.name())).append('\n');
+    }
+
+    assertThat(out.toString(UTF_8.name())).isEqualTo(expected.toString());
+  }
+
+  @Test
+  void thatTypeSystemIsWrittenOnceInHeaderRecord() throws Exception {
+    JsonCas2Codec sut = JsonCas2Codec.builder().build();
+    CAS[] cases = { makeTokenCas("First document."), makeTokenCas("Second document.") };
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (JsonCas2BatchWriter writer = sut.createBatchWriter(out, true)) {
+      for (CAS cas : cases) {
+        writer.write(cas);
+      }
+    }
+
+    JsonCas2Codec compact = JsonCas2Codec.builder() //
+            .withFormattingMode(COMPACT) //
+            .withTypeSystemMode(TypeSystemMode.NONE) //
+            .build();
+    String[] lines = out.toString(UTF_8.name()).split("\n");
+    assertThat(lines).hasSize(3);
+    assertThat(lines[0]).startsWith("{\"%BATCH_HEADER\":{\"%TYPES\":{\"" + TOKEN_TYPE + "\":");
+    for (int i = 0; i < cases.length; i++) {
+      ByteArrayOutputStream single = new ByteArrayOutputStream();
+      compact.serialize(cases[i], single);
+      assertThat(lines[i + 1]).isEqualTo(single.toString(UTF_8.name()));
+    }
+  }
+
+  @Test
+  void thatMixingTypeSystemsWithHeaderFails() throws Exception {
+    JsonCas2Codec sut = JsonCas2Codec.builder().build();
+
+    try (JsonCas2BatchWriter writer = sut.createBatchWriter(new ByteArrayOutputStream(), true)) {
+      writer.write(makeTokenCas("First document."));
+      assertThatExceptionOfType(IllegalArgumentException.class)
+              .isThrownBy(() -> writer.write(CasCreationUtils.createCas()));
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.json.jsoncas2.mode.FeatureStructuresMode;
+import org.apache.uima.json.jsoncas2.mode.FormattingMode;
+import org.apache.uima.json.jsoncas2.mode.StreamingMode;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class JsonCas2ChunkSourceTest {
+  @ParameterizedTest
+  @CsvSource({ //
+      "AS_ARRAY, BUFFERED, PRETTY", //
+      "AS_ARRAY, BUFFERED, COMPACT", //
+      "AS_ARRAY, STREAMING, PRETTY", //
+      "AS_OBJECT, BUFFERED, PRETTY" })
+  void thatChunksProduceSameOutputAsSerialize(FeatureStructuresMode aFsMode,
+          StreamingMode aStreamingMode, FormattingMode aFormattingMode) throws Exception {
+    CAS cas = CasCreationUtils.createCas();
+    cas.setDocumentText("This is a test.");
+    for (int i = 0; i < 1000; i++) {
+      FeatureStructure fs = cas.createAnnotation(cas.getAnnotationType(), i % 15, 15);
+      if (i % 2 == 0) {
+        // Not indexed, so it is only reached through the array
+        cas.addFsToIndexes(cas.createArrayFS(1));
+      }
+      cas.addFsToIndexes(fs);
+    }
+
+    JsonCas2Codec sut = JsonCas2Codec.builder() //
+            .withFsMode(aFsMode) //
+            .withStreamingMode(aStreamingMode) //
+            .withFormattingMode(aFormattingMode) //
+            .build();
+
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    sut.serialize(cas, expected);
+
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    try (JsonCas2ChunkSource source = sut.createChunkSource(cas, 100)) {
+      ByteBuffer chunk;
+      while ((chunk = source.nextChunk()) != null) {
+        assertThat(chunk.remaining()).isBetween(1, 100);
+        byte[] bytes = new byte[chunk.remaining()];
+        chunk.get(bytes);
+        actual.write(bytes);
+      }
+    }
+
+    assertThat(actual.toString(UTF_8.name())).isEqualTo(expected.toString(UTF_8.name()));
+  }
+}
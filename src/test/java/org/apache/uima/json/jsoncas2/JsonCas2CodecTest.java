@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.uima.json.jsoncas2.Fixtures.makeAnnotationCas;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.json.jsoncas2.mode.FeatureStructuresMode;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.api.Test;
+
+class JsonCas2CodecTest {
+  @Test
+  void thatCodecProducesSameOutputAsSerializer() throws Exception {
+    CAS cas = makeAnnotationCas("This is a test.", 2);
+
+    JsonCas2Serializer serializer = new JsonCas2Serializer();
+    serializer.setFsMode(FeatureStructuresMode.AS_OBJECT);
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    serializer.serialize(cas, expected);
+
+    JsonCas2Codec sut = JsonCas2Codec.builder() //
+            .withFsMode(FeatureStructuresMode.AS_OBJECT) //
+            .build();
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    sut.serialize(cas, actual);
+
+    assertThat(actual.toString(UTF_8.name())).isEqualTo(expected.toString(UTF_8.name()));
+  }
+
+  @Test
+  void thatCodecCanBeSharedBetweenThreads() throws Exception {
+    JsonCas2Codec sut = JsonCas2Codec.builder().build();
+
+    assertRoundTripsConcurrently((json, cas) -> {
+      sut.deserialize(new ByteArrayInputStream(json), cas);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      sut.serialize(cas, out);
+      return out.toByteArray();
+    });
+  }
+
+  @Test
+  void thatSerializerAndDeserializerCanBeSharedBetweenThreads() throws Exception {
+    JsonCas2Serializer serializer = new JsonCas2Serializer();
+    JsonCas2Deserializer deserializer = new JsonCas2Deserializer();
+
+    assertRoundTripsConcurrently((json, cas) -> {
+      deserializer.deserialize(new ByteArrayInputStream(json), cas);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      serializer.serialize(cas, out);
+      return out.toByteArray();
+    });
+  }
+
+  /**
+   * Round-trips documents of different sizes concurrently, so any state leaking between threads
+   * shows up as wrong texts or IDs.
+   */
+  private static void assertRoundTripsConcurrently(RoundTrip aRoundTrip) throws Exception {
+    JsonCas2Codec reference = JsonCas2Codec.builder().build();
+    List<byte[]> documents = new ArrayList<>();
+    for (int i = 0; i < 16; i++) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      reference.serialize(makeAnnotationCas("Document number " + i + ".", i % 5 + 1), out);
+      documents.add(out.toByteArray());
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<byte[]>> results = new ArrayList<>();
+      for (byte[] json : documents) {
+        results.add(executor.submit(() -> aRoundTrip.apply(json, CasCreationUtils.createCas())));
+      }
+
+      for (int i = 0; i < documents.size(); i++) {
+        assertThat(new String(results.get(i).get(), UTF_8))
+                .isEqualTo(new String(documents.get(i), UTF_8));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @FunctionalInterface
+  private interface RoundTrip {
+    byte[] apply(byte[] aJson, CAS aTargetCas) throws Exception;
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.uima.json.jsoncas2.Fixtures.TOKEN_TYPE;
+import static org.apache.uima.json.jsoncas2.Fixtures.makeTokenCas;
+import static org.apache.uima.json.jsoncas2.Fixtures.makeTokenTypeSystem;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.impl.CASImpl;
+import org.apache.uima.cas.impl.CasCompare;
+import org.apache.uima.json.jsoncas2.mode.TypeSystemMode;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.api.Test;
+
+class TypeSystemRegistryTest {
+  @Test
+  void thatEquivalentTypeSystemsHaveTheSameHash() throws Exception {
+    TypeSystemRegistry sut = new TypeSystemRegistry();
+
+    String hash1 = sut.register(makeTokenTypeSystem());
+    String hash2 = sut.register(makeTokenTypeSystem());
+    String hash3 = sut.register(CasCreationUtils.createCas().getTypeSystem());
+
+    assertThat(hash1).isEqualTo(hash2).isNotEqualTo(hash3);
+    assertThat(sut.getDescription(hash1).getType(TOKEN_TYPE)).isNotNull();
+  }
+
+  @Test
+  void thatDocumentWithTypeSystemHashCanBeReadIntoNewCas() throws Exception {
+    CAS cas = makeTokenCas("Hello world.");
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JsonCas2Codec.builder().withTypeSystemMode(TypeSystemMode.HASH).build().serialize(cas, out);
+    String json = out.toString(UTF_8.name());
+
+    TypeSystemRegistry registry = new TypeSystemRegistry();
+    String hash = registry.register(makeTokenTypeSystem());
+    assertThat(json) //
+            .contains("\"type-system-hash\" : \"" + hash + "\"") //
+            .doesNotContain("%TYPES");
+
+    CAS cas2 = JsonCas2Codec.builder().withTypeSystemRegistry(registry).build()
+            .deserialize(new ByteArrayInputStream(out.toByteArray()));
+
+    assertThat(CasCompare.compareCASes((CASImpl) cas, (CASImpl) cas2)).isTrue();
+  }
+
+  @Test
+  void thatUnknownTypeSystemHashIsRejected() throws Exception {
+    CAS cas = CasCreationUtils.createCas(makeTokenTypeSystem(), null, null);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JsonCas2Codec.builder().withTypeSystemMode(TypeSystemMode.HASH).build().serialize(cas, out);
+
+    JsonCas2Codec sut = JsonCas2Codec.builder().withTypeSystemRegistry(new TypeSystemRegistry())
+            .build();
+    assertThatExceptionOfType(IOException.class)
+            .isThrownBy(() -> sut.deserialize(new ByteArrayInputStream(out.toByteArray())))
+            .withMessageContaining("Unknown type system");
+  }
+
+  @Test
+  void thatTargetCasWithDifferentTypeSystemIsRejected() throws Exception {
+    CAS cas = CasCreationUtils.createCas(makeTokenTypeSystem(), null, null);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JsonCas2Codec.builder().withTypeSystemMode(TypeSystemMode.HASH).build().serialize(cas, out);
+
+    JsonCas2Codec sut = JsonCas2Codec.builder().build();
+    CAS target = CasCreationUtils.createCas();
+    assertThatExceptionOfType(IOException.class)
+            .isThrownBy(() -> sut.deserialize(new ByteArrayInputStream(out.toByteArray()), target))
+            .withMessageContaining("requires type system");
+
+    // The same type system is accepted, even if it is a different instance
+    sut.deserialize(new ByteArrayInputStream(out.toByteArray()),
+            CasCreationUtils.createCas(makeTokenTypeSystem(), null, null));
+  }
+}
@@ -124,6 +124,21 @@ public class Utf8ByteOffsetConverterTest {
     }
   }
 
+  @Test
+  public void thatRunsOfCharactersWithSameWidthShareASegment() {
+    String text = "Hello \u4e16\u754c\u4e16\u754c world";
+    Utf8ByteOffsetConverter conv = new Utf8ByteOffsetConverter(text);
+
+    assertThat(conv.getSegmentCount()).isEqualTo(3);
+    assertThat(conv.mapInternal(7)).isEqualTo(9);
+    assertThat(conv.mapInternal(10)).isEqualTo(18);
+    assertThat(conv.mapExternal(18)).isEqualTo(10);
+    assertThat(conv.mapExternal(19)).isEqualTo(11);
+    assertThat(conv.mapExternal(8)).isEqualTo(Utf8ByteOffsetConverter.UNMAPPED);
+    assertThat(conv.mapInternal(text.length())).isEqualTo(text.getBytes(UTF_8).length);
+    assertThat(new Utf8ByteOffsetConverter("Only ASCII").getSegmentCount()).isEqualTo(1);
+  }
+
   @Test
   public void thatSerializationWithMappingWorks() throws Exception {
     JsonCas2Serializer ser = new JsonCas2Serializer();
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.json.jsoncas2.JsonCas2Codec;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ChannelOutputStreamTest {
+  @Test
+  void thatSuppliedBufferCanBeReusedAcrossFiles(@TempDir
+  Path aTemp) throws Exception {
+    Random rnd = new Random(42);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(100);
+
+    for (int i = 0; i < 3; i++) {
+      byte[] data = new byte[250 + i * 50];
+      rnd.nextBytes(data);
+
+      Path file = aTemp.resolve("data" + i + ".bin");
+      try (OutputStream os = ChannelOutputStream.open(file, buffer)) {
+        os.write(data[0]);
+        os.write(data, 1, data.length - 1);
+      }
+
+      assertThat(Files.readAllBytes(file)).isEqualTo(data);
+    }
+  }
+
+  @Test
+  void thatSerializingToPathProducesSameOutputAsStream(@TempDir
+  Path aTemp) throws Exception {
+    CAS cas = CasCreationUtils.createCas();
+    cas.setDocumentText("This is a test.");
+    for (int i = 0; i < 100; i++) {
+      cas.addFsToIndexes(cas.createAnnotation(cas.getAnnotationType(), i % 10, 10));
+    }
+    JsonCas2Codec sut = JsonCas2Codec.builder().build();
+
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    sut.serialize(cas, expected);
+
+    Path file = aTemp.resolve("cas.json");
+    sut.serialize(cas, file);
+    assertThat(Files.readAllBytes(file)).isEqualTo(expected.toByteArray());
+
+    // Much smaller than the document, so the buffer is drained many times
+    Path smallBufferFile = aTemp.resolve("cas-small-buffer.json");
+    sut.serialize(cas, smallBufferFile, ByteBuffer.allocate(100));
+    assertThat(Files.readAllBytes(smallBufferFile)).isEqualTo(expected.toByteArray());
+  }
+}
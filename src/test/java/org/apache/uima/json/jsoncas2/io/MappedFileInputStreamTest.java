@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.io;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.json.jsoncas2.JsonCas2Codec;
+import org.apache.uima.json.jsoncas2.JsonCas2Deserializer;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedFileInputStreamTest {
+  @Test
+  void thatContentSpanningMultipleRegionsIsReadCompletely(@TempDir
+  Path aTemp) throws Exception {
+    byte[] data = new byte[10_000];
+    new Random(42).nextBytes(data);
+
+    Path file = aTemp.resolve("data.bin");
+    // Small buffer so that writes span multiple buffer drains
+    try (OutputStream os = new ChannelOutputStream(Files.newByteChannel(file, CREATE, WRITE),
+            100)) {
+      os.write(data[0]);
+      os.write(data, 1, data.length - 1);
+    }
+    assertThat(Files.readAllBytes(file)).isEqualTo(data);
+
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    try (MappedFileInputStream is = MappedFileInputStream.open(file, 333)) {
+      assertThat(is.available()).isEqualTo(data.length);
+      actual.write(is.read());
+      assertThat(is.skip(500)).isEqualTo(500);
+      byte[] chunk = new byte[256];
+      int n;
+      while ((n = is.read(chunk, 0, chunk.length)) != -1) {
+        actual.write(chunk, 0, n);
+      }
+      assertThat(is.read()).isEqualTo(-1);
+    }
+
+    byte[] expected = new byte[data.length - 500];
+    expected[0] = data[0];
+    System.arraycopy(data, 501, expected, 1, data.length - 501);
+    assertThat(actual.toByteArray()).isEqualTo(expected);
+  }
+
+  @Test
+  void thatRegionSizesWhichCannotBeMappedAreRejected(@TempDir
+  Path aTemp) throws Exception {
+    Path file = Files.write(aTemp.resolve("data.bin"), new byte[1]);
+
+    assertThatIllegalArgumentException()
+            .isThrownBy(() -> MappedFileInputStream.open(file, 0));
+    assertThatIllegalArgumentException()
+            .isThrownBy(() -> MappedFileInputStream.open(file, Integer.MAX_VALUE + 1L));
+  }
+
+  @Test
+  void thatDeserializingFromPathReadsAcrossRegions(@TempDir
+  Path aTemp) throws Exception {
+    CAS cas = CasCreationUtils.createCas();
+    cas.setDocumentText("This is a test with a \u00e4 and a \ud83d\ude00.");
+    for (int i = 0; i < 100; i++) {
+      cas.addFsToIndexes(cas.createAnnotation(cas.getAnnotationType(), i % 10, 10));
+    }
+
+    // Regions much smaller than the document, so tokens and characters are split between them
+    JsonCas2Codec sut = JsonCas2Codec.builder().withMappedRegionSize(333).build();
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    sut.serialize(cas, expected);
+    Path file = aTemp.resolve("cas.json");
+    Files.write(file, expected.toByteArray());
+    assertThat(Files.size(file)).isGreaterThan(10 * 333);
+
+    CAS fromCodec = CasCreationUtils.createCas();
+    sut.deserialize(file, fromCodec);
+    assertThat(serialize(sut, fromCodec)).isEqualTo(expected.toByteArray());
+
+    JsonCas2Deserializer deserializer = new JsonCas2Deserializer();
+    deserializer.setMappedRegionSize(333);
+    CAS fromDeserializer = CasCreationUtils.createCas();
+    deserializer.deserialize(file, fromDeserializer);
+    assertThat(serialize(sut, fromDeserializer)).isEqualTo(expected.toByteArray());
+  }
+
+  private static byte[] serialize(JsonCas2Codec aCodec, CAS aCas) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    aCodec.serialize(aCas, out);
+    return out.toByteArray();
+  }
+}
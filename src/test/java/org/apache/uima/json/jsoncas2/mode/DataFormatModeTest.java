@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.mode;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.uima.json.jsoncas2.Fixtures.makeAnnotationCas;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.apache.uima.cas.ByteArrayFS;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.DoubleArrayFS;
+import org.apache.uima.cas.IntArrayFS;
+import org.apache.uima.json.jsoncas2.JsonCas2Codec;
+import org.apache.uima.json.jsoncas2.JsonCas2Deserializer;
+import org.apache.uima.json.jsoncas2.JsonCas2Serializer;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class DataFormatModeTest {
+  private final JsonCas2Codec json = JsonCas2Codec.builder().build();
+
+  @ParameterizedTest
+  @CsvSource({ "SMILE, ARRAY", "SMILE, BASE64", "CBOR, ARRAY", "CBOR, BASE64" })
+  void thatBinaryFormatsRoundTripTheSameCasAsJson(DataFormatMode aDataFormatMode,
+          ArrayEncodingMode aArrayEncodingMode) throws Exception {
+    CAS cas = makeCas();
+    String expected = serialize(cas);
+
+    JsonCas2Codec sut = JsonCas2Codec.builder() //
+            .withDataFormatMode(aDataFormatMode) //
+            .withArrayEncodingMode(aArrayEncodingMode) //
+            .build();
+    ByteArrayOutputStream binary = new ByteArrayOutputStream();
+    sut.serialize(cas, binary);
+    assertThat(binary.size()).isLessThan(expected.getBytes(UTF_8).length);
+
+    CAS target = CasCreationUtils.createCas();
+    sut.deserialize(new ByteArrayInputStream(binary.toByteArray()), target);
+
+    assertThat(serialize(target)).isEqualTo(expected);
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = DataFormatMode.class, names = { "SMILE", "CBOR" })
+  void thatSerializerAndDeserializerRoundTripBinaryFormats(DataFormatMode aDataFormatMode)
+          throws Exception {
+    CAS cas = makeCas();
+
+    JsonCas2Serializer serializer = new JsonCas2Serializer();
+    serializer.setDataFormatMode(aDataFormatMode);
+    ByteArrayOutputStream binary = new ByteArrayOutputStream();
+    serializer.serialize(cas, binary);
+
+    JsonCas2Deserializer deserializer = new JsonCas2Deserializer();
+    deserializer.setDataFormatMode(aDataFormatMode);
+    CAS target = CasCreationUtils.createCas();
+    deserializer.deserialize(new ByteArrayInputStream(binary.toByteArray()), target);
+
+    assertThat(serialize(target)).isEqualTo(serialize(cas));
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = DataFormatMode.class, names = { "SMILE", "CBOR" })
+  void thatBatchesCannotUseBinaryFormats(DataFormatMode aDataFormatMode) {
+    JsonCas2Codec sut = JsonCas2Codec.builder().withDataFormatMode(aDataFormatMode).build();
+
+    assertThatIllegalArgumentException() //
+            .isThrownBy(() -> sut.createBatchWriter(new ByteArrayOutputStream(), true));
+    assertThatIllegalArgumentException() //
+            .isThrownBy(() -> sut.createBatchReader(new ByteArrayInputStream(new byte[0])));
+  }
+
+  private String serialize(CAS aCas) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    json.serialize(aCas, out);
+    return out.toString(UTF_8.name());
+  }
+
+  /**
+   * @return a CAS with annotations and the kinds of primitive arrays which the binary formats
+   *         encode natively.
+   */
+  private static CAS makeCas() throws Exception {
+    // Characters outside of ASCII and the BMP must survive the binary encodings as well
+    CAS cas = makeAnnotationCas("This is a t\u00e4st \ud83d\ude00.", 2);
+
+    DoubleArrayFS doubles = cas.createDoubleArrayFS(3);
+    doubles.copyFromArray(new double[] { 1.5, Double.NaN, Double.NEGATIVE_INFINITY }, 0, 0, 3);
+    cas.addFsToIndexes(doubles);
+    IntArrayFS ints = cas.createIntArrayFS(2);
+    ints.copyFromArray(new int[] { 42, -1 }, 0, 0, 2);
+    cas.addFsToIndexes(ints);
+    ByteArrayFS bytes = cas.createByteArrayFS(3);
+    bytes.copyFromArray(new byte[] { 0, -128, 127 }, 0, 0, 3);
+    cas.addFsToIndexes(bytes);
+    cas.addFsToIndexes(cas.createByteArrayFS(0));
+    return cas;
+  }
+}
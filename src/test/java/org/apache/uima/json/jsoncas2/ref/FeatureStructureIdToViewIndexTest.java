@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ref;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class FeatureStructureIdToViewIndexTest {
+  @Test
+  public void thatSingleAndMultiViewAssignmentsWork() {
+    FeatureStructureIdToViewIndex sut = new FeatureStructureIdToViewIndex();
+
+    sut.assignFsToView(1, "view1");
+    sut.assignFsToView(2, "view1");
+    sut.assignFsToView(2, "view2");
+    sut.assignFsToView(2, "view1");
+    sut.assignFsToView(3, "view1");
+    sut.assignFsToView(3, "view2");
+    sut.assignFsToView(3, "view3");
+    sut.assignFsToView(5_000_000, "view2");
+    sut.assignFsToView(-1, "view3");
+
+    assertThat(sut.getViewsContainingFs(1)).containsExactly("view1");
+    assertThat(sut.getViewsContainingFs(2)).containsExactlyInAnyOrder("view1", "view2");
+    assertThat(sut.getViewsContainingFs(3)).containsExactlyInAnyOrder("view1", "view2", "view3");
+    assertThat(sut.getViewsContainingFs(4)).isEmpty();
+    assertThat(sut.getViewsContainingFs(5_000_000)).containsExactly("view2");
+    assertThat(sut.getViewsContainingFs(-1)).containsExactly("view3");
+  }
+
+  @Test
+  public void thatManyFeatureStructuresCanBeAssigned() {
+    FeatureStructureIdToViewIndex sut = new FeatureStructureIdToViewIndex();
+
+    for (int id = 1; id <= 100_000; id++) {
+      sut.assignFsToView(id, id % 2 == 0 ? "even" : "odd");
+    }
+
+    assertThat(sut.getViewsContainingFs(1)).containsExactly("odd");
+    assertThat(sut.getViewsContainingFs(100_000)).containsExactly("even");
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ref;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FeatureStructureToIdIndexTest {
+  private CAS cas;
+
+  @BeforeEach
+  public void setup() throws Exception {
+    cas = CasCreationUtils.createCas();
+  }
+
+  @Test
+  public void thatFeatureStructuresAreIteratedInIdOrder() {
+    FeatureStructureToIdIndex sut = new FeatureStructureToIdIndex();
+
+    int[] ids = { 5, 1, 100_000, -3, 3, 1_000, 2 };
+    for (int id : ids) {
+      sut.put(id, createFs());
+    }
+
+    List<Integer> actual = new ArrayList<>();
+    sut.forEach((fs, id) -> actual.add(id));
+
+    assertThat(actual).containsExactly(-3, 1, 2, 3, 5, 1_000, 100_000);
+  }
+
+  @Test
+  public void thatLookupWorksForDenseAndSparseIds() {
+    FeatureStructureToIdIndex sut = new FeatureStructureToIdIndex();
+
+    FeatureStructure sparse = createFs();
+    sut.put(10_000, sparse);
+
+    List<FeatureStructure> dense = new ArrayList<>();
+    for (int id = 1; id <= 20_000; id++) {
+      if (id != 10_000) {
+        FeatureStructure fs = createFs();
+        dense.add(fs);
+        sut.put(id, fs);
+      }
+    }
+
+    assertThat(sut.getOrNull(10_000)).isSameAs(sparse);
+    assertThat(sut.getOrNull(1)).isSameAs(dense.get(0));
+    assertThat(sut.getOrNull(20_000)).isSameAs(dense.get(dense.size() - 1));
+    assertThat(sut.getOrNull(0)).isNull();
+    assertThat(sut.getOrNull(-1)).isNull();
+    assertThat(sut.get(sparse)).hasValue(10_000);
+    assertThat(sut.getAllFeatureStructures()).hasSize(20_000);
+  }
+
+  private FeatureStructure createFs() {
+    return cas.createFS(cas.getTypeSystem().getTopType());
+  }
+}
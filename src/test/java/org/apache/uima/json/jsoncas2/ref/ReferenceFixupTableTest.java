@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ref;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.NoSuchElementException;
+
+import org.apache.uima.cas.ArrayFS;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ReferenceFixupTableTest {
+  private CAS cas;
+
+  @BeforeEach
+  public void setup() throws Exception {
+    cas = CasCreationUtils.createCas();
+  }
+
+  @Test
+  public void thatFeatureAndArraySlotReferencesAreResolved() {
+    ReferenceFixupTable sut = new ReferenceFixupTable();
+    FeatureStructureToIdIndex idToFsIndex = new FeatureStructureToIdIndex();
+
+    @SuppressWarnings("unchecked")
+    ArrayFS<FeatureStructure> array = cas.createArrayFS(100);
+    for (int i = 0; i < array.size(); i++) {
+      sut.addArraySlotFixup(array, i, i + 1);
+    }
+
+    FeatureStructure head = cas
+            .createFS(cas.getTypeSystem().getType(CAS.TYPE_NAME_NON_EMPTY_FS_LIST));
+    Feature headFeature = head.getType().getFeatureByBaseName(CAS.FEATURE_BASE_NAME_HEAD);
+    sut.addFeatureFixup(head, headFeature, 1);
+
+    for (int i = 0; i < array.size(); i++) {
+      idToFsIndex.put(i + 1, cas.createFS(cas.getTypeSystem().getType(CAS.TYPE_NAME_TOP)));
+    }
+
+    assertThat(sut.size()).isEqualTo(101);
+
+    sut.resolve(idToFsIndex);
+
+    assertThat(sut.isEmpty()).isTrue();
+    assertThat(head.getFeatureValue(headFeature)).isSameAs(idToFsIndex.getOrNull(1));
+    for (int i = 0; i < array.size(); i++) {
+      FeatureStructure element = array.get(i);
+      assertThat(element).isSameAs(idToFsIndex.getOrNull(i + 1));
+    }
+  }
+
+  @Test
+  public void thatUnresolvableReferenceFails() {
+    ReferenceFixupTable sut = new ReferenceFixupTable();
+
+    @SuppressWarnings("unchecked")
+    ArrayFS<FeatureStructure> array = cas.createArrayFS(1);
+    sut.addArraySlotFixup(array, 0, 42);
+
+    assertThatExceptionOfType(NoSuchElementException.class)
+            .isThrownBy(() -> sut.resolve(new FeatureStructureToIdIndex()))
+            .withMessageContaining("[42]");
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ser;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.apache.uima.json.jsoncas2.Fixtures.makeAnnotationCas;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.json.jsoncas2.JsonCas2Codec;
+import org.junit.jupiter.api.Test;
+
+class CasSerializationContextTest {
+  private final JsonCas2Codec sut = JsonCas2Codec.builder().build();
+
+  @Test
+  void thatReusedContextProducesSameOutputAsFreshContext() throws Exception {
+    CAS cas1 = makeAnnotationCas("This is a test.", 2);
+    CAS cas2 = makeAnnotationCas("Other", 1);
+    CasSerializationContext context = sut.createContext();
+
+    for (CAS cas : asList(cas1, cas2, cas1)) {
+      assertThat(serialize(cas, context)).isEqualTo(serialize(cas, null));
+    }
+  }
+
+  @Test
+  void thatContextCanBeReusedAfterFailedSerialization() throws Exception {
+    // Large enough that the generator flushes into the failing stream before it is done
+    CAS large = makeAnnotationCas("This is a larger test.", 1000);
+    CAS small = makeAnnotationCas("Other", 1);
+    CasSerializationContext context = sut.createContext();
+
+    OutputStream failing = new OutputStream() {
+      @Override
+      public void write(int aByte) throws IOException {
+        throw new IOException("Disk full");
+      }
+    };
+    assertThatExceptionOfType(IOException.class) //
+            .isThrownBy(() -> sut.serialize(large, failing, context));
+
+    assertThat(serialize(small, context)).isEqualTo(serialize(small, null));
+  }
+
+  private String serialize(CAS aCas, CasSerializationContext aContext) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    if (aContext != null) {
+      sut.serialize(aCas, out, aContext);
+    } else {
+      sut.serialize(aCas, out);
+    }
+    return out.toString(UTF_8.name());
+  }
+}
@@ -19,15 +19,41 @@
 package org.apache.uima.json.jsoncas2.ser;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
 import static org.apache.uima.UIMAFramework.getResourceSpecifierFactory;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.FEATURE_STRUCTURES_FIELD;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.ID_FIELD;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.TYPES_FIELD;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.TYPE_FIELD;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.VIEWS_FIELD;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.VIEW_MEMBERS_FIELD;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.contentOf;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.uima.cas.ArrayFS;
 import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.DoubleArrayFS;
 import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.FloatArrayFS;
+import org.apache.uima.cas.LongArrayFS;
+import org.apache.uima.cas.Type;
+import org.apache.uima.jcas.cas.DoubleArray;
+import org.apache.uima.jcas.cas.FloatArray;
+import org.apache.uima.jcas.cas.LongArray;
+import org.apache.uima.json.jsoncas2.JsonCas2Deserializer;
 import org.apache.uima.json.jsoncas2.JsonCas2Serializer;
+import org.apache.uima.json.jsoncas2.mode.ArrayEncodingMode;
+import org.apache.uima.json.jsoncas2.mode.FormattingMode;
+import org.apache.uima.json.jsoncas2.mode.OffsetConversionMode;
+import org.apache.uima.json.jsoncas2.mode.ParallelMode;
+import org.apache.uima.json.jsoncas2.mode.StreamingMode;
 import org.apache.uima.json.jsoncas2.mode.TypeSystemMode;
 import org.apache.uima.resource.metadata.TypeDescription;
 import org.apache.uima.resource.metadata.TypeSystemDescription;
@@ -36,6 +62,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 class CasSerializerTest {
   private final static String USED_ANNOTATION_TYPE = "custom.UsedAnnotationType";
 
@@ -96,6 +125,259 @@ class CasSerializerTest {
             contentOf(getClass().getResource("/CasSerializerTest/noTypeSystem.json"), UTF_8));
   }
 
+  @Test
+  void thatStreamingModeWritesAllReachableFeatureStructures(@TempDir
+  File aTemp) throws Exception {
+    CAS cas = CasCreationUtils.createCas(makeTypeSystem(), null, null);
+    cas.setDocumentText("This is a test.");
+    FeatureStructure fs = createFeatureStructure(USED_ANNOTATION_TYPE, cas);
+    Type type = fs.getType();
+    // Neither the range nor the array elements are indexed, so they must be found by reference
+    fs.setFeatureValue(type.getFeatureByBaseName("feat1"), cas.createAnnotation(
+            cas.getTypeSystem().getType(ANNOTATION_TYPE_USED_FROM_RANGE), 0, 4));
+    @SuppressWarnings("unchecked")
+    ArrayFS<FeatureStructure> array = cas.createArrayFS(1);
+    array.set(0, cas.createAnnotation(
+            cas.getTypeSystem().getType(ANNOTATION_TYPE_USED_FROM_COMPONENT), 5, 7));
+    fs.setFeatureValue(type.getFeatureByBaseName("feat2"), array);
+
+    File buffered = new File(aTemp, "buffered.json");
+    sut.serialize(cas, buffered);
+
+    File streamed = new File(aTemp, "streamed.json");
+    sut.setStreamingMode(StreamingMode.STREAMING);
+    sut.serialize(cas, streamed);
+
+    CAS cas2 = CasCreationUtils.createCas(makeTypeSystem(), null, null);
+    new JsonCas2Deserializer().deserialize(streamed, cas2);
+    File roundTripped = new File(aTemp, "roundTripped.json");
+    new JsonCas2Serializer().serialize(cas2, roundTripped);
+
+    assertThat(contentOf(roundTripped, UTF_8)).isEqualTo(contentOf(buffered, UTF_8));
+  }
+
+  @Test
+  void thatStreamingModeWritesEmptyCasesAndViews(@TempDir
+  File aTemp) throws Exception {
+    CAS cas = CasCreationUtils.createCas(makeTypeSystem(), null, null);
+    sut.setStreamingMode(StreamingMode.STREAMING);
+
+    File empty = new File(aTemp, "empty.json");
+    sut.serialize(cas, empty);
+    assertThat(new ObjectMapper().readTree(empty).has(FEATURE_STRUCTURES_FIELD)).isFalse();
+
+    cas.setDocumentText("This is a test.");
+    cas.createView("other");
+    File streamed = new File(aTemp, "streamed.json");
+    sut.serialize(cas, streamed);
+
+    File buffered = new File(aTemp, "buffered.json");
+    new JsonCas2Serializer().serialize(cas, buffered);
+
+    // The streaming mode writes the feature structures in the order in which it reaches them
+    JsonNode expected = new ObjectMapper().readTree(buffered);
+    JsonNode actual = new ObjectMapper().readTree(streamed);
+    assertThat(actual.get(FEATURE_STRUCTURES_FIELD).size())
+            .isEqualTo(expected.get(FEATURE_STRUCTURES_FIELD).size());
+    assertThat(describeMembers(actual, CAS.NAME_DEFAULT_SOFA))
+            .containsExactlyElementsOf(describeMembers(expected, CAS.NAME_DEFAULT_SOFA));
+    assertThat(describeMembers(actual, "other")).isEmpty();
+
+    CAS cas2 = CasCreationUtils.createCas(makeTypeSystem(), null, null);
+    new JsonCas2Deserializer().deserialize(streamed, cas2);
+    assertThat(cas2.getView("other").select().isEmpty()).isTrue();
+  }
+
+  @Test
+  void thatStreamingModeWritesTheMembersOfAllViews(@TempDir
+  File aTemp) throws Exception {
+    CAS cas = CasCreationUtils.createCas(makeTypeSystem(), null, null);
+    cas.setDocumentText("This is a test.");
+    CAS view = cas.createView("other");
+    view.setDocumentText("Another test.");
+    Type type = cas.getTypeSystem().getType(USED_ANNOTATION_TYPE);
+    Type rangeType = cas.getTypeSystem().getType(ANNOTATION_TYPE_USED_FROM_RANGE);
+    FeatureStructure inInitialView = cas.createAnnotation(type, 0, 4);
+    inInitialView.setFeatureValue(type.getFeatureByBaseName("feat1"),
+            cas.createAnnotation(rangeType, 5, 7));
+    cas.addFsToIndexes(inInitialView);
+    view.addFsToIndexes(view.createAnnotation(type, 8, 12));
+    // Indexed in both views, so it must be written only once
+    FeatureStructure inBothViews = cas.createFS(cas.getTypeSystem().getTopType());
+    cas.addFsToIndexes(inBothViews);
+    view.addFsToIndexes(inBothViews);
+
+    // Minimal mode needs the used types before the feature structures are written
+    sut.setTypeSystemMode(TypeSystemMode.MINIMAL);
+    File buffered = new File(aTemp, "buffered.json");
+    sut.serialize(cas, buffered);
+    File streamed = new File(aTemp, "streamed.json");
+    sut.setStreamingMode(StreamingMode.STREAMING);
+    sut.serialize(cas, streamed);
+
+    JsonNode expected = new ObjectMapper().readTree(buffered);
+    JsonNode actual = new ObjectMapper().readTree(streamed);
+    assertThat(actual.get(TYPES_FIELD)).isEqualTo(expected.get(TYPES_FIELD));
+    assertThat(actual.get(FEATURE_STRUCTURES_FIELD).size())
+            .isEqualTo(expected.get(FEATURE_STRUCTURES_FIELD).size());
+    for (String viewName : asList(CAS.NAME_DEFAULT_SOFA, "other")) {
+      assertThat(describeMembers(actual, viewName)) //
+              .isNotEmpty() //
+              .containsExactlyInAnyOrderElementsOf(describeMembers(expected, viewName));
+    }
+  }
+
+  @Test
+  void thatNumericArraysCanBeEncodedAsBase64(@TempDir
+  File aTemp) throws Exception {
+    CAS cas = CasCreationUtils.createCas(makeTypeSystem(), null, null);
+    FloatArrayFS floats = cas.createFloatArrayFS(3);
+    floats.copyFromArray(new float[] { 1.5f, Float.NaN, -0.0f }, 0, 0, 3);
+    cas.addFsToIndexes(floats);
+    LongArrayFS longs = cas.createLongArrayFS(2);
+    longs.copyFromArray(new long[] { Long.MIN_VALUE, 42 }, 0, 0, 2);
+    cas.addFsToIndexes(longs);
+
+    File out = new File(aTemp, "out.json");
+    sut.setArrayEncodingMode(ArrayEncodingMode.BASE64);
+    sut.serialize(cas, out);
+
+    assertThat(contentOf(out, UTF_8)) //
+            .contains("\"array-encoding\" : \"base64\"") //
+            .contains("\"%ELEMENTS\" : \"AADAPwAAwH8AAACA\"");
+
+    CAS cas2 = CasCreationUtils.createCas(makeTypeSystem(), null, null);
+    new JsonCas2Deserializer().deserialize(out, cas2);
+
+    assertThat(cas2.select(FloatArray.class).single().toArray())
+            .containsExactly(1.5f, Float.NaN, -0.0f);
+    assertThat(cas2.select(LongArray.class).single().toArray())
+            .containsExactly(Long.MIN_VALUE, 42);
+  }
+
+  @Test
+  void thatBase64ArraysLargerThanTheCopyChunkRoundTrip(@TempDir
+  File aTemp) throws Exception {
+    CAS cas = CasCreationUtils.createCas(makeTypeSystem(), null, null);
+
+    double[] doubles = new double[2500];
+    for (int i = 0; i < doubles.length; i++) {
+      doubles[i] = i * 0.5;
+    }
+    DoubleArrayFS large = cas.createDoubleArrayFS(doubles.length);
+    large.copyFromArray(doubles, 0, 0, doubles.length);
+    cas.addFsToIndexes(large);
+    // Written after the large array, so it re-uses the already grown buffer
+    DoubleArrayFS small = cas.createDoubleArrayFS(2);
+    small.copyFromArray(new double[] { -1.0, 2.0 }, 0, 0, 2);
+    cas.addFsToIndexes(small);
+
+    File out = new File(aTemp, "out.json");
+    sut.setArrayEncodingMode(ArrayEncodingMode.BASE64);
+    sut.serialize(cas, out);
+
+    CAS cas2 = CasCreationUtils.createCas(makeTypeSystem(), null, null);
+    new JsonCas2Deserializer().deserialize(out, cas2);
+
+    assertThat(cas2.select(DoubleArray.class).asList()) //
+            .extracting(DoubleArray::toArray) //
+            .containsExactlyInAnyOrder(doubles, new double[] { -1.0, 2.0 });
+  }
+
+  @Test
+  void thatCompactFormattingProducesSameJsonWithoutWhitespace(@TempDir
+  File aTemp) throws Exception {
+    CAS cas = CasCreationUtils.createCas(makeTypeSystem(), null, null);
+    cas.setDocumentText("This is a test.");
+    createFeatureStructure(USED_ANNOTATION_TYPE, cas);
+
+    File pretty = new File(aTemp, "pretty.json");
+    sut.serialize(cas, pretty);
+
+    File compact = new File(aTemp, "compact.json");
+    sut.setFormattingMode(FormattingMode.COMPACT);
+    sut.serialize(cas, compact);
+
+    assertThat(contentOf(compact, UTF_8)) //
+            .doesNotContain("\n") //
+            .startsWith("{\"%TYPES\":{") //
+            .hasSizeLessThan(contentOf(pretty, UTF_8).length());
+    assertThatJson(contentOf(compact, UTF_8)).isEqualTo(contentOf(pretty, UTF_8));
+  }
+
+  @Test
+  void thatOffsetsAreConvertedPerView(@TempDir
+  File aTemp) throws Exception {
+    CAS cas = CasCreationUtils.createCas(makeTypeSystem(), null, null);
+    cas.setDocumentText("\u00e4 test");
+    CAS view = cas.createView("other");
+    view.setDocumentText("\ud83d\ude00 test");
+    Type type = cas.getTypeSystem().getType(UNUSED_ANNOTATION_TYPE);
+    // Both annotations cover "test", but the preceding characters have different UTF-8 lengths
+    cas.addFsToIndexes(cas.createAnnotation(type, 2, 6));
+    view.addFsToIndexes(view.createAnnotation(type, 3, 7));
+
+    File out = new File(aTemp, "out.json");
+    sut.setOffsetConversionMode(OffsetConversionMode.UTF_8);
+    sut.serialize(cas, out);
+
+    JsonNode doc = new ObjectMapper().readTree(out);
+
+    JsonNode inInitialView = findMember(doc, CAS.NAME_DEFAULT_SOFA, UNUSED_ANNOTATION_TYPE);
+    assertThat(inInitialView.get("begin").asInt()).isEqualTo(3);
+    assertThat(inInitialView.get("end").asInt()).isEqualTo(7);
+
+    JsonNode inOtherView = findMember(doc, "other", UNUSED_ANNOTATION_TYPE);
+    assertThat(inOtherView.get("begin").asInt()).isEqualTo(5);
+    assertThat(inOtherView.get("end").asInt()).isEqualTo(9);
+  }
+
+  @Test
+  void thatParallelModeProducesSameOutputAsSequentialMode(@TempDir
+  File aTemp) throws Exception {
+    // Chunks are only written in parallel for compact JSON
+    sut.setFormattingMode(FormattingMode.COMPACT);
+    sut.setOffsetConversionMode(OffsetConversionMode.UTF_8);
+    CAS cas = CasCreationUtils.createCas(makeTypeSystem(), null, null);
+    cas.setDocumentText("This is a test.");
+    Type type = cas.getTypeSystem().getType(USED_ANNOTATION_TYPE);
+    Type rangeType = cas.getTypeSystem().getType(ANNOTATION_TYPE_USED_FROM_RANGE);
+    // Large enough for several chunks per thread
+    for (int i = 0; i < 20000; i++) {
+      FeatureStructure fs = cas.createAnnotation(type, i % 15, 15);
+      // Referenced but not indexed, so the IDs depend on the order in which they are written
+      fs.setFeatureValue(type.getFeatureByBaseName("feat1"), cas.createAnnotation(rangeType, 0, 4));
+      if (i % 3 == 0) {
+        @SuppressWarnings("unchecked")
+        ArrayFS<FeatureStructure> array = cas.createArrayFS(2);
+        array.set(0, fs);
+        fs.setFeatureValue(type.getFeatureByBaseName("feat2"), array);
+      }
+      cas.addFsToIndexes(fs);
+    }
+
+    File sequential = new File(aTemp, "sequential.json");
+    sut.serialize(cas, sequential);
+
+    // The pool only starts worker threads once chunks are submitted to it
+    AtomicInteger workers = new AtomicInteger();
+    ForkJoinPool pool = new ForkJoinPool(4, aPool -> {
+      workers.incrementAndGet();
+      return ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(aPool);
+    }, null, false);
+    try {
+      File parallel = new File(aTemp, "parallel.json");
+      sut.setParallelMode(ParallelMode.PARALLEL);
+      sut.setForkJoinPool(pool);
+      sut.serialize(cas, parallel);
+
+      assertThat(workers.get()).isPositive();
+      assertThat(contentOf(parallel, UTF_8)).isEqualTo(contentOf(sequential, UTF_8));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
   private TypeSystemDescription makeTypeSystem() {
     TypeSystemDescription tsd = getResourceSpecifierFactory().createTypeSystemDescription();
     tsd.addType(ANNOTATION_TYPE_USED_FROM_PARENT, null, CAS.TYPE_NAME_ANNOTATION);
@@ -116,4 +398,32 @@ class CasSerializerTest {
     cas.addFsToIndexes(fs);
     return fs;
   }
+
+  /**
+   * @return the type and offsets of each member of the given view, which unlike the IDs do not
+   *         depend on the order in which the feature structures are written.
+   */
+  private static List<String> describeMembers(JsonNode aDoc, String aView) {
+    List<String> members = new ArrayList<>();
+    for (JsonNode member : aDoc.get(VIEWS_FIELD).get(aView).get(VIEW_MEMBERS_FIELD)) {
+      for (JsonNode fs : aDoc.get(FEATURE_STRUCTURES_FIELD)) {
+        if (fs.get(ID_FIELD).asInt() == member.asInt()) {
+          members.add(fs.get(TYPE_FIELD).asText() + " " + fs.get("begin") + "-" + fs.get("end"));
+        }
+      }
+    }
+    return members;
+  }
+
+  private static JsonNode findMember(JsonNode aDoc, String aView, String aType) {
+    for (JsonNode member : aDoc.get(VIEWS_FIELD).get(aView).get(VIEW_MEMBERS_FIELD)) {
+      for (JsonNode fs : aDoc.get(FEATURE_STRUCTURES_FIELD)) {
+        if (fs.get(ID_FIELD).asInt() == member.asInt()
+                && aType.equals(fs.get(TYPE_FIELD).asText())) {
+          return fs;
+        }
+      }
+    }
+    throw new AssertionError("No [" + aType + "] in view [" + aView + "]");
+  }
 }
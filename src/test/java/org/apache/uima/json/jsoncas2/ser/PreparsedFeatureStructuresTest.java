@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ser;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.uima.json.jsoncas2.Fixtures.makeAnnotationCas;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.json.jsoncas2.JsonCas2Codec;
+import org.apache.uima.json.jsoncas2.mode.FeatureStructuresMode;
+import org.apache.uima.json.jsoncas2.mode.ParallelMode;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+class PreparsedFeatureStructuresTest {
+  private static final int FS_COUNT = 5000;
+
+  // Brackets, braces and escaped quotes in strings must not confuse the structural scan
+  private static final String TEXT = "A \"quoted\" [text] with {braces}.";
+
+  private ForkJoinPool pool;
+
+  @BeforeEach
+  void setup() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.shutdown();
+  }
+
+  @Test
+  void thatParallelDeserializationProducesSameCasAsSequentialDeserialization() throws Exception {
+    byte[] json = serialize(FeatureStructuresMode.AS_ARRAY, makeAnnotationCas(TEXT, FS_COUNT));
+    assertThat(PreparsedFeatureStructures.start(json, new JsonFactory(), pool)).isNotNull();
+
+    assertThat(deserializeInParallel(FeatureStructuresMode.AS_ARRAY, json))
+            .isEqualTo(new String(json, UTF_8));
+  }
+
+  @Test
+  void thatFeatureStructuresAreSplitIntoChunksAndRemovedFromRemainder() throws Exception {
+    StringBuilder json = new StringBuilder("{\"%FEATURE_STRUCTURES\":[");
+    for (int i = 0; i < FS_COUNT; i++) {
+      json.append(i > 0 ? "," : "").append("{\"%ID\":").append(i).append("}");
+    }
+    json.append("],\"%VIEWS\":{}}");
+
+    PreparsedFeatureStructures sut = PreparsedFeatureStructures
+            .start(json.toString().getBytes(UTF_8), new JsonFactory(), pool);
+
+    assertThat(sut.getChunkCount()).isGreaterThan(1);
+    int count = 0;
+    for (int i = 0; i < sut.getChunkCount(); i++) {
+      count += sut.getChunk(i).size();
+    }
+    assertThat(count).isEqualTo(FS_COUNT);
+    assertThat(IOUtils.toString(sut.getRemainder(), UTF_8))
+            .isEqualTo("{\"%FEATURE_STRUCTURES\":[],\"%VIEWS\":{}}");
+  }
+
+  @Test
+  void thatSmallDocumentsAreNotSplit() throws Exception {
+    CAS cas = CasCreationUtils.createCas();
+    cas.setDocumentText("Small.");
+    cas.addFsToIndexes(cas.createAnnotation(cas.getAnnotationType(), 0, 5));
+
+    byte[] json = serialize(FeatureStructuresMode.AS_ARRAY, cas);
+
+    assertThat(PreparsedFeatureStructures.start(json, new JsonFactory(), pool)).isNull();
+    assertThat(deserializeInParallel(FeatureStructuresMode.AS_ARRAY, json))
+            .isEqualTo(new String(json, UTF_8));
+  }
+
+  @Test
+  void thatEscapedFeatureStructuresKeyFallsBackToSequentialDeserialization() throws Exception {
+    CAS cas = makeAnnotationCas(TEXT, FS_COUNT);
+    String expected = new String(serialize(FeatureStructuresMode.AS_ARRAY, cas), UTF_8);
+    byte[] json = expected.replace("\"%FEATURE_STRUCTURES\"", "\"\\u0025FEATURE_STRUCTURES\"")
+            .getBytes(UTF_8);
+
+    assertThat(PreparsedFeatureStructures.start(json, new JsonFactory(), pool)).isNull();
+    assertThat(deserializeInParallel(FeatureStructuresMode.AS_ARRAY, json)).isEqualTo(expected);
+  }
+
+  @Test
+  void thatFeatureStructuresObjectFallsBackToSequentialDeserialization() throws Exception {
+    byte[] json = serialize(FeatureStructuresMode.AS_OBJECT, makeAnnotationCas(TEXT, FS_COUNT));
+
+    assertThat(PreparsedFeatureStructures.start(json, new JsonFactory(), pool)).isNull();
+    assertThat(deserializeInParallel(FeatureStructuresMode.AS_OBJECT, json))
+            .isEqualTo(new String(json, UTF_8));
+  }
+
+  private String deserializeInParallel(FeatureStructuresMode aFsMode, byte[] aJson)
+          throws Exception {
+    JsonCas2Codec sut = JsonCas2Codec.builder() //
+            .withFsMode(aFsMode) //
+            .withParallelMode(ParallelMode.PARALLEL) //
+            .withForkJoinPool(pool) //
+            .build();
+    CAS target = CasCreationUtils.createCas();
+    sut.deserialize(new ByteArrayInputStream(aJson), target);
+    return new String(serialize(aFsMode, target), UTF_8);
+  }
+
+  private static byte[] serialize(FeatureStructuresMode aFsMode, CAS aCas) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JsonCas2Codec.builder().withFsMode(aFsMode).build().serialize(aCas, out);
+    return out.toByteArray();
+  }
+}
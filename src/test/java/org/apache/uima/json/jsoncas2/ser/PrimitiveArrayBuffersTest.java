@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.apache.uima.cas.BooleanArrayFS;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.DoubleArrayFS;
+import org.apache.uima.cas.FloatArrayFS;
+import org.apache.uima.cas.IntArrayFS;
+import org.apache.uima.cas.LongArrayFS;
+import org.apache.uima.cas.ShortArrayFS;
+import org.apache.uima.jcas.cas.BooleanArray;
+import org.apache.uima.jcas.cas.DoubleArray;
+import org.apache.uima.jcas.cas.FSArray;
+import org.apache.uima.jcas.cas.FloatArray;
+import org.apache.uima.jcas.cas.IntegerArray;
+import org.apache.uima.jcas.cas.LongArray;
+import org.apache.uima.jcas.cas.ShortArray;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.json.jsoncas2.JsonCas2Codec;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.api.Test;
+
+class PrimitiveArrayBuffersTest {
+  // Larger than the initial capacity of the buffers, so they have to grow while reading
+  private static final int LARGE = 200;
+
+  private final JsonCas2Codec sut = JsonCas2Codec.builder().build();
+
+  @Test
+  void thatPrimitiveArraysRoundTrip() throws Exception {
+    boolean[] booleans = new boolean[LARGE];
+    short[] shorts = new short[LARGE];
+    int[] ints = new int[LARGE];
+    long[] longs = new long[LARGE];
+    float[] floats = new float[LARGE];
+    double[] doubles = new double[LARGE];
+    for (int i = 0; i < LARGE; i++) {
+      booleans[i] = i % 3 == 0;
+      shorts[i] = (short) (i - 100);
+      ints[i] = i * 1000;
+      longs[i] = Long.MAX_VALUE - i;
+      floats[i] = i / 3.0f;
+      doubles[i] = -i / 7.0;
+    }
+    floats[1] = Float.NaN;
+    doubles[1] = Double.NEGATIVE_INFINITY;
+
+    CAS cas = CasCreationUtils.createCas();
+    // Each large array is followed by a small one, so the small ones re-use the grown buffers and
+    // must not pick up left-over elements
+    BooleanArrayFS booleanArray = cas.createBooleanArrayFS(LARGE);
+    booleanArray.copyFromArray(booleans, 0, 0, LARGE);
+    cas.addFsToIndexes(booleanArray);
+    cas.addFsToIndexes(cas.createBooleanArrayFS(0));
+    ShortArrayFS shortArray = cas.createShortArrayFS(LARGE);
+    shortArray.copyFromArray(shorts, 0, 0, LARGE);
+    cas.addFsToIndexes(shortArray);
+    cas.addFsToIndexes(cas.createShortArrayFS(1));
+    IntArrayFS intArray = cas.createIntArrayFS(LARGE);
+    intArray.copyFromArray(ints, 0, 0, LARGE);
+    cas.addFsToIndexes(intArray);
+    cas.addFsToIndexes(cas.createIntArrayFS(1));
+    LongArrayFS longArray = cas.createLongArrayFS(LARGE);
+    longArray.copyFromArray(longs, 0, 0, LARGE);
+    cas.addFsToIndexes(longArray);
+    cas.addFsToIndexes(cas.createLongArrayFS(1));
+    FloatArrayFS floatArray = cas.createFloatArrayFS(LARGE);
+    floatArray.copyFromArray(floats, 0, 0, LARGE);
+    cas.addFsToIndexes(floatArray);
+    cas.addFsToIndexes(cas.createFloatArrayFS(1));
+    DoubleArrayFS doubleArray = cas.createDoubleArrayFS(LARGE);
+    doubleArray.copyFromArray(doubles, 0, 0, LARGE);
+    cas.addFsToIndexes(doubleArray);
+    cas.addFsToIndexes(cas.createDoubleArrayFS(1));
+
+    CAS target = roundTrip(cas);
+
+    assertThat(target.select(BooleanArray.class).asList()) //
+            .extracting(BooleanArray::toArray) //
+            .containsExactlyInAnyOrder(booleans, new boolean[0]);
+    assertThat(target.select(ShortArray.class).asList()) //
+            .extracting(ShortArray::toArray) //
+            .containsExactlyInAnyOrder(shorts, new short[1]);
+    assertThat(target.select(IntegerArray.class).asList()) //
+            .extracting(IntegerArray::toArray) //
+            .containsExactlyInAnyOrder(ints, new int[1]);
+    assertThat(target.select(LongArray.class).asList()) //
+            .extracting(LongArray::toArray) //
+            .containsExactlyInAnyOrder(longs, new long[1]);
+    assertThat(target.select(FloatArray.class).asList()) //
+            .extracting(FloatArray::toArray) //
+            .containsExactlyInAnyOrder(floats, new float[1]);
+    assertThat(target.select(DoubleArray.class).asList()) //
+            .extracting(DoubleArray::toArray) //
+            .containsExactlyInAnyOrder(doubles, new double[1]);
+  }
+
+  @Test
+  void thatFeatureStructureArraysRoundTrip() throws Exception {
+    CAS cas = CasCreationUtils.createCas();
+    cas.setDocumentText("This is a test.");
+    FSArray<Annotation> array = new FSArray<>(cas.getJCas(), LARGE);
+    for (int i = 0; i < LARGE; i++) {
+      Annotation annotation = new Annotation(cas.getJCas(), i % 15, 15);
+      annotation.addToIndexes();
+      array.set(i, annotation);
+    }
+    array.addToIndexes();
+    cas.addFsToIndexes(new FSArray<>(cas.getJCas(), 0));
+
+    CAS target = roundTrip(cas);
+
+    assertThat(target.select(FSArray.class).asList()) //
+            .extracting(fsArray -> fsArray.size()) //
+            .containsExactlyInAnyOrder(LARGE, 0);
+    for (FSArray<?> actual : target.select(FSArray.class)) {
+      for (int i = 0; i < actual.size(); i++) {
+        assertThat(((Annotation) actual.get(i)).getBegin()).isEqualTo(i % 15);
+      }
+    }
+  }
+
+  private CAS roundTrip(CAS aCas) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    sut.serialize(aCas, out);
+    CAS target = CasCreationUtils.createCas();
+    sut.deserialize(new ByteArrayInputStream(out.toByteArray()), target);
+    return target;
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.jsoncas2.ser;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.uima.json.jsoncas2.JsonCas2Names.FEATURE_STRUCTURES_FIELD;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class StructuralIndexTest {
+  @Test
+  void thatElementsAreLocated() {
+    byte[] json = ("{\"a\" : [ { \"x\" : 1 } ], \"%FEATURE_STRUCTURES\" : [ "
+            + "{ \"s\" : \"]}\\\"[{\" }, {\"n\":{\"m\":[1,{}]}} ], \"b\" : 2 }").getBytes(UTF_8);
+
+    StructuralIndex sut = StructuralIndex.scan(json, FEATURE_STRUCTURES_FIELD);
+
+    assertThat(sut).isNotNull();
+    assertThat((char) json[sut.arrayStart]).isEqualTo('[');
+    assertThat(new String(json, sut.arrayEnd, json.length - sut.arrayEnd, UTF_8))
+            .isEqualTo("], \"b\" : 2 }");
+    assertThat(sut.elementCount).isEqualTo(2);
+    assertThat(element(json, sut, 0)).isEqualTo("{ \"s\" : \"]}\\\"[{\" }");
+    assertThat(element(json, sut, 1)).isEqualTo("{\"n\":{\"m\":[1,{}]}}");
+  }
+
+  @Test
+  void thatEmptyArrayHasNoElements() {
+    byte[] json = "{\"%FEATURE_STRUCTURES\":[]}".getBytes(UTF_8);
+
+    StructuralIndex sut = StructuralIndex.scan(json, FEATURE_STRUCTURES_FIELD);
+
+    assertThat(sut).isNotNull();
+    assertThat(sut.elementCount).isZero();
+    assertThat(sut.arrayEnd).isEqualTo(sut.arrayStart + 1);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = { //
+      // The key is only matched literally, escaped keys are left to the sequential parser
+      "{\"\\u0025FEATURE_STRUCTURES\":[{}]}", //
+      "{\"%FEATURE_STRUCTURES\":{\"1\":{}}}", //
+      "{\"x\":{\"%FEATURE_STRUCTURES\":[{}]}}", //
+      "{\"a\":\"%FEATURE_STRUCTURES\",\"b\":[{}]}", //
+      "{\"%FEATURE_STRUCTURES\":[{},1]}", //
+      "{\"%FEATURE_STRUCTURES\":[{},\"s\"]}", //
+      "{\"%FEATURE_STRUCTURES\":[{},[]]}", //
+      "{\"%FEATURE_STRUCTURES\":[{\"s\":\"abc", //
+      "{\"%FEATURE_STRUCTURES\":[{}" })
+  void thatDocumentsWithoutArrayOfObjectsAreNotIndexed(String aJson) {
+    assertThat(StructuralIndex.scan(aJson.getBytes(UTF_8), FEATURE_STRUCTURES_FIELD)).isNull();
+  }
+
+  private static String element(byte[] aJson, StructuralIndex aIndex, int aElement) {
+    int start = aIndex.elementStarts[aElement];
+    return new String(aJson, start, aIndex.elementEnds[aElement] - start, UTF_8);
+  }
+}